@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS tasks_user_id_done_id_idx ON tasks (user_id, done, id);
+
+COMMENT ON INDEX tasks_user_id_done_id_idx IS 'Индекс выборки задач пользователя по статусу с сортировкой по идентификатору';
\ No newline at end of file
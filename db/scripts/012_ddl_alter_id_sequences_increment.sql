@@ -0,0 +1,4 @@
+ALTER SEQUENCE todo_users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE priorities_id_seq INCREMENT BY 50;
+ALTER SEQUENCE categories_id_seq INCREMENT BY 50;
+ALTER SEQUENCE tasks_id_seq INCREMENT BY 50;
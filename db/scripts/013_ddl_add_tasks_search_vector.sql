@@ -0,0 +1,13 @@
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('russian', coalesce(name, '')), 'A')
+        || setweight(to_tsvector('russian', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX IF NOT EXISTS tasks_user_id_search_vector_idx ON tasks USING gin (user_id, search_vector);
+
+COMMENT ON COLUMN tasks.search_vector IS 'Поисковый вектор наименования (вес A) и описания (вес B) задачи';
+
+COMMENT ON INDEX tasks_user_id_search_vector_idx IS 'Индекс полнотекстового поиска задач пользователя';
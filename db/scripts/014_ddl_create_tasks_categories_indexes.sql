@@ -0,0 +1,17 @@
+DELETE FROM tasks_categories a
+    USING tasks_categories b
+    WHERE a.task_id = b.task_id AND a.category_id = b.category_id AND a.id > b.id;
+
+ALTER TABLE tasks_categories
+    ADD CONSTRAINT tasks_categories_task_id_category_id_key UNIQUE (task_id, category_id);
+
+CREATE INDEX IF NOT EXISTS tasks_categories_category_id_idx ON tasks_categories (category_id);
+
+CREATE INDEX IF NOT EXISTS tasks_done_id_idx ON tasks (done, id);
+
+CREATE INDEX IF NOT EXISTS tasks_priority_id_idx ON tasks (priority_id);
+
+COMMENT ON CONSTRAINT tasks_categories_task_id_category_id_key ON tasks_categories IS 'Уникальность связи задания и категории, индекс используется для выборки категорий по заданию';
+COMMENT ON INDEX tasks_categories_category_id_idx IS 'Индекс выборки связей по категории';
+COMMENT ON INDEX tasks_done_id_idx IS 'Индекс выборки задач по статусу с сортировкой по идентификатору';
+COMMENT ON INDEX tasks_priority_id_idx IS 'Индекс внешнего ключа на приоритет задачи';
@@ -0,0 +1,25 @@
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS created_at timestamptz;
+
+ALTER TABLE tasks ALTER COLUMN created DROP NOT NULL;
+
+CREATE OR REPLACE FUNCTION tasks_sync_created_at() RETURNS trigger AS $$
+BEGIN
+    IF NEW.created_at IS NULL
+            OR (TG_OP = 'UPDATE' AND NEW.created IS DISTINCT FROM OLD.created) THEN
+        NEW.created_at := NEW.created AT TIME ZONE 'Europe/Moscow';
+    ELSIF NEW.created IS NULL
+            OR (TG_OP = 'UPDATE' AND NEW.created_at IS DISTINCT FROM OLD.created_at) THEN
+        NEW.created := NEW.created_at AT TIME ZONE 'Europe/Moscow';
+    END IF;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tasks_sync_created_at ON tasks;
+
+CREATE TRIGGER tasks_sync_created_at BEFORE INSERT OR UPDATE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION tasks_sync_created_at();
+
+COMMENT ON COLUMN tasks.created_at IS 'Момент создания задачи';
+COMMENT ON COLUMN tasks.created IS 'Время создания задачи по Москве, заменяется колонкой created_at';
+COMMENT ON FUNCTION tasks_sync_created_at() IS 'Согласование колонок created и created_at на время перехода';
@@ -0,0 +1,15 @@
+DO $$
+DECLARE
+    batch CONSTANT integer := 10000;
+    last_id integer := 0;
+    max_id integer;
+BEGIN
+    SELECT coalesce(max(id), 0) INTO max_id FROM tasks;
+    WHILE last_id < max_id LOOP
+        UPDATE tasks SET created_at = created AT TIME ZONE 'Europe/Moscow'
+            WHERE id > last_id AND id <= last_id + batch AND created_at IS NULL;
+        last_id := last_id + batch;
+        COMMIT;
+    END LOOP;
+END
+$$;
@@ -0,0 +1,13 @@
+ALTER TABLE tasks ADD CONSTRAINT tasks_created_at_not_null CHECK (created_at IS NOT NULL) NOT VALID;
+
+ALTER TABLE tasks VALIDATE CONSTRAINT tasks_created_at_not_null;
+
+ALTER TABLE tasks ALTER COLUMN created_at SET NOT NULL;
+
+ALTER TABLE tasks DROP CONSTRAINT tasks_created_at_not_null;
+
+DROP TRIGGER IF EXISTS tasks_sync_created_at ON tasks;
+
+DROP FUNCTION IF EXISTS tasks_sync_created_at();
+
+ALTER TABLE tasks DROP COLUMN created;
@@ -0,0 +1,17 @@
+CREATE TABLE IF NOT EXISTS user_sessions (
+   id varchar(64) PRIMARY KEY,
+   user_id int NOT NULL REFERENCES todo_users(id) ON DELETE CASCADE,
+   user_zone varchar,
+   created_at timestamp with time zone NOT NULL,
+   last_access timestamp with time zone NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS user_sessions_last_access_idx ON user_sessions (last_access);
+
+COMMENT ON TABLE user_sessions IS 'Сессии пользователей, общие для всех экземпляров приложения';
+COMMENT ON COLUMN user_sessions.id IS 'Случайный идентификатор сессии из cookie';
+COMMENT ON COLUMN user_sessions.user_id IS 'Ссылка на пользователя';
+COMMENT ON COLUMN user_sessions.user_zone IS 'Временная зона пользователя';
+COMMENT ON COLUMN user_sessions.created_at IS 'Момент создания сессии';
+COMMENT ON COLUMN user_sessions.last_access IS 'Момент последнего обращения, обновляется пакетно';
+COMMENT ON INDEX user_sessions_last_access_idx IS 'Индекс удаления истекших сессий';
@@ -0,0 +1,3 @@
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS version int NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN tasks.version IS 'Версия задачи, увеличивается при каждом изменении для обнаружения одновременного редактирования';
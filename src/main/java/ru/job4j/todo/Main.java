@@ -2,13 +2,21 @@ package ru.job4j.todo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
- * Основной класс для запуска приложения
+ * Основной класс для запуска приложения.
+ * Источник данных и фабрика сессий создаются в {@link ru.job4j.todo.config.DataSourceConfig},
+ * поэтому автоконфигурация источника данных и JPA отключена.
+ * Планировщик выполняет периодические задачи, например обновление
+ * каталога временных зон {@link ru.job4j.todo.view.TimeZoneCatalog}.
  * @author Alexander Emelyanov
  * @version 1.0
  */
-@SpringBootApplication
+@EnableScheduling
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
 public class Main {
 
     /**
@@ -1,11 +1,23 @@
 package ru.job4j.todo.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.orm.hibernate5.HibernateTransactionManager;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Конфигурация источника данных
@@ -15,17 +27,91 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class DataSourceConfig {
 
+    /**
+     * Префикс свойств окружения, переопределяющих настройки из hibernate.cfg.xml
+     */
+    private static final String HIBERNATE_PREFIX = "hibernate.";
+
     /**
      * Создание объекта (bean), используемого для
      * подключения к базе данных приложения,
-     * параметры считываются из файла /resources/hibernate.cfg.xml
+     * параметры считываются из файла /resources/hibernate.cfg.xml.
+     * Соединения выдаются пулом HikariCP (свойства hibernate.hikari.*),
+     * любое свойство с префиксом hibernate. может быть переопределено
+     * через окружение Spring, например -Dhibernate.hikari.maximumPoolSize=20.
      *
+     * @param env окружение приложения
      * @return объект (фабрика сессий)
      */
     @Bean(destroyMethod = "close")
-    public SessionFactory sf() {
+    public SessionFactory sf(ConfigurableEnvironment env) {
         final StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
-                .configure().build();
+                .configure()
+                .applySettings(hibernateOverrides(env))
+                .build();
         return new MetadataSources(registry).buildMetadata().buildSessionFactory();
     }
+
+    /**
+     * Создание объекта (bean) менеджера транзакций. Методы сервисов с аннотацией
+     * Transactional выполняются в одной сессии и транзакции, в которой участвуют
+     * все вызванные ими операции хранилищ, поэтому на запрос пользователя приходится
+     * одно соединение из пула и одна фиксация транзакции.
+     *
+     * @param sf фабрика сессий
+     * @return менеджер транзакций
+     */
+    @Bean
+    public HibernateTransactionManager transactionManager(SessionFactory sf) {
+        return new HibernateTransactionManager(sf);
+    }
+
+    /**
+     * Создание объекта (bean) с показателями пула соединений: количество
+     * активных, простаивающих и ожидающих соединение потоков. Эти же показатели
+     * публикуются через JMX (hibernate.hikari.registerMbeans).
+     *
+     * @param sf фабрика сессий
+     * @return показатели пула соединений
+     */
+    @Bean
+    public HikariPoolMXBean connectionPool(SessionFactory sf) {
+        return ((SessionFactoryImplementor) sf).getServiceRegistry()
+                .getService(ConnectionProvider.class)
+                .unwrap(HikariDataSource.class)
+                .getHikariPoolMXBean();
+    }
+
+    /**
+     * Создание объекта (bean) статистики hibernate: попадания и промахи второго
+     * уровня кэша по регионам (справочники приоритетов и категорий) и кэша запросов.
+     * Статистика JCache-кэшей дополнительно публикуется через JMX (ehcache.xml).
+     *
+     * @param sf фабрика сессий
+     * @return статистика фабрики сессий
+     */
+    @Bean
+    public Statistics hibernateStatistics(SessionFactory sf) {
+        return sf.getStatistics();
+    }
+
+    /**
+     * Выполняет сбор свойств окружения с префиксом hibernate.
+     *
+     * @param env окружение приложения
+     * @return свойства для переопределения настроек hibernate
+     */
+    private Map<String, Object> hibernateOverrides(ConfigurableEnvironment env) {
+        Map<String, Object> settings = new HashMap<>();
+        for (PropertySource<?> source : env.getPropertySources()) {
+            if (source instanceof EnumerablePropertySource<?> enumerable) {
+                for (String name : enumerable.getPropertyNames()) {
+                    if (name.startsWith(HIBERNATE_PREFIX)) {
+                        settings.putIfAbsent(name, env.getProperty(name));
+                    }
+                }
+            }
+        }
+        return settings;
+    }
 }
@@ -5,13 +5,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import ru.job4j.todo.filter.Authenticator;
 import ru.job4j.todo.model.User;
 import ru.job4j.todo.service.UserService;
 import ru.job4j.todo.util.UserUtil;
 
 import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpServletResponse;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Контроллер для страницы входа пользователя
@@ -28,13 +30,19 @@ public class LoginController {
      */
     private final UserService userService;
 
+    /**
+     * Аутентификация пользователя по сессии или маркеру
+     */
+    private final Authenticator authenticator;
+
     /**
      * Обрабатывает GET запрос, возвращает страницу входа пользователя.
-     * В зависимости от параметров error и logout на страницу будут выведены сообщения
-     * для пользователя о необходимости исправить вводимые данные.
+     * В зависимости от параметров error, logout и busy на страницу будут выведены сообщения
+     * для пользователя о необходимости исправить вводимые данные или повторить вход позже.
      *
      * @param error параметр GET запроса, true, если есть ошибка при заполнении формы
      * @param logout параметр GET запроса, true, если пользователь разлогинился
+     * @param busy параметр GET запроса, true, если вход отклонен из-за перегрузки
      * @param model модель
      * @param request запрос пользователя
      * @return страница входа пользователя
@@ -42,6 +50,7 @@ public class LoginController {
     @GetMapping({"/", "/login"})
     public String loginPage(@RequestParam(value = "error", required = false) String error,
                             @RequestParam(value = "logout", required = false) String logout,
+                            @RequestParam(value = "busy", required = false) String busy,
                             Model model,
                             HttpServletRequest request) {
         String errorMessage = null;
@@ -51,6 +60,9 @@ public class LoginController {
         if (logout != null) {
             errorMessage = "Вы вышли!";
         }
+        if (busy != null) {
+            errorMessage = "Сервер перегружен, повторите вход позже";
+        }
         model.addAttribute("errorMessage", errorMessage);
         model.addAttribute("user", UserUtil.getSessionUser(request));
         return "user/login";
@@ -58,34 +70,36 @@ public class LoginController {
 
     /**
      * Обрабатывает POST запрос, возвращает страницу со списком задач.
-     * При удачной валидации пользователя, пользователь записывается
-     * в аттрибуты сессии, при неудачной валидации exceptionHandler
+     * При удачной валидации пользователя выполняется вход пользователя:
+     * пользователь записывается в аттрибуты сессии или в ответ добавляется
+     * cookie с маркером, при неудачной валидации exceptionHandler
      * контроллера выполняет переадресацию на страницу регистрации
      * с соответствующими параметрами.
      *
      * @param user параметр GET запроса, true, если есть ошибка при заполнении формы
      * @param request запрос пользователя
+     * @param response ответ пользователю
      * @return список задач
      */
     @PostMapping("/login")
-    public String loginUser(@ModelAttribute User user, HttpServletRequest request) {
+    public String loginUser(@ModelAttribute User user, HttpServletRequest request, HttpServletResponse response) {
         User userFromDB = userService.validateUserLogin(user);
-        HttpSession session = request.getSession();
-        session.setAttribute("user", userFromDB);
+        authenticator.login(request, response, userFromDB);
         return "redirect:/tasks";
     }
 
     /**
      * Обрабатывает GET запрос, перенаправляет на страницу входа.
-     * Выполняется выход пользователя из приложения и
-     * очистка сессии.
+     * Выполняется выход пользователя из приложения,
+     * очистка сессии и удаление cookie с маркером.
      *
-     * @param session сессия клиента
+     * @param request запрос пользователя
+     * @param response ответ пользователю
      * @return перенаправление на страницу входа с параметром logout=true
      */
     @GetMapping(value = "/logout")
-    public String logoutPage(HttpSession session) {
-        session.invalidate();
+    public String logoutPage(HttpServletRequest request, HttpServletResponse response) {
+        authenticator.logout(request, response);
         return "redirect:/login?logout=true";
     }
 
@@ -102,4 +116,18 @@ public class LoginController {
         log.error(e.getLocalizedMessage());
         return "redirect:/login?error=true";
     }
+
+    /**
+     * Выполняет локальный (уровня контроллера) перехват исключения
+     * RejectedExecutionException, возникающего при заполненной очереди
+     * проверки паролей, в случае перехвата, перенаправляет на страницу входа.
+     *
+     * @param e перехваченное исключение
+     * @return перенаправление на страницу входа с параметром busy=true
+     */
+    @ExceptionHandler(value = {RejectedExecutionException.class})
+    public String busyHandler(Exception e) {
+        log.warn("Вход отклонен, очередь проверки паролей заполнена");
+        return "redirect:/login?busy=true";
+    }
 }
@@ -9,9 +9,11 @@ import org.springframework.web.bind.annotation.*;
 import ru.job4j.todo.model.User;
 import ru.job4j.todo.service.UserService;
 import ru.job4j.todo.util.UserUtil;
+import ru.job4j.todo.view.TimeZoneCatalog;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Контроллер страницы регистрации пользователя
@@ -29,13 +31,20 @@ public class RegController {
      */
     private final UserService userService;
 
+    /**
+     * Каталог временных зон
+     */
+    private final TimeZoneCatalog timeZoneCatalog;
+
     /**
      * Обрабатывает GET запрос, возвращает страницу регистрации пользователя.
-     * В зависимости от параметров password и account на страницу будут выведены
-     * сообщения для пользователя о необходимости исправить вводимые данные.
+     * В зависимости от параметров password, account и busy на страницу будут выведены
+     * сообщения для пользователя о необходимости исправить вводимые данные
+     * или повторить регистрацию позже.
      *
      * @param password параметр GET запроса, true, если есть ошибка валидации пароля
      * @param account параметр GET запроса, true, если ошибка валидации
+     * @param busy параметр GET запроса, true, если регистрация отклонена из-за перегрузки
      * @param model модель
      * @param request запрос пользователя
      * @return страница регистрации пользователя
@@ -43,6 +52,7 @@ public class RegController {
     @GetMapping
     public String regPage(@RequestParam(value = "password", required = false) String password,
                           @RequestParam(value = "account", required = false) String account,
+                          @RequestParam(value = "busy", required = false) String busy,
                           Model model,
                           HttpServletRequest request) {
         String errorMessage = null;
@@ -52,7 +62,11 @@ public class RegController {
         if (account != null) {
             errorMessage = "Пользователь с таким email существует!";
         }
+        if (busy != null) {
+            errorMessage = "Сервер перегружен, повторите попытку позже";
+        }
         model.addAttribute("errorMessage", errorMessage);
+        model.addAttribute("zones", timeZoneCatalog.getRegions());
         model.addAttribute("user", UserUtil.getSessionUser(request));
         return "user/registration";
     }
@@ -62,16 +76,26 @@ public class RegController {
      * При удачной валидации пользователя, пользователь сохраняется в базе,
      * при неудачной валидации exceptionHandler контроллера выполняет переадресацию
      * на страницу регистрации с соответствующими параметрами.
+     * Временная зона не обязательна, выбранная зона проверяется по каталогу
+     * временных зон.
      *
      * @param user пользователь сформированный из данных формы регистрации
      * @param errors список ошибок полученных при валидации модели пользователя
      * @param repassword повторно набранный пароль
+     * @param model модель
      * @return страница входа пользователя
      */
     @PostMapping
     public String regSave(@Valid @ModelAttribute User user, Errors errors,
-                          @RequestParam String repassword) {
+                          @RequestParam String repassword, Model model) {
+        if (user.getTimezone() != null && user.getTimezone().isEmpty()) {
+            user.setTimezone(null);
+        }
+        if (user.getTimezone() != null && !timeZoneCatalog.contains(user.getTimezone())) {
+            errors.rejectValue("timezone", "timezone.unknown", "Неизвестная временная зона");
+        }
         if (errors.hasErrors()) {
+            model.addAttribute("zones", timeZoneCatalog.getRegions());
             return "user/registration";
         }
         if (!user.getPassword().equals(repassword)) {
@@ -94,4 +118,19 @@ public class RegController {
         log.error(e.getLocalizedMessage());
         return "redirect:/registration?account=true";
     }
-}
\ No newline at end of file
+
+    /**
+     * Выполняет локальный (уровня контроллера) перехват исключений
+     * RejectedExecutionException, возникающих при заполненной очереди
+     * хеширования паролей, в случае перехвата, перенаправляет на страницу
+     * регистрации с сообщением о перегрузке.
+     *
+     * @param e перехваченное исключение
+     * @return перенаправление на страницу регистрации с параметром busy=true
+     */
+    @ExceptionHandler(value = {RejectedExecutionException.class})
+    public String busyHandler(Exception e) {
+        log.warn("Регистрация отклонена, очередь хеширования паролей заполнена");
+        return "redirect:/registration?busy=true";
+    }
+}
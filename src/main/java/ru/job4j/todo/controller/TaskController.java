@@ -2,22 +2,33 @@ package ru.job4j.todo.controller;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+import ru.job4j.todo.dto.Page;
+import ru.job4j.todo.dto.TaskListView;
+import ru.job4j.todo.dto.TaskSearchResult;
+import ru.job4j.todo.model.Category;
 import ru.job4j.todo.model.Task;
 import ru.job4j.todo.model.User;
 import ru.job4j.todo.service.CategoryService;
+import ru.job4j.todo.service.PriorityService;
+import ru.job4j.todo.service.TaskConflictException;
 import ru.job4j.todo.service.TaskService;
-import ru.job4j.todo.util.DateTmeUtil;
 import ru.job4j.todo.util.UserUtil;
 
 import javax.servlet.http.HttpServletRequest;
-import java.time.ZoneId;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Контроллер задач
@@ -29,6 +40,16 @@ import java.util.List;
 @Controller
 public class TaskController {
 
+    /**
+     * Количество заданий на странице списка
+     */
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Адреса списков заданий, на которые допускается возврат после группового действия
+     */
+    private static final Set<String> LIST_URLS = Set.of("/tasks", "/newTasks", "/doneTasks");
+
     /**
      * Объект для доступа к методам TaskService
      */
@@ -40,58 +61,110 @@ public class TaskController {
     private final CategoryService categoryService;
 
     /**
-     * Обрабатывает GET запрос, возвращает страницу списка всех заданий.
+     * Объект для доступа к методам PriorityService
+     */
+    private final PriorityService priorityService;
+
+    /**
+     * Обрабатывает GET запрос, возвращает страницу списка всех заданий пользователя.
      *
+     * @param after курсор следующей страницы
+     * @param before курсор предыдущей страницы
      * @param model модель
      * @param request запрос пользователя
      * @return страница списка заданий
      */
     @GetMapping("/tasks")
-    public String getTasks(Model model, HttpServletRequest request) {
+    public String getTasks(@RequestParam(value = "after", required = false) Integer after,
+                           @RequestParam(value = "before", required = false) Integer before,
+                           Model model, HttpServletRequest request) {
         User user = UserUtil.getSessionUser(request);
-        String userTimezone = DateTmeUtil.getUserTimeZone(user);
-        List<Task> tasks = taskService.findAllTasks();
-        for (Task task : tasks) {
-            task.setCreated(
-                    task.getCreated()
-                            .atZone(ZoneId.systemDefault())
-                            .withZoneSameInstant(ZoneId.of(userTimezone))
-                            .toLocalDateTime()
-            );
-        }
+        addPage(model, taskService.findTasksPage(user.getId(), null, after, before, PAGE_SIZE), "/tasks");
         model.addAttribute("user", user);
-        model.addAttribute("tasks", tasks);
+        model.addAttribute("zone", UserUtil.getSessionZone(request));
         return "task/tasks";
     }
 
     /**
-     * Обрабатывает GET запрос, возвращает страницу списка заданий с новыми заданиями.
+     * Обрабатывает GET запрос, возвращает страницу списка заданий с новыми заданиями пользователя.
      *
+     * @param after курсор следующей страницы
+     * @param before курсор предыдущей страницы
      * @param model модель
      * @param request запрос пользователя
      * @return страница списка заданий с новыми заданиями
      */
     @GetMapping("/newTasks")
-    public String getNewTasks(Model model, HttpServletRequest request) {
-        model.addAttribute("user", UserUtil.getSessionUser(request));
-        model.addAttribute("tasks", taskService.findNewTasks());
+    public String getNewTasks(@RequestParam(value = "after", required = false) Integer after,
+                              @RequestParam(value = "before", required = false) Integer before,
+                              Model model, HttpServletRequest request) {
+        User user = UserUtil.getSessionUser(request);
+        addPage(model, taskService.findTasksPage(user.getId(), false, after, before, PAGE_SIZE), "/newTasks");
+        model.addAttribute("user", user);
+        model.addAttribute("zone", UserUtil.getSessionZone(request));
         return "task/tasks";
     }
 
     /**
-     * Обрабатывает GET запрос, возвращает страницу списка заданий с выполненными заданиями.
+     * Обрабатывает GET запрос, возвращает страницу списка заданий с выполненными заданиями
+     * пользователя.
      *
+     * @param after курсор следующей страницы
+     * @param before курсор предыдущей страницы
      * @param model модель
      * @param request запрос пользователя
      * @return страница списка заданий с выполненными заданиями
      */
     @GetMapping("/doneTasks")
-    public String getDoneTasks(Model model, HttpServletRequest request) {
-        model.addAttribute("user", UserUtil.getSessionUser(request));
-        model.addAttribute("tasks", taskService.findDoneTasks());
+    public String getDoneTasks(@RequestParam(value = "after", required = false) Integer after,
+                               @RequestParam(value = "before", required = false) Integer before,
+                               Model model, HttpServletRequest request) {
+        User user = UserUtil.getSessionUser(request);
+        addPage(model, taskService.findTasksPage(user.getId(), true, after, before, PAGE_SIZE), "/doneTasks");
+        model.addAttribute("user", user);
+        model.addAttribute("zone", UserUtil.getSessionZone(request));
         return "task/tasks";
     }
 
+    /**
+     * Обрабатывает GET запрос, возвращает страницу результатов поиска заданий
+     * пользователя по наименованию и описанию.
+     *
+     * @param text поисковый запрос
+     * @param page номер страницы результатов
+     * @param model модель
+     * @param request запрос пользователя
+     * @return страница результатов поиска заданий
+     */
+    @GetMapping("/searchTasks")
+    public String searchTasks(@RequestParam(value = "q", required = false) String text,
+                              @RequestParam(value = "page", defaultValue = "0") int page,
+                              Model model, HttpServletRequest request) {
+        User user = UserUtil.getSessionUser(request);
+        Page<TaskSearchResult> results = taskService.searchTasks(user.getId(), text, page, PAGE_SIZE);
+        model.addAttribute("results", results.getItems());
+        model.addAttribute("page", results);
+        model.addAttribute("query", text == null ? "" : text);
+        model.addAttribute("user", user);
+        model.addAttribute("zone", UserUtil.getSessionZone(request));
+        return "task/searchTasks";
+    }
+
+    /**
+     * Добавляет в модель задания страницы и курсоры для перехода
+     * на соседние страницы списка.
+     *
+     * @param model модель
+     * @param page страница заданий
+     * @param listUrl адрес списка заданий для ссылок перехода между страницами
+     */
+    private void addPage(Model model, Page<TaskListView> page, String listUrl) {
+        model.addAttribute("tasks", page.getItems());
+        model.addAttribute("page", page);
+        model.addAttribute("listUrl", listUrl);
+        model.addAttribute("priorities", priorityService.findAllPriorities());
+    }
+
     /**
      * Обрабатывает GET запрос, возвращает страницу добавления задания.
      *
@@ -105,6 +178,7 @@ public class TaskController {
         model.addAttribute("user", user);
         Task task = new Task();
         model.addAttribute("categories", categoryService.findAllCategories());
+        model.addAttribute("priorities", priorityService.findAllPriorities());
         model.addAttribute("task", task);
         return "task/addTask";
     }
@@ -125,8 +199,7 @@ public class TaskController {
                            HttpServletRequest request) {
         User user = UserUtil.getSessionUser(request);
         task.setUser(user);
-        task.setCategories(categoryService.findCategoriesByIds(categoryIds));
-        taskService.addOrUpdateTask(task);
+        taskService.addOrUpdateTask(task, categoryIds);
         return "redirect:/tasks";
     }
 
@@ -143,6 +216,7 @@ public class TaskController {
     public String getTaskDetails(@RequestParam(value = "taskId") int taskId,
             Model model, HttpServletRequest request) {
         model.addAttribute("user", UserUtil.getSessionUser(request));
+        model.addAttribute("zone", UserUtil.getSessionZone(request));
         model.addAttribute("task", taskService.findTaskById(taskId));
         return "task/taskDetails";
     }
@@ -162,6 +236,7 @@ public class TaskController {
             Model model, HttpServletRequest request) {
         Task task = taskService.taskDone(taskId);
         model.addAttribute("user", UserUtil.getSessionUser(request));
+        model.addAttribute("zone", UserUtil.getSessionZone(request));
         model.addAttribute("task", task);
         return "task/taskDetails";
     }
@@ -177,18 +252,10 @@ public class TaskController {
     @GetMapping("/editTask{taskId}")
     public String editTask(@RequestParam(value = "taskId") int taskId,
             Model model, HttpServletRequest request) {
-        User user = UserUtil.getSessionUser(request);
-        String userTimezone = DateTmeUtil.getUserTimeZone(user);
-        Task task = taskService.findTaskById(taskId);
-        task.setCreated(
-                task.getCreated()
-                        .atZone(ZoneId.systemDefault())
-                        .withZoneSameInstant(ZoneId.of(userTimezone))
-                        .toLocalDateTime()
-        );
         model.addAttribute("categories", categoryService.findAllCategories());
-        model.addAttribute("user", user);
-        model.addAttribute("task", task);
+        model.addAttribute("priorities", priorityService.findAllPriorities());
+        model.addAttribute("user", UserUtil.getSessionUser(request));
+        model.addAttribute("task", taskService.findTaskById(taskId));
         return "task/editTask";
     }
 
@@ -203,4 +270,74 @@ public class TaskController {
         taskService.deleteTaskById(taskId);
         return "redirect:/tasks";
     }
-}
\ No newline at end of file
+
+    /**
+     * Обрабатывает POST запрос, выполняет групповое действие над выбранными
+     * заданиями пользователя в одной транзакции: done - перевод в выполненные,
+     * delete - удаление, priority - изменение приоритета.
+     * Возвращает страницу списка, с которой было выполнено действие.
+     * Неизвестное действие отклоняется с ответом 400.
+     *
+     * @param taskIds идентификаторы выбранных заданий
+     * @param action групповое действие
+     * @param priorityName имя приоритета для действия priority
+     * @param listUrl адрес списка заданий для возврата
+     * @param request запрос пользователя
+     * @return страница списка заданий
+     * @exception ResponseStatusException с ответом 400, если действие неизвестно
+     */
+    @PostMapping("/bulkTasks")
+    public String bulkTasks(@RequestParam(value = "taskIds", required = false) List<Integer> taskIds,
+                            @RequestParam(value = "action") String action,
+                            @RequestParam(value = "priorityName", required = false) String priorityName,
+                            @RequestParam(value = "listUrl", required = false) String listUrl,
+                            HttpServletRequest request) {
+        User user = UserUtil.getSessionUser(request);
+        switch (action) {
+            case "done" -> taskService.completeTasks(taskIds, user.getId());
+            case "delete" -> taskService.deleteTasks(taskIds, user.getId());
+            case "priority" -> taskService.changePriority(taskIds, priorityName, user.getId());
+            default -> {
+                log.warn("Неизвестное групповое действие над заданиями: {}", action);
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        String.format("Неизвестное групповое действие %s", action));
+            }
+        }
+        return "redirect:" + (listUrl != null && LIST_URLS.contains(listUrl) ? listUrl : "/tasks");
+    }
+
+    /**
+     * Выполняет локальный (уровня контроллера) перехват исключения
+     * TaskConflictException, возникающего, если задача изменена или удалена
+     * после открытия формы редактирования. Возвращает страницу слияния
+     * с ответом 409: изменения пользователя в форме редактирования рядом
+     * с текущей версией задачи. Форма отправляется с текущей версией задачи,
+     * поэтому повторное сохранение снова проверяется на одновременное изменение.
+     *
+     * @param e перехваченное исключение
+     * @param model модель
+     * @param request запрос пользователя
+     * @return страница слияния изменений задачи
+     */
+    @ExceptionHandler(value = {TaskConflictException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String taskConflictHandler(TaskConflictException e, Model model, HttpServletRequest request) {
+        log.warn(e.getLocalizedMessage());
+        Task task = e.getTask();
+        Task current = null;
+        try {
+            current = taskService.findTaskById(task.getId());
+            task.setVersion(current.getVersion());
+        } catch (NoSuchElementException ignored) {
+            task.setId(0);
+        }
+        model.addAttribute("user", UserUtil.getSessionUser(request));
+        model.addAttribute("categories", categoryService.findAllCategories());
+        model.addAttribute("priorities", priorityService.findAllPriorities());
+        model.addAttribute("categoryIds", task.getCategories() == null ? Set.of()
+                : task.getCategories().stream().map(Category::getId).collect(Collectors.toSet()));
+        model.addAttribute("task", task);
+        model.addAttribute("current", current);
+        return "task/taskConflict";
+    }
+}
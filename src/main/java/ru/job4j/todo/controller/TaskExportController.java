@@ -0,0 +1,97 @@
+package ru.job4j.todo.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.job4j.todo.service.TaskExportService;
+import ru.job4j.todo.util.UserUtil;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Контроллер выгрузки задач
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Slf4j
+@AllArgsConstructor
+@Controller
+public class TaskExportController {
+
+    /**
+     * Типы содержимого ответа по форматам выгрузки
+     */
+    private static final Map<String, MediaType> MEDIA_TYPES = Map.of(
+            "csv", new MediaType("text", "csv", StandardCharsets.UTF_8),
+            "jsonl", new MediaType("application", "x-ndjson", StandardCharsets.UTF_8));
+
+    /**
+     * Тип содержимого сжатой выгрузки
+     */
+    private static final MediaType GZIP = new MediaType("application", "gzip");
+
+    /**
+     * Объект для доступа к методам TaskExportService
+     */
+    private final TaskExportService taskExportService;
+
+    /**
+     * Обрабатывает GET запрос, возвращает файл с задачами текущего пользователя.
+     * Задачи записываются в ответ по мере чтения из базы данных в отдельном потоке
+     * (StreamingResponseBody), при gzip=true ответ сжимается в файл .gz.
+     *
+     * @param format формат данных: csv или jsonl
+     * @param gzip сжатие выгрузки
+     * @param request запрос пользователя
+     * @return ответ с потоковой записью задач
+     * @exception IllegalArgumentException если формат не поддерживается
+     */
+    @GetMapping("/exportTasks")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        MediaType mediaType = MEDIA_TYPES.get(format);
+        if (mediaType == null) {
+            throw new IllegalArgumentException(
+                    String.format("Формат выгрузки %s не поддерживается", format));
+        }
+        int userId = UserUtil.getSessionUser(request).getId();
+        String fileName = "tasks." + format + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out);
+                taskExportService.exportTasks(userId, format, gzipOut);
+                gzipOut.finish();
+            } else {
+                taskExportService.exportTasks(userId, format, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    /**
+     * Обрабатывает исключение при неподдерживаемом формате выгрузки.
+     *
+     * @param e перехваченное исключение
+     * @return ответ с кодом 400 и описанием ошибки
+     */
+    @ExceptionHandler(value = {IllegalArgumentException.class})
+    public ResponseEntity<String> illegalArgumentExceptionHandler(Exception e) {
+        log.error(e.getLocalizedMessage());
+        return ResponseEntity.badRequest().body(e.getLocalizedMessage());
+    }
+}
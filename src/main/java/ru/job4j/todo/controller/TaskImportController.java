@@ -0,0 +1,66 @@
+package ru.job4j.todo.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import ru.job4j.todo.dto.ImportReport;
+import ru.job4j.todo.service.TaskImportService;
+import ru.job4j.todo.util.UserUtil;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Контроллер импорта задач
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Slf4j
+@AllArgsConstructor
+@Controller
+public class TaskImportController {
+
+    /**
+     * Объект для доступа к методам TaskImportService
+     */
+    private final TaskImportService taskImportService;
+
+    /**
+     * Обрабатывает POST запрос с файлом задач в теле запроса (text/csv или
+     * application/x-ndjson в кодировке UTF-8). Тело запроса читается потоком
+     * без полной загрузки в память, задачи сохраняются текущему пользователю.
+     *
+     * @param format формат данных: csv или jsonl
+     * @param request запрос пользователя
+     * @return отчет об импорте в формате JSON
+     * @throws IOException при ошибке чтения тела запроса
+     */
+    @PostMapping("/importTasks")
+    @ResponseBody
+    public ImportReport importTasks(@RequestParam(value = "format", defaultValue = "csv") String format,
+                                    HttpServletRequest request) throws IOException {
+        return taskImportService.importTasks(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8),
+                format, UserUtil.getSessionUser(request));
+    }
+
+    /**
+     * Обрабатывает исключение при неподдерживаемом формате импорта
+     * или некорректном заголовке файла.
+     *
+     * @param e перехваченное исключение
+     * @return ответ с кодом 400 и описанием ошибки
+     */
+    @ExceptionHandler(value = {IllegalArgumentException.class})
+    public ResponseEntity<String> illegalArgumentExceptionHandler(Exception e) {
+        log.error(e.getLocalizedMessage());
+        return ResponseEntity.badRequest().body(e.getLocalizedMessage());
+    }
+}
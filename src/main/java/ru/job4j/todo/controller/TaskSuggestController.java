@@ -0,0 +1,49 @@
+package ru.job4j.todo.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import ru.job4j.todo.dto.TaskSuggestion;
+import ru.job4j.todo.search.TaskNameIndex;
+import ru.job4j.todo.util.UserUtil;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+
+/**
+ * Контроллер подсказок при вводе наименования задачи
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Controller
+public class TaskSuggestController {
+
+    /**
+     * Количество подсказок в ответе
+     */
+    private static final int SUGGEST_LIMIT = 10;
+
+    /**
+     * Индекс наименований задач
+     */
+    private final TaskNameIndex taskNameIndex;
+
+    /**
+     * Обрабатывает GET запрос, возвращает подсказки по наименованиям задач текущего
+     * пользователя, содержащим строку запроса. Подсказки выбираются из индекса в памяти
+     * без обращения к базе данных.
+     *
+     * @param text строка запроса
+     * @param request запрос пользователя
+     * @return список подсказок в формате JSON
+     */
+    @GetMapping("/suggestTasks")
+    @ResponseBody
+    public List<TaskSuggestion> suggestTasks(@RequestParam(value = "q", required = false) String text,
+                                             HttpServletRequest request) {
+        return taskNameIndex.suggest(UserUtil.getSessionUser(request).getId(), text, SUGGEST_LIMIT);
+    }
+}
@@ -6,13 +6,16 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
 import org.springframework.web.bind.annotation.*;
+import ru.job4j.todo.filter.Authenticator;
 import ru.job4j.todo.model.User;
 import ru.job4j.todo.service.UserService;
-import ru.job4j.todo.util.DateTmeUtil;
 import ru.job4j.todo.util.UserUtil;
+import ru.job4j.todo.view.TimeZoneCatalog;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Контроллер пользователя
@@ -29,24 +32,40 @@ public class UserController {
      */
     private final UserService userService;
 
+    /**
+     * Каталог временных зон
+     */
+    private final TimeZoneCatalog timeZoneCatalog;
+
+    /**
+     * Аутентификация пользователя по сессии или маркеру
+     */
+    private final Authenticator authenticator;
+
     /**
      * Обрабатывает GET запрос, возвращает страницу редактирования пользователя.
-     * В зависимости от параметров password и account на страницу будут выведены
-     * сообщения для пользователя о необходимости исправить вводимые данные.
+     * В зависимости от параметров password и busy на страницу будут выведены
+     * сообщения для пользователя о необходимости исправить вводимые данные
+     * или повторить попытку позже.
      *
      * @param password параметр GET запроса, true, если есть ошибка валидации пароля
+     * @param busy параметр GET запроса, true, если изменение отклонено из-за перегрузки
      * @param model модель
      * @param request запрос пользователя
      * @return страница редактирования пользователя
      */
     @GetMapping("/userEdit")
     public String getUserEdit(@RequestParam(value = "password", required = false) String password,
+                              @RequestParam(value = "busy", required = false) String busy,
                               Model model, HttpServletRequest request) {
         String errorMessage = null;
         if (password != null) {
             errorMessage = "Неверно введен старый пароль";
         }
-        model.addAttribute("zones", DateTmeUtil.getTimeZoneIds());
+        if (busy != null) {
+            errorMessage = "Сервер перегружен, повторите попытку позже";
+        }
+        model.addAttribute("zones", timeZoneCatalog.getRegions());
         model.addAttribute("user", UserUtil.getSessionUser(request));
         model.addAttribute("errorMessage", errorMessage);
         return "user/userEdit";
@@ -57,26 +76,33 @@ public class UserController {
      * При удачной валидации пользователя, пользователь обновляется в базе,
      * при неудачной валидации exceptionHandler контроллера выполняет переадресацию
      * на страницу редактирования пользователя с соответствующими параметрами.
+     * Временная зона пользователя проверяется по каталогу временных зон.
+     * После обновления пользователь в сессии или маркер заменяются.
      *
      * @param user пользователь сформированный из данных формы редактирования
      * @param errors список ошибок полученных при валидации модели пользователя
      * @param oldPassword старый пароль пользователя
+     * @param model модель
      * @param request запрос пользователя
+     * @param response ответ пользователю
      * @return перенаправление на страницу списка задач
      */
     @PostMapping("/userEdit")
     public String userEdit(@Valid @ModelAttribute User user, Errors errors,
                            @RequestParam(value = "oldPassword") String oldPassword,
-                           HttpServletRequest request) {
+                           Model model, HttpServletRequest request, HttpServletResponse response) {
+        if (user.getTimezone() != null && !timeZoneCatalog.contains(user.getTimezone())) {
+            errors.rejectValue("timezone", "timezone.unknown", "Неизвестная временная зона");
+        }
         if (errors.hasErrors()) {
+            model.addAttribute("zones", timeZoneCatalog.getRegions());
             return "user/userEdit";
         }
-        User userFromDB = userService.findUserByLogin(user.getLogin());
-        if (oldPassword == null || !oldPassword.equals(userFromDB.getPassword())) {
+        if (oldPassword == null || !userService.checkPassword(user.getLogin(), oldPassword)) {
             return "redirect:/userEdit?password=true";
         }
         userService.update(user);
-        request.getSession().setAttribute("user", user);
+        authenticator.login(request, response, user);
         return "redirect:/tasks";
     }
 
@@ -93,4 +119,19 @@ public class UserController {
         log.error(e.getLocalizedMessage());
         return "redirect:/userEdit?password=true";
     }
-}
\ No newline at end of file
+
+    /**
+     * Выполняет локальный (уровня контроллера) перехват исключений
+     * RejectedExecutionException, возникающих при заполненной очереди
+     * проверки паролей, в случае перехвата, перенаправляет на страницу
+     * редактирования пользователя с сообщением о перегрузке.
+     *
+     * @param e перехваченное исключение
+     * @return перенаправление на страницу редактирования с параметром busy=true
+     */
+    @ExceptionHandler(value = {RejectedExecutionException.class})
+    public String busyHandler(Exception e) {
+        log.warn("Изменение пользователя отклонено, очередь проверки паролей заполнена");
+        return "redirect:/userEdit?busy=true";
+    }
+}
@@ -0,0 +1,75 @@
+package ru.job4j.todo.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Отчет об импорте задач: количество обработанных, сохраненных и отклоненных
+ * строк и описания ошибок по строкам. Количество хранимых описаний ошибок
+ * ограничено, чтобы размер отчета не зависел от размера импортируемого файла.
+ *
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Getter
+@ToString
+public class ImportReport {
+
+    /**
+     * Максимальное количество хранимых описаний ошибок
+     */
+    public static final int MAX_ERRORS = 100;
+
+    /**
+     * Количество обработанных строк
+     */
+    private int processed;
+
+    /**
+     * Количество сохраненных задач
+     */
+    private int imported;
+
+    /**
+     * Количество отклоненных строк
+     */
+    private int failed;
+
+    /**
+     * Описания ошибок по строкам
+     */
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * Учитывает обработанную строку.
+     */
+    public void addProcessed() {
+        processed++;
+    }
+
+    /**
+     * Учитывает сохраненные задачи.
+     *
+     * @param count количество сохраненных задач
+     */
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    /**
+     * Учитывает отклоненные строки и сохраняет описание ошибки,
+     * если не превышено максимальное количество описаний.
+     *
+     * @param count количество отклоненных строк
+     * @param message описание ошибки
+     */
+    public void addFailed(int count, String message) {
+        failed += count;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(message);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.job4j.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Страница списка, полученная постраничной выборкой по ключу (keyset pagination).
+ * Курсоры содержат идентификаторы граничных элементов страницы и используются
+ * для перехода на предыдущую и следующую страницы без OFFSET.
+ * Для списков, упорядоченных не по идентификатору (результаты поиска по релевантности),
+ * курсоры содержат номера соседних страниц.
+ *
+ * @param <T> тип элементов страницы
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class Page<T> {
+
+    /**
+     * Элементы страницы
+     */
+    private final List<T> items;
+
+    /**
+     * Курсор предыдущей страницы (параметр before), null если страница первая
+     */
+    private final Integer previousCursor;
+
+    /**
+     * Курсор следующей страницы (параметр after), null если страница последняя
+     */
+    private final Integer nextCursor;
+}
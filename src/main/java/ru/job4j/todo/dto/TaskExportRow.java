@@ -0,0 +1,56 @@
+package ru.job4j.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Строка выгрузки задачи: поля задачи, имя приоритета и имена категорий.
+ * Заполняется из скалярной выборки без загрузки сущностей в контекст сессии.
+ *
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class TaskExportRow {
+
+    /**
+     * Идентификатор задачи
+     */
+    private final int id;
+
+    /**
+     * Наименование задачи
+     */
+    private final String name;
+
+    /**
+     * Подробное описание задачи
+     */
+    private final String description;
+
+    /**
+     * Момент создания задачи
+     */
+    private final Instant created;
+
+    /**
+     * Статус задачи
+     */
+    private final boolean done;
+
+    /**
+     * Имя приоритета задачи
+     */
+    private final String priority;
+
+    /**
+     * Имена категорий задачи
+     */
+    private final List<String> categories;
+}
@@ -0,0 +1,73 @@
+package ru.job4j.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Представление задачи для страницы списка задач только для чтения.
+ * Заполняется конструктором в запросе HQL (select new ...) без загрузки
+ * сущностей задачи, пользователя, приоритета и категорий в контекст сессии.
+ *
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class TaskListView {
+
+    /**
+     * Идентификатор задачи
+     */
+    private final int id;
+
+    /**
+     * Наименование задачи
+     */
+    private final String name;
+
+    /**
+     * Момент создания задачи
+     */
+    private final Instant created;
+
+    /**
+     * Статус задачи
+     */
+    private final boolean done;
+
+    /**
+     * Имя пользователя
+     */
+    private final String userName;
+
+    /**
+     * Имя приоритета задачи
+     */
+    private final String priorityName;
+
+    /**
+     * Имена категорий задачи, заполняются вторым запросом по идентификаторам задач страницы
+     */
+    private final List<String> categories;
+
+    /**
+     * Конструктор представления задачи для запроса HQL, список категорий пустой.
+     *
+     * @param id идентификатор задачи
+     * @param name наименование задачи
+     * @param created момент создания задачи
+     * @param done статус задачи
+     * @param userName имя пользователя
+     * @param priorityName имя приоритета задачи
+     */
+    public TaskListView(int id, String name, Instant created, boolean done,
+                        String userName, String priorityName) {
+        this(id, name, created, done, userName, priorityName, new ArrayList<>());
+    }
+}
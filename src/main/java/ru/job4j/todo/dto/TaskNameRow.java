@@ -0,0 +1,33 @@
+package ru.job4j.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Строка наименования задачи для построения индекса поиска по наименованиям задач.
+ * Заполняется из скалярной выборки без загрузки сущностей в контекст сессии.
+ *
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class TaskNameRow {
+
+    /**
+     * Идентификатор задачи
+     */
+    private final int id;
+
+    /**
+     * Идентификатор пользователя задачи
+     */
+    private final int userId;
+
+    /**
+     * Наименование задачи
+     */
+    private final String name;
+}
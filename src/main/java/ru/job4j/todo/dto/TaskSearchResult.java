@@ -0,0 +1,97 @@
+package ru.job4j.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Результат полнотекстового поиска задач только для чтения.
+ * Фрагмент текста задачи содержит найденные слова, выделенные
+ * маркерами {@link #HIGHLIGHT_START} и {@link #HIGHLIGHT_END}.
+ * Маркеры не являются разметкой HTML, поэтому фрагмент выводится
+ * на странице по частям с экранированием текста.
+ *
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class TaskSearchResult {
+
+    /**
+     * Маркер начала выделенного слова во фрагменте
+     */
+    public static final String HIGHLIGHT_START = "\u0002";
+
+    /**
+     * Маркер окончания выделенного слова во фрагменте
+     */
+    public static final String HIGHLIGHT_END = "\u0003";
+
+    /**
+     * Идентификатор задачи
+     */
+    private final int id;
+
+    /**
+     * Наименование задачи
+     */
+    private final String name;
+
+    /**
+     * Момент создания задачи
+     */
+    private final Instant created;
+
+    /**
+     * Статус задачи
+     */
+    private final boolean done;
+
+    /**
+     * Имя приоритета задачи
+     */
+    private final String priorityName;
+
+    /**
+     * Фрагмент описания задачи с выделенными найденными словами
+     */
+    private final String snippet;
+
+    /**
+     * Релевантность задачи поисковому запросу
+     */
+    private final double rank;
+
+    /**
+     * Возвращает части фрагмента описания задачи: части с четным индексом
+     * содержат обычный текст, с нечетным - выделенные найденные слова.
+     *
+     * @return части фрагмента
+     */
+    public List<String> getSnippetParts() {
+        List<String> parts = new ArrayList<>();
+        if (snippet == null) {
+            return parts;
+        }
+        int from = 0;
+        int start = snippet.indexOf(HIGHLIGHT_START);
+        while (start >= 0) {
+            int end = snippet.indexOf(HIGHLIGHT_END, start);
+            if (end < 0) {
+                break;
+            }
+            parts.add(snippet.substring(from, start));
+            parts.add(snippet.substring(start + HIGHLIGHT_START.length(), end));
+            from = end + HIGHLIGHT_END.length();
+            start = snippet.indexOf(HIGHLIGHT_START, from);
+        }
+        parts.add(snippet.substring(from));
+        return parts;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.job4j.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Подсказка при вводе наименования задачи: идентификатор и наименование
+ * найденной задачи пользователя.
+ *
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class TaskSuggestion {
+
+    /**
+     * Идентификатор задачи
+     */
+    private final int id;
+
+    /**
+     * Наименование задачи
+     */
+    private final String name;
+}
@@ -0,0 +1,38 @@
+package ru.job4j.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Временная зона в списке выбора временной зоны пользователя: идентификатор,
+ * текущее смещение от UTC и подписи, подготовленные при построении каталога.
+ *
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class TimeZoneOption {
+
+    /**
+     * Идентификатор временной зоны, например Europe/Moscow
+     */
+    private final String id;
+
+    /**
+     * Текущее смещение от UTC в секундах
+     */
+    private final int offsetSeconds;
+
+    /**
+     * Подпись в списке выбора, например (UTC+03:00) Europe/Moscow
+     */
+    private final String label;
+
+    /**
+     * Наименование временной зоны на русском языке
+     */
+    private final String displayName;
+}
@@ -0,0 +1,30 @@
+package ru.job4j.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Регион временных зон (первая часть идентификатора зоны, например Europe)
+ * с упорядоченным по идентификатору неизменяемым списком зон региона.
+ *
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class TimeZoneRegion {
+
+    /**
+     * Наименование региона
+     */
+    private final String name;
+
+    /**
+     * Временные зоны региона
+     */
+    private final List<TimeZoneOption> zones;
+}
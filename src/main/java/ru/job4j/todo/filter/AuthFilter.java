@@ -1,14 +1,12 @@
 package ru.job4j.todo.filter;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Сервлетный фильтр
@@ -17,19 +15,41 @@ import java.util.Set;
  */
 @Component
 public class AuthFilter implements Filter {
+
+    /**
+     * Проверка адресов ресурсов, доступных без аутентификации
+     */
+    private final PublicPathMatcher publicPaths;
+
+    /**
+     * Аутентификация пользователя по сессии или маркеру
+     */
+    private final Authenticator authenticator;
+
     /**
-     * Строковый список html ресурсов доступных без аутентификации
+     * Создает фильтр со списками ресурсов, доступных без аутентификации,
+     * из свойств todo.auth.public-paths (адреса по точному совпадению)
+     * и todo.auth.public-prefixes (префиксы адресов статических ресурсов).
+     *
+     * @param paths адреса, доступные без аутентификации
+     * @param prefixes префиксы адресов статических ресурсов
+     * @param authenticator аутентификация пользователя
      */
-    private final Set<String> mappings = new HashSet<>(
-            Arrays.asList("login", "registration", "/"));
+    public AuthFilter(@Value("${todo.auth.public-paths:/,/login,/registration,/favicon.ico}") String[] paths,
+                      @Value("${todo.auth.public-prefixes:/css/,/js/,/images/,/webjars/}") String[] prefixes,
+                      Authenticator authenticator) {
+        this.publicPaths = new PublicPathMatcher(paths, prefixes);
+        this.authenticator = authenticator;
+    }
 
     /**
      * Выполняет проверку, находится ли запрашиваемый ресурс
      * в списке разрешенных без аутентификации. Если ресурс в разрешенном списке,
      * то передаем управление следующему в цепочке фильтру, иначе выполняется проверка
-     * на наличие в сессии пользователя, если его нет, то выполняется перенаправление
-     * на страницу с формами для входа пользователя. Если пользователь в сессии
-     * присутствует, выполняется передача управления следующему в цепочке фильтру.
+     * на наличие в сессии пользователя или действительного маркера, если их нет,
+     * то выполняется перенаправление на страницу с формами для входа пользователя.
+     * Если пользователь вошел, выполняется передача управления следующему в цепочке фильтру.
+     * Фильтр не создает сессию для запросов без сессии.
      *
      * @param request запрос пользователя
      * @param response ответ пользователю
@@ -44,26 +64,14 @@ public class AuthFilter implements Filter {
             FilterChain chain) throws IOException, ServletException {
         HttpServletRequest req = (HttpServletRequest) request;
         HttpServletResponse res = (HttpServletResponse) response;
-        String uri = req.getRequestURI();
-        if (isAllowed(uri)) {
+        if (publicPaths.matches(req.getRequestURI(), req.getContextPath().length())) {
             chain.doFilter(req, res);
             return;
         }
-        if (req.getSession().getAttribute("user") == null) {
+        if (!authenticator.authenticate(req)) {
             res.sendRedirect(req.getContextPath() + "/login");
             return;
         }
         chain.doFilter(req, res);
     }
-
-    /**
-     * Вспомогательный метод проверяющий находится ли запрашиваемый ресурс
-     * в списке ресурсов разрешенных без аутентификации.
-     *
-     * @param uri идентификатор пользователя
-     * @return true при успешном нахождении, иначе false
-     */
-    private boolean isAllowed(String uri) {
-        return mappings.stream().anyMatch(uri::endsWith);
-    }
 }
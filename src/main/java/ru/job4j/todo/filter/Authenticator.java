@@ -0,0 +1,380 @@
+package ru.job4j.todo.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.util.DateTmeUtil;
+import ru.job4j.todo.util.UserUtil;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Аутентификация пользователя в одном из режимов, задаваемых свойством todo.auth.mode:
+ * session - пользователь хранится в сессии, token - при входе выдается cookie
+ * с подписанным HMAC-SHA256 маркером, содержащим идентификатор, логин, имя,
+ * временную зону пользователя и время окончания действия маркера.
+ * В режиме token маркер проверяется без хранения состояния на сервере,
+ * поэтому запросы пользователя может обрабатывать любой экземпляр приложения
+ * с тем же ключом подписи todo.auth.token-secret. В режиме db cookie содержит
+ * идентификатор сессии, хранящейся в базе данных, см. {@link UserSessionStore}.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Component
+public class Authenticator {
+
+    /**
+     * Имя cookie с маркером аутентификации
+     */
+    public static final String COOKIE_NAME = "TODO_AUTH";
+
+    /**
+     * Алгоритм подписи маркера
+     */
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * Длина ключа подписи, создаваемого в режимах session и db, где маркеры не используются, байт
+     */
+    private static final int GENERATED_KEY_BYTES = 32;
+
+    /**
+     * Кодирование частей маркера
+     */
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * Декодирование частей маркера
+     */
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Признак режима аутентификации по маркеру
+     */
+    private final boolean tokenMode;
+
+    /**
+     * Признак режима аутентификации по сессии в базе данных
+     */
+    private final boolean dbMode;
+
+    /**
+     * Хранилище сессий в базе данных для режима db
+     */
+    private final UserSessionStore store;
+
+    /**
+     * Ключ подписи маркера
+     */
+    private final SecretKeySpec key;
+
+    /**
+     * Время действия маркера
+     */
+    private final Duration ttl;
+
+    /**
+     * Часы для вычисления времени окончания действия маркера
+     */
+    private final Clock clock;
+
+    /**
+     * Объекты вычисления подписи потоков, объект Mac не потокобезопасен
+     */
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * Создает объект аутентификации по свойствам приложения.
+     *
+     * @param mode режим аутентификации: session, token или db
+     * @param secret ключ подписи маркера в Base64, обязателен для режима token,
+     *               в режимах session и db не используется
+     * @param ttl время действия маркера
+     * @param store хранилище сессий в базе данных
+     * @exception IllegalStateException если в режиме token не задан ключ подписи
+     */
+    public Authenticator(@Value("${todo.auth.mode:session}") String mode,
+                         @Value("${todo.auth.token-secret:}") String secret,
+                         @Value("${todo.auth.token-ttl:PT8H}") Duration ttl,
+                         UserSessionStore store) {
+        this(mode, secret, ttl, store, Clock.systemUTC());
+    }
+
+    /**
+     * Создает объект аутентификации с заданными часами.
+     *
+     * @param mode режим аутентификации: session, token или db
+     * @param secret ключ подписи маркера в Base64, обязателен для режима token,
+     *               в режимах session и db не используется
+     * @param ttl время действия маркера
+     * @param store хранилище сессий в базе данных
+     * @param clock часы
+     * @exception IllegalArgumentException если режим аутентификации неизвестен
+     * @exception IllegalStateException если в режиме token не задан ключ подписи
+     */
+    Authenticator(String mode, String secret, Duration ttl, UserSessionStore store, Clock clock) {
+        if (!"session".equals(mode) && !"token".equals(mode) && !"db".equals(mode)) {
+            throw new IllegalArgumentException("Неизвестный режим аутентификации: " + mode);
+        }
+        boolean blankSecret = secret == null || secret.isBlank();
+        if ("token".equals(mode) && blankSecret) {
+            throw new IllegalStateException("Ключ подписи маркеров todo.auth.token-secret обязателен для режима token: "
+                    + "маркеры должны проверяться всеми экземплярами приложения и после перезапуска");
+        }
+        this.tokenMode = "token".equals(mode);
+        this.dbMode = "db".equals(mode);
+        this.store = store;
+        this.key = new SecretKeySpec(blankSecret ? generateKey() : Base64.getDecoder().decode(secret), ALGORITHM);
+        this.ttl = ttl;
+        this.clock = clock;
+        this.macs = ThreadLocal.withInitial(this::createMac);
+    }
+
+    /**
+     * Выполняет вход пользователя: в режиме token добавляет в ответ cookie
+     * с маркером, в режиме db создает сессию в базе данных вместо прежней
+     * и добавляет в ответ cookie с ее идентификатором, в режиме session
+     * записывает пользователя в сессию.
+     *
+     * @param request запрос пользователя
+     * @param response ответ пользователю
+     * @param user пользователь
+     */
+    public void login(HttpServletRequest request, HttpServletResponse response, User user) {
+        if (tokenMode) {
+            addCookie(request, response, issue(user), ttl);
+        } else if (dbMode) {
+            String previous = readCookie(request);
+            if (previous != null) {
+                store.remove(previous);
+            }
+            addCookie(request, response, store.create(user), null);
+        } else {
+            UserUtil.setSessionUser(request.getSession(), user);
+        }
+    }
+
+    /**
+     * Выполняет выход пользователя: удаляет cookie с маркером,
+     * сессию в базе данных и завершает сессию, если она есть.
+     *
+     * @param request запрос пользователя
+     * @param response ответ пользователю
+     */
+    public void logout(HttpServletRequest request, HttpServletResponse response) {
+        if (dbMode) {
+            String id = readCookie(request);
+            if (id != null) {
+                store.remove(id);
+            }
+        }
+        if (tokenMode || dbMode) {
+            addCookie(request, response, "", Duration.ZERO);
+        }
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
+    }
+
+    /**
+     * Проверяет, что запрос выполнен вошедшим пользователем. В режиме token
+     * пользователь и его временная зона из действительного маркера записываются
+     * в атрибуты запроса, сессия не используется и не создается. В режиме db
+     * так же записывается пользователь сессии из базы данных.
+     *
+     * @param request запрос пользователя
+     * @return true, если пользователь вошел
+     */
+    public boolean authenticate(HttpServletRequest request) {
+        if (!tokenMode && !dbMode) {
+            HttpSession session = request.getSession(false);
+            return session != null && session.getAttribute("user") != null;
+        }
+        String value = readCookie(request);
+        if (value == null) {
+            return false;
+        }
+        User user = tokenMode ? verify(value) : store.find(value).orElse(null);
+        if (user == null) {
+            return false;
+        }
+        request.setAttribute("user", user);
+        request.setAttribute(UserUtil.SESSION_ZONE, DateTmeUtil.getUserZoneId(user));
+        return true;
+    }
+
+    /**
+     * Возвращает значение cookie аутентификации из запроса.
+     *
+     * @param request запрос пользователя
+     * @return значение cookie, null, если cookie нет
+     */
+    private String readCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName()) && !cookie.getValue().isEmpty()) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Формирует маркер пользователя: идентификатор, время окончания действия
+     * в секундах, временная зона, логин и имя в Base64 и подпись, разделенные точкой.
+     *
+     * @param user пользователь
+     * @return маркер
+     */
+    String issue(User user) {
+        String payload = user.getId()
+                + "." + clock.instant().plus(ttl).getEpochSecond()
+                + "." + encode(user.getTimezone() == null ? "" : user.getTimezone())
+                + "." + encode(user.getLogin())
+                + "." + encode(user.getName());
+        return payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * Проверяет подпись и время действия маркера и возвращает пользователя маркера
+     * без пароля.
+     *
+     * @param token маркер
+     * @return пользователь, null, если маркер недействителен
+     */
+    User verify(String token) {
+        int signatureStart = token.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return null;
+        }
+        String payload = token.substring(0, signatureStart);
+        String[] parts = payload.split("\\.", -1);
+        try {
+            if (parts.length != 5 || !MessageDigest.isEqual(sign(payload),
+                    DECODER.decode(token.substring(signatureStart + 1)))) {
+                return null;
+            }
+            if (Long.parseLong(parts[1]) <= clock.instant().getEpochSecond()) {
+                return null;
+            }
+            String zone = decode(parts[2]);
+            return principal(Integer.parseInt(parts[0]), decode(parts[3]), decode(parts[4]),
+                    zone.isEmpty() ? null : zone);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Создает пользователя для атрибутов запроса без пароля.
+     *
+     * @param id идентификатор пользователя
+     * @param login логин пользователя
+     * @param name имя пользователя
+     * @param timezone временная зона пользователя
+     * @return пользователь
+     */
+    private User principal(int id, String login, String name, String timezone) {
+        return User.builder()
+                .id(id)
+                .login(login)
+                .name(name)
+                .timezone(timezone)
+                .build();
+    }
+
+    /**
+     * Добавляет в ответ cookie с маркером, доступный только серверу.
+     *
+     * @param request запрос пользователя
+     * @param response ответ пользователю
+     * @param value значение cookie
+     * @param maxAge время жизни cookie, ноль для удаления cookie, null для cookie
+     *               на время работы браузера
+     */
+    private void addCookie(HttpServletRequest request, HttpServletResponse response, String value, Duration maxAge) {
+        String path = request.getContextPath().isEmpty() ? "/" : request.getContextPath();
+        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE_NAME, value)
+                .path(path)
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .maxAge(maxAge == null ? Duration.ofSeconds(-1) : maxAge)
+                .build()
+                .toString());
+    }
+
+    /**
+     * Вычисляет подпись строки маркера.
+     *
+     * @param payload строка маркера без подписи
+     * @return подпись
+     */
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Создает объект вычисления подписи с ключом маркеров.
+     *
+     * @return объект вычисления подписи
+     */
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Кодирует строку в Base64 для записи в маркер.
+     *
+     * @param value строка
+     * @return строка в Base64
+     */
+    private static String encode(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Декодирует строку маркера из Base64.
+     *
+     * @param value строка в Base64
+     * @return строка
+     */
+    private static String decode(String value) {
+        return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Создает случайный ключ подписи маркеров.
+     *
+     * @return ключ подписи
+     */
+    private static byte[] generateKey() {
+        byte[] bytes = new byte[GENERATED_KEY_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,206 @@
+package ru.job4j.todo.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сервлетный фильтр, ограничивающий частоту попыток входа (POST /login)
+ * и регистрации (POST /registration) по адресу клиента и по логину.
+ * Попытка сверх ограничения отклоняется ответом 429 Too Many Requests
+ * до обращения к контроллеру и базе данных. Количество отклоненных попыток
+ * периодически журналируется.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class LoginRateLimitFilter implements Filter {
+
+    /**
+     * Наибольшая длина логина, используемая как ключ ограничения
+     */
+    private static final int MAX_LOGIN_LENGTH = 254;
+
+    /**
+     * Ограничение по адресу клиента
+     */
+    private final TokenBucketLimiter byIp;
+
+    /**
+     * Ограничение по логину
+     */
+    private final TokenBucketLimiter byLogin;
+
+    /**
+     * Количество пропущенных попыток
+     */
+    private final LongAdder allowed = new LongAdder();
+
+    /**
+     * Количество попыток, отклоненных по адресу клиента
+     */
+    private final LongAdder rejectedByIp = new LongAdder();
+
+    /**
+     * Количество попыток, отклоненных по логину
+     */
+    private final LongAdder rejectedByLogin = new LongAdder();
+
+    /**
+     * Количество отклоненных попыток на момент последнего журналирования
+     */
+    private long reportedRejected;
+
+    /**
+     * Создает фильтр по свойствам приложения todo.login-limit.
+     *
+     * @param ipCapacity количество попыток подряд с одного адреса
+     * @param ipRefill время восстановления одной попытки для адреса
+     * @param loginCapacity количество попыток подряд для одного логина
+     * @param loginRefill время восстановления одной попытки для логина
+     * @param maxKeys наибольшее количество хранимых адресов и логинов каждого вида
+     */
+    public LoginRateLimitFilter(@Value("${todo.login-limit.ip.capacity:20}") int ipCapacity,
+                                @Value("${todo.login-limit.ip.refill:PT3S}") Duration ipRefill,
+                                @Value("${todo.login-limit.login.capacity:5}") int loginCapacity,
+                                @Value("${todo.login-limit.login.refill:PT1M}") Duration loginRefill,
+                                @Value("${todo.login-limit.max-keys:100000}") int maxKeys) {
+        this(ipCapacity, ipRefill, loginCapacity, loginRefill, maxKeys, Clock.systemUTC());
+    }
+
+    /**
+     * Создает фильтр с заданными часами.
+     *
+     * @param ipCapacity количество попыток подряд с одного адреса
+     * @param ipRefill время восстановления одной попытки для адреса
+     * @param loginCapacity количество попыток подряд для одного логина
+     * @param loginRefill время восстановления одной попытки для логина
+     * @param maxKeys наибольшее количество хранимых адресов и логинов каждого вида
+     * @param clock часы
+     */
+    LoginRateLimitFilter(int ipCapacity, Duration ipRefill, int loginCapacity, Duration loginRefill,
+                         int maxKeys, Clock clock) {
+        this.byIp = new TokenBucketLimiter(ipCapacity, ipRefill, maxKeys, clock);
+        this.byLogin = new TokenBucketLimiter(loginCapacity, loginRefill, maxKeys, clock);
+    }
+
+    /**
+     * Проверяет ограничение частоты для попыток входа и регистрации: сначала
+     * по адресу клиента, затем по логину из формы. Попытка сверх ограничения
+     * отклоняется ответом 429 с заголовком Retry-After, остальные запросы
+     * передаются следующему в цепочке фильтру.
+     *
+     * @param request запрос пользователя
+     * @param response ответ пользователю
+     * @param chain цепочка фильтров
+     * @throws IOException может выбрасывать исключение ввода вывода
+     * @throws ServletException может выбрасывать исключение ввода вывода
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        if (!isLimited(req)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long wait = byIp.tryAcquire(req.getRemoteAddr());
+        if (wait > 0) {
+            rejectedByIp.increment();
+            reject((HttpServletResponse) response, wait);
+            return;
+        }
+        String login = req.getParameter("login");
+        if (login != null && !login.isBlank()) {
+            wait = byLogin.tryAcquire(normalize(login));
+            if (wait > 0) {
+                rejectedByLogin.increment();
+                reject((HttpServletResponse) response, wait);
+                return;
+            }
+        }
+        allowed.increment();
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Возвращает показатели ограничения частоты с момента запуска.
+     *
+     * @return показатели ограничения
+     */
+    public RateLimitStats stats() {
+        return new RateLimitStats(allowed.sum(), rejectedByIp.sum(), rejectedByLogin.sum(),
+                byIp.size(), byLogin.size());
+    }
+
+    /**
+     * Журналирует показатели ограничения, если с прошлого журналирования
+     * были отклоненные попытки.
+     */
+    @Scheduled(fixedDelayString = "${todo.login-limit.report-interval:PT1M}")
+    public void report() {
+        RateLimitStats stats = stats();
+        long rejected = stats.getRejected();
+        if (rejected > reportedRejected) {
+            log.warn("Отклонено попыток входа и регистрации: {} (всего {}), {}",
+                    rejected - reportedRejected, rejected, stats);
+            reportedRejected = rejected;
+        }
+    }
+
+    /**
+     * Проверяет, является ли запрос попыткой входа или регистрации.
+     *
+     * @param request запрос пользователя
+     * @return true, если к запросу применяется ограничение
+     */
+    private static boolean isLimited(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return false;
+        }
+        String uri = request.getRequestURI();
+        int offset = request.getContextPath().length();
+        return uri.startsWith("/login", offset) && uri.length() == offset + "/login".length()
+                || uri.startsWith("/registration", offset) && uri.length() == offset + "/registration".length();
+    }
+
+    /**
+     * Приводит логин к виду ключа ограничения: без пробелов по краям, в нижнем регистре
+     * и не длиннее MAX_LOGIN_LENGTH символов.
+     *
+     * @param login логин из формы
+     * @return ключ ограничения
+     */
+    private static String normalize(String login) {
+        String key = login.strip().toLowerCase(Locale.ROOT);
+        return key.length() > MAX_LOGIN_LENGTH ? key.substring(0, MAX_LOGIN_LENGTH) : key;
+    }
+
+    /**
+     * Отклоняет попытку ответом 429 с временем до следующей попытки.
+     *
+     * @param response ответ пользователю
+     * @param waitMillis время до следующей попытки, мс
+     * @throws IOException может выбрасывать исключение ввода вывода
+     */
+    private static void reject(HttpServletResponse response, long waitMillis) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((waitMillis + 999) / 1000));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getOutputStream().write("Слишком много попыток, повторите позже".getBytes(StandardCharsets.UTF_8));
+    }
+}
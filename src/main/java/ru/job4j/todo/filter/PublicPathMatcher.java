@@ -0,0 +1,61 @@
+package ru.job4j.todo.filter;
+
+import java.util.Arrays;
+
+/**
+ * Проверка адресов ресурсов, доступных без аутентификации: адресов из списка
+ * по точному совпадению и статических ресурсов по префиксу. Списки адресов
+ * подготавливаются один раз при создании объекта, проверка адреса запроса
+ * выполняется сравнением строк без выделения памяти.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+final class PublicPathMatcher {
+
+    /**
+     * Адреса, доступные без аутентификации, по точному совпадению
+     */
+    private final String[] exactPaths;
+
+    /**
+     * Префиксы адресов статических ресурсов
+     */
+    private final String[] prefixes;
+
+    /**
+     * Создает проверку адресов по спискам адресов и префиксов.
+     * Пустые значения списков пропускаются.
+     *
+     * @param exactPaths адреса, доступные без аутентификации
+     * @param prefixes префиксы адресов статических ресурсов
+     */
+    PublicPathMatcher(String[] exactPaths, String[] prefixes) {
+        this.exactPaths = Arrays.stream(exactPaths).map(String::trim).filter(s -> !s.isEmpty())
+                .distinct().toArray(String[]::new);
+        this.prefixes = Arrays.stream(prefixes).map(String::trim).filter(s -> !s.isEmpty())
+                .distinct().toArray(String[]::new);
+    }
+
+    /**
+     * Проверяет, доступен ли ресурс без аутентификации. Адрес ресурса
+     * начинается в адресе запроса после пути контекста приложения.
+     *
+     * @param uri адрес запроса
+     * @param offset длина пути контекста приложения
+     * @return true, если ресурс доступен без аутентификации
+     */
+    boolean matches(String uri, int offset) {
+        int length = uri.length() - offset;
+        for (String path : exactPaths) {
+            if (path.length() == length && uri.startsWith(path, offset)) {
+                return true;
+            }
+        }
+        for (String prefix : prefixes) {
+            if (uri.startsWith(prefix, offset)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.job4j.todo.filter;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Показатели ограничения частоты входа и регистрации: количество пропущенных
+ * и отклоненных попыток с момента запуска и количество хранимых ключей.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class RateLimitStats {
+
+    /**
+     * Количество пропущенных попыток
+     */
+    private final long allowed;
+
+    /**
+     * Количество попыток, отклоненных по адресу клиента
+     */
+    private final long rejectedByIp;
+
+    /**
+     * Количество попыток, отклоненных по логину
+     */
+    private final long rejectedByLogin;
+
+    /**
+     * Количество хранимых адресов клиентов
+     */
+    private final int ipKeys;
+
+    /**
+     * Количество хранимых логинов
+     */
+    private final int loginKeys;
+
+    /**
+     * Возвращает общее количество отклоненных попыток.
+     *
+     * @return количество отклоненных попыток
+     */
+    public long getRejected() {
+        return rejectedByIp + rejectedByLogin;
+    }
+}
@@ -0,0 +1,192 @@
+package ru.job4j.todo.filter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограничение частоты запросов по ключу алгоритмом маркерной корзины.
+ * Корзина вмещает capacity маркеров и пополняется одним маркером за время refill.
+ * Состояние корзины хранится в одном числе - моменте, когда корзина станет полной
+ * (алгоритм GCRA, равносильный маркерной корзине), и изменяется операцией
+ * compareAndSet без блокировок. Ключи распределены по сегментам, в каждом
+ * сегменте хранится не более maxKeys / STRIPES корзин: при переполнении сегмента
+ * сначала удаляются полные корзины, не влияющие на ограничение, затем корзины,
+ * к которым дольше всего не обращались.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+final class TokenBucketLimiter {
+
+    /**
+     * Количество сегментов, степень двойки
+     */
+    private static final int STRIPES = 16;
+
+    /**
+     * Время пополнения корзины на один маркер, мс
+     */
+    private final long refillMillis;
+
+    /**
+     * Время пополнения пустой корзины до полной, мс
+     */
+    private final long burstMillis;
+
+    /**
+     * Наибольшее количество корзин в сегменте
+     */
+    private final int stripeCapacity;
+
+    /**
+     * Часы
+     */
+    private final Clock clock;
+
+    /**
+     * Сегменты корзин по ключу
+     */
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * Создает ограничение частоты запросов.
+     *
+     * @param capacity емкость корзины, количество запросов подряд
+     * @param refill время пополнения корзины на один маркер
+     * @param maxKeys наибольшее количество хранимых ключей
+     * @param clock часы
+     */
+    TokenBucketLimiter(int capacity, Duration refill, int maxKeys, Clock clock) {
+        if (capacity < 1 || refill.toMillis() < 1 || maxKeys < STRIPES) {
+            throw new IllegalArgumentException("Неверные параметры ограничения частоты запросов");
+        }
+        this.refillMillis = refill.toMillis();
+        this.burstMillis = refillMillis * capacity;
+        this.stripeCapacity = maxKeys / STRIPES;
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Забирает маркер из корзины ключа.
+     *
+     * @param key ключ
+     * @return 0, если маркер получен, иначе время до появления маркера, мс
+     */
+    long tryAcquire(String key) {
+        long now = clock.millis();
+        Stripe stripe = stripes[(key.hashCode() ^ key.hashCode() >>> 16) & (STRIPES - 1)];
+        Bucket bucket = stripe.buckets.get(key);
+        if (bucket == null) {
+            bucket = stripe.buckets.computeIfAbsent(key, k -> new Bucket(now));
+            if (stripe.buckets.size() > stripeCapacity) {
+                stripe.evict(now, stripeCapacity, bucket);
+            }
+        }
+        bucket.lastAccess = now;
+        while (true) {
+            long full = bucket.fullAt.get();
+            long next = Math.max(full, now) + refillMillis;
+            if (next - now > burstMillis) {
+                return next - now - burstMillis;
+            }
+            if (bucket.fullAt.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Возвращает количество хранимых ключей.
+     *
+     * @return количество ключей
+     */
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    /**
+     * Корзина ключа
+     */
+    private static final class Bucket {
+
+        /**
+         * Момент, когда корзина станет полной, мс
+         */
+        private final AtomicLong fullAt;
+
+        /**
+         * Момент последнего обращения к корзине, мс
+         */
+        private volatile long lastAccess;
+
+        /**
+         * Создает полную корзину.
+         *
+         * @param now текущий момент, мс
+         */
+        private Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+            this.lastAccess = now;
+        }
+    }
+
+    /**
+     * Сегмент корзин
+     */
+    private static final class Stripe {
+
+        /**
+         * Корзины сегмента по ключу
+         */
+        private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+        /**
+         * Признак выполняемого удаления корзин, удаление выполняет один поток,
+         * остальные потоки не ожидают его окончания
+         */
+        private final AtomicBoolean evicting = new AtomicBoolean();
+
+        /**
+         * Удаляет корзины сверх емкости сегмента: сначала полные корзины,
+         * затем корзины, к которым дольше всего не обращались.
+         *
+         * @param now текущий момент, мс
+         * @param capacity емкость сегмента
+         * @param current корзина текущего запроса, не удаляется
+         */
+        private void evict(long now, int capacity, Bucket current) {
+            if (!evicting.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                buckets.values().removeIf(bucket -> bucket != current && bucket.fullAt.get() <= now);
+                while (buckets.size() > capacity) {
+                    String oldest = null;
+                    long oldestAccess = Long.MAX_VALUE;
+                    for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+                        if (entry.getValue() != current && entry.getValue().lastAccess < oldestAccess) {
+                            oldest = entry.getKey();
+                            oldestAccess = entry.getValue().lastAccess;
+                        }
+                    }
+                    if (oldest == null) {
+                        return;
+                    }
+                    buckets.remove(oldest);
+                }
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+}
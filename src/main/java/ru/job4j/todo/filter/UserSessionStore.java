@@ -0,0 +1,314 @@
+package ru.job4j.todo.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.model.UserSession;
+import ru.job4j.todo.repository.RepositoryException;
+import ru.job4j.todo.repository.UserSessionRepository;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Хранилище сессий пользователей в базе данных для режима аутентификации db,
+ * в котором запросы пользователя может обрабатывать любой экземпляр приложения.
+ * В базе данных хранится только идентификатор пользователя и его временная зона.
+ * Найденные сессии кешируются локально на время todo.session.near-cache-ttl,
+ * поэтому обычный запрос не обращается к базе данных. Момент последнего
+ * обращения записывается в базу данных периодически одним запросом для всех
+ * сессий, к которым обращались с прошлой записи, а истекшие сессии удаляются
+ * фоновой задачей.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class UserSessionStore {
+
+    /**
+     * Длина идентификатора сессии, байт
+     */
+    private static final int ID_BYTES = 32;
+
+    /**
+     * Наибольшее количество идентификаторов в одном запросе обновления
+     */
+    private static final int TOUCH_CHUNK = 500;
+
+    /**
+     * Кодирование идентификатора сессии
+     */
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * Хранилище сессий
+     */
+    private final UserSessionRepository repository;
+
+    /**
+     * Признак режима аутентификации db, в других режимах фоновые задачи не выполняются
+     */
+    private final boolean enabled;
+
+    /**
+     * Время бездействия, после которого сессия истекает
+     */
+    private final Duration timeout;
+
+    /**
+     * Время, в течение которого сессия из локального кеша не проверяется в базе данных
+     */
+    private final Duration nearCacheTtl;
+
+    /**
+     * Часы
+     */
+    private final Clock clock;
+
+    /**
+     * Генератор идентификаторов сессий
+     */
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Локальный кеш сессий по идентификатору
+     */
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Создает хранилище сессий по свойствам приложения.
+     *
+     * @param repository хранилище сессий в базе данных
+     * @param mode режим аутентификации
+     * @param timeout время бездействия, после которого сессия истекает
+     * @param nearCacheTtl время хранения сессии в локальном кеше без проверки в базе данных
+     */
+    public UserSessionStore(UserSessionRepository repository,
+                            @Value("${todo.auth.mode:session}") String mode,
+                            @Value("${todo.session.timeout:PT30M}") Duration timeout,
+                            @Value("${todo.session.near-cache-ttl:PT30S}") Duration nearCacheTtl) {
+        this(repository, mode, timeout, nearCacheTtl, Clock.systemUTC());
+    }
+
+    /**
+     * Создает хранилище сессий с заданными часами.
+     *
+     * @param repository хранилище сессий в базе данных
+     * @param mode режим аутентификации
+     * @param timeout время бездействия, после которого сессия истекает
+     * @param nearCacheTtl время хранения сессии в локальном кеше без проверки в базе данных
+     * @param clock часы
+     */
+    UserSessionStore(UserSessionRepository repository, String mode, Duration timeout, Duration nearCacheTtl,
+                     Clock clock) {
+        this.repository = repository;
+        this.enabled = "db".equals(mode);
+        this.timeout = timeout;
+        this.nearCacheTtl = nearCacheTtl;
+        this.clock = clock;
+    }
+
+    /**
+     * Создает сессию пользователя и сохраняет ее в базе данных.
+     *
+     * @param user пользователь
+     * @return идентификатор сессии
+     * @exception IllegalStateException если сессию не удалось сохранить
+     */
+    public String create(User user) {
+        byte[] bytes = new byte[ID_BYTES];
+        random.nextBytes(bytes);
+        String id = ENCODER.encodeToString(bytes);
+        Instant now = clock.instant();
+        repository.add(UserSession.builder()
+                .id(id)
+                .user(user)
+                .timezone(user.getTimezone())
+                .created(now)
+                .lastAccess(now)
+                .build())
+                .orElseThrow(() -> new IllegalStateException("Не удалось сохранить сессию пользователя"));
+        cache.put(id, new Entry(principal(user, user.getTimezone()), now, now, false));
+        return id;
+    }
+
+    /**
+     * Выполняет поиск действующей сессии и отмечает обращение к ней. Сессия из
+     * локального кеша, проверенная в базе данных не раньше todo.session.near-cache-ttl
+     * назад, возвращается без обращения к базе данных.
+     *
+     * @param id идентификатор сессии
+     * @return Optional с пользователем сессии без пароля
+     */
+    public Optional<User> find(String id) {
+        Instant now = clock.instant();
+        Entry entry = cache.get(id);
+        if (entry != null && now.isBefore(entry.verifiedAt.plus(nearCacheTtl)) && !isExpired(entry.lastAccess, now)) {
+            entry.lastAccess = now;
+            entry.dirty = true;
+            return Optional.of(entry.principal);
+        }
+        Optional<UserSession> stored = repository.findById(id);
+        if (stored.isEmpty() || isExpired(latest(stored.get().getLastAccess(), entry), now)) {
+            cache.remove(id);
+            return Optional.empty();
+        }
+        UserSession userSession = stored.get();
+        User principal = principal(userSession.getUser(), userSession.getTimezone());
+        cache.put(id, new Entry(principal, now, now, true));
+        return Optional.of(principal);
+    }
+
+    /**
+     * Удаляет сессию из локального кеша и базы данных.
+     *
+     * @param id идентификатор сессии
+     */
+    public void remove(String id) {
+        cache.remove(id);
+        repository.deleteById(id);
+    }
+
+    /**
+     * Записывает в базу данных момент обращения ко всем сессиям, к которым
+     * обращались с прошлой записи, запросами не более чем по TOUCH_CHUNK сессий.
+     * Записывается момент выполнения записи, поэтому время бездействия сессии
+     * может увеличиться не более чем на интервал записи todo.session.flush-interval.
+     */
+    @Scheduled(fixedDelayString = "${todo.session.flush-interval:PT30S}")
+    public void flush() {
+        List<String> ids = new ArrayList<>();
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, Entry> item : cache.entrySet()) {
+            Entry entry = item.getValue();
+            if (entry.dirty) {
+                entry.dirty = false;
+                ids.add(item.getKey());
+                entries.add(entry);
+            }
+        }
+        Instant now = clock.instant();
+        try {
+            for (int from = 0; from < ids.size(); from += TOUCH_CHUNK) {
+                repository.touch(ids.subList(from, Math.min(from + TOUCH_CHUNK, ids.size())), now);
+            }
+        } catch (RepositoryException e) {
+            entries.forEach(entry -> entry.dirty = true);
+            log.error("Не удалось записать время обращения к сессиям: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Записывает время обращения к сессиям, удаляет из базы данных истекшие
+     * сессии и очищает локальный кеш от истекших и давно не проверенных сессий.
+     * Выполняется только в режиме аутентификации db.
+     */
+    @Scheduled(fixedDelayString = "${todo.session.sweep-interval:PT5M}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        Instant now = clock.instant();
+        Instant cutoff = now.minus(timeout);
+        try {
+            int deleted = repository.deleteExpired(cutoff);
+            log.debug("Удалено истекших сессий: {}", deleted);
+        } catch (RepositoryException e) {
+            log.error("Не удалось удалить истекшие сессии: {}", e.getMessage());
+        }
+        cache.values().removeIf(entry -> !entry.dirty
+                && (isExpired(entry.lastAccess, now) || !now.isBefore(entry.verifiedAt.plus(nearCacheTtl))));
+    }
+
+    /**
+     * Проверяет, истекла ли сессия с заданным моментом последнего обращения.
+     *
+     * @param lastAccess момент последнего обращения
+     * @param now текущий момент
+     * @return true, если сессия истекла
+     */
+    private boolean isExpired(Instant lastAccess, Instant now) {
+        return !now.isBefore(lastAccess.plus(timeout));
+    }
+
+    /**
+     * Возвращает более поздний из моментов обращения в базе данных и в локальном кеше,
+     * в кеше может быть еще не записанное обращение.
+     *
+     * @param stored момент обращения в базе данных
+     * @param entry сессия в локальном кеше или null
+     * @return момент последнего обращения
+     */
+    private static Instant latest(Instant stored, Entry entry) {
+        return entry != null && entry.lastAccess.isAfter(stored) ? entry.lastAccess : stored;
+    }
+
+    /**
+     * Создает пользователя сессии без пароля.
+     *
+     * @param user пользователь
+     * @param timezone временная зона сессии
+     * @return пользователь
+     */
+    private static User principal(User user, String timezone) {
+        return User.builder()
+                .id(user.getId())
+                .login(user.getLogin())
+                .name(user.getName())
+                .timezone(timezone)
+                .build();
+    }
+
+    /**
+     * Сессия в локальном кеше
+     */
+    private static final class Entry {
+
+        /**
+         * Пользователь сессии без пароля
+         */
+        private final User principal;
+
+        /**
+         * Момент последней проверки сессии в базе данных
+         */
+        private final Instant verifiedAt;
+
+        /**
+         * Момент последнего обращения к сессии
+         */
+        private volatile Instant lastAccess;
+
+        /**
+         * Признак обращения, еще не записанного в базу данных
+         */
+        private volatile boolean dirty;
+
+        /**
+         * Создает сессию локального кеша.
+         *
+         * @param principal пользователь сессии
+         * @param verifiedAt момент проверки сессии в базе данных
+         * @param lastAccess момент последнего обращения
+         * @param dirty признак не записанного обращения
+         */
+        private Entry(User principal, Instant verifiedAt, Instant lastAccess, boolean dirty) {
+            this.principal = principal;
+            this.verifiedAt = verifiedAt;
+            this.lastAccess = lastAccess;
+            this.dirty = dirty;
+        }
+    }
+}
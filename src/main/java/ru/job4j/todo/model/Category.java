@@ -1,11 +1,14 @@
 package ru.job4j.todo.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
 /**
- * Модель данных категория
+ * Модель данных категория. Справочник категорий хранится
+ * во втором уровне кэша hibernate (регион задан в ehcache.xml).
  *
  * @author Alexander Emelyanov
  * @version 1.0
@@ -17,6 +20,8 @@ import javax.persistence.*;
 @Setter
 @ToString
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "categories")
 public class Category {
 
@@ -24,7 +29,8 @@ public class Category {
      * Идентификатор категории
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categories_seq")
+    @SequenceGenerator(name = "categories_seq", sequenceName = "categories_id_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private int id;
 
@@ -1,11 +1,14 @@
 package ru.job4j.todo.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
 /**
- * Модель данных приоритет
+ * Модель данных приоритет. Справочник приоритетов хранится
+ * во втором уровне кэша hibernate (регион задан в ehcache.xml).
  *
  * @author Alexander Emelyanov
  * @version 1.0
@@ -17,6 +20,8 @@ import javax.persistence.*;
 @Setter
 @ToString
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "priorities")
 public class Priority {
 
@@ -24,7 +29,8 @@ public class Priority {
      * Идентификатор приоритета
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "priorities_seq")
+    @SequenceGenerator(name = "priorities_seq", sequenceName = "priorities_id_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private int id;
 
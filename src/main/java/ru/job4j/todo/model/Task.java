@@ -1,13 +1,15 @@
 package ru.job4j.todo.model;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
-import java.time.LocalDateTime;
+import java.time.Instant;
 import java.util.List;
 
 /**
- * Модель данных задачи
+ * Модель данных задачи. Одновременное изменение задачи обнаруживается
+ * по версии (оптимистическая блокировка) без блокировки строк.
  *
  * @author Alexander Emelyanov
  * @version 1.0
@@ -20,13 +22,19 @@ import java.util.List;
 @ToString
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "tasks_user_id_done_id_idx", columnList = "user_id, done, id"),
+        @Index(name = "tasks_done_id_idx", columnList = "done, id"),
+        @Index(name = "tasks_priority_id_idx", columnList = "priority_id")
+})
 public class Task {
     /**
-     * Идентификатор задачи
+     * Идентификатор задачи. Значения выделяются блоками из последовательности,
+     * что позволяет hibernate выполнять вставку задач пакетами JDBC
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_id_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private int id;
 
@@ -41,9 +49,12 @@ public class Task {
     private String description;
 
     /**
-     * Время создания задач
+     * Момент создания задачи. Хранится без привязки к временной зоне,
+     * в зону пользователя переводится только при выводе на страницу.
+     * При обновлении задачи не изменяется
      */
-    private LocalDateTime created = LocalDateTime.now();
+    @Column(name = "created_at", updatable = false, columnDefinition = "timestamp with time zone")
+    private Instant created = Instant.now();
 
     /**
      * Статус задачи
@@ -65,13 +76,28 @@ public class Task {
     private Priority priority;
 
     /**
-     * Список категорий задачи
+     * Список категорий задачи. Коллекции категорий загружаются пакетно:
+     * категории нескольких задач, загруженных в сессию, выбираются
+     * одним запросом по списку идентификаторов задач.
+     * Ограничение уникальности связи задачи и категории служит и индексом выборки по task_id.
      */
     @ManyToMany
+    @BatchSize(size = 50)
     @JoinTable(
             name = "tasks_categories",
             joinColumns = { @JoinColumn(name = "task_id") },
-            inverseJoinColumns = { @JoinColumn(name = "category_id") }
+            inverseJoinColumns = { @JoinColumn(name = "category_id") },
+            uniqueConstraints = { @UniqueConstraint(name = "tasks_categories_task_id_category_id_key",
+                    columnNames = { "task_id", "category_id" }) },
+            indexes = { @Index(name = "tasks_categories_category_id_idx", columnList = "category_id") }
     )
     private List<Category> categories;
+
+    /**
+     * Версия задачи: обновление выполняется с условием на версию,
+     * прочитанную при открытии формы редактирования, и увеличивает ее
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "int default 0")
+    private int version;
 }
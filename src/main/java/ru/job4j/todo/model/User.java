@@ -1,13 +1,19 @@
 package ru.job4j.todo.model;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
 /**
- * Модель данных пользователи
+ * Модель данных пользователи. Пользователи хранятся во втором уровне кэша
+ * hibernate по идентификатору (регион задан в ehcache.xml). Кэш локален
+ * для экземпляра приложения, время жизни записей 30 секунд ограничивает
+ * отставание от изменений на других экземплярах. Пароль, не совпавший
+ * с хешем из кэша, повторно проверяется по данным из базы данных без кэша.
  * @author Alexander Emelyanov
  * @version 1.0
  */
@@ -19,13 +25,16 @@ import javax.validation.constraints.Size;
 @ToString
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "todo_users")
 public class User {
     /**
      * Идентификатор пользователя
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_users_seq")
+    @SequenceGenerator(name = "todo_users_seq", sequenceName = "todo_users_id_seq", allocationSize = 50)
     private int id;
 
     /**
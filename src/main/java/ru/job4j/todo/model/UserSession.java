@@ -0,0 +1,60 @@
+package ru.job4j.todo.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Модель данных сессии пользователя, хранящейся в базе данных. Сессия содержит
+ * только ссылку на пользователя и его временную зону, поэтому ее может
+ * восстановить любой экземпляр приложения.
+ *
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+@ToString(exclude = "user")
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "user_sessions", indexes = {
+        @Index(name = "user_sessions_last_access_idx", columnList = "last_access")
+})
+public class UserSession {
+
+    /**
+     * Случайный идентификатор сессии, передается в cookie
+     */
+    @Id
+    @EqualsAndHashCode.Include
+    private String id;
+
+    /**
+     * Пользователь сессии
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    /**
+     * Временная зона пользователя
+     */
+    @Column(name = "user_zone")
+    private String timezone;
+
+    /**
+     * Момент создания сессии
+     */
+    @Column(name = "created_at", updatable = false, columnDefinition = "timestamp with time zone")
+    private Instant created;
+
+    /**
+     * Момент последнего обращения к сессии
+     */
+    @Column(name = "last_access", columnDefinition = "timestamp with time zone")
+    private Instant lastAccess;
+}
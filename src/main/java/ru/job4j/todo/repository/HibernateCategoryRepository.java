@@ -2,16 +2,15 @@ package ru.job4j.todo.repository;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.hibernate.Session;
-import org.hibernate.SessionFactory;
-import org.hibernate.Transaction;
-import org.hibernate.query.Query;
 import org.springframework.stereotype.Repository;
 import ru.job4j.todo.model.Category;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Реализация хранилища категорий
@@ -29,73 +28,53 @@ public class HibernateCategoryRepository implements CategoryRepository {
      */
     private final static String FIND_ALL_CATEGORIES = "from Category c order by c.id";
 
-    /**
-     * SQL запрос по выбору всех категорий из таблицы categories по списку идентификаторов
-     */
-    private final static String FIND_ALL_CATEGORIES_BY_IDS = "from Category c where c.id in :ids order by c.id";
-
     /**
      * SQL запрос по удалению категории из таблицы categories с фильтром по id
      */
     private final static String DELETE_CATEGORY_BY_ID = "delete Category where id = :id";
 
     /**
-     * SQL запрос по выбору категории из таблицы categories с фильтром по id
-     */
-    private final static String FIND_CATEGORY_BY_ID = "select distinct c from Category c where c.id = :id";
-
-    /**
-     * Объект для выполнения подключения к базе данных приложения
+     * Исполнитель операций с базой данных
      */
-    private final SessionFactory sessionFactory;
+    private final SessionExecutor executor;
 
     /**
-     * Выполняет переданный метод оборачиваю в транзакцию
-     *
-     * @param command выполняемый метод
-     * @return объект результат выполнения переданного метода
-     */
-    private <T> T execute(final Function<Session, T> command) {
-        final Session session = sessionFactory.openSession();
-        final Transaction transaction = session.beginTransaction();
-        try {
-            T rsl = command.apply(session);
-            transaction.commit();
-            return rsl;
-        } catch (final Exception e) {
-            session.getTransaction().rollback();
-            log.info("Исключение при работе с методами CategoryRepository", e);
-            throw e;
-        } finally {
-            session.close();
-        }
-    }
-
-    /**
-     * Выполняет возврат всех категорий из базы данных.
+     * Выполняет возврат всех категорий из базы данных. Результат запроса
+     * хранится в кэше запросов и сбрасывается hibernate при любом изменении
+     * таблицы categories.
      *
      * @return список категорий
      */
     @Override
     public List<Category> findAllCategories() {
-        return this.execute(
-                session -> session.createQuery(FIND_ALL_CATEGORIES).list());
+        return executor.read("CategoryRepository.findAllCategories",
+                session -> session.createQuery(FIND_ALL_CATEGORIES, Category.class)
+                        .setCacheable(true)
+                        .list());
     }
 
     /**
      * Выполняет возврат всех категорий из базы данных с фильтром по идентификатору.
+     * Категории, находящиеся во втором уровне кэша, в базе данных не запрашиваются.
+     * Повторяющиеся идентификаторы дают одну категорию, поэтому связь задачи
+     * с категорией не дублируется.
      *
      * @param categoryIds список идентификаторов категорий
      * @return список категорий
      */
     @Override
     public List<Category> findCategoriesByIds(List<Integer> categoryIds) {
-        return this.execute(
-                session -> {
-                    Query<Category> query = session.createQuery(FIND_ALL_CATEGORIES_BY_IDS, Category.class);
-                    query.setParameter("ids", categoryIds);
-                    return query.list();
-                });
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return executor.read("CategoryRepository.findCategoriesByIds",
+                session -> session.byMultipleIds(Category.class)
+                        .multiLoad(categoryIds)
+                        .stream()
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .sorted(Comparator.comparingInt(Category::getId))
+                        .collect(Collectors.toList()));
     }
 
     /**
@@ -108,12 +87,8 @@ public class HibernateCategoryRepository implements CategoryRepository {
      */
     @Override
     public Optional<Category> findCategoryById(int id) {
-        return this.execute(
-                session -> {
-                    Query<Category> query = session.createQuery(FIND_CATEGORY_BY_ID, Category.class);
-                    query.setParameter("id", id);
-                    return Optional.ofNullable(query.uniqueResult());
-                });
+        return executor.read("CategoryRepository.findCategoryById",
+                session -> Optional.ofNullable(session.get(Category.class, id)));
     }
 
     /**
@@ -124,7 +99,7 @@ public class HibernateCategoryRepository implements CategoryRepository {
      */
     @Override
     public Optional<Category> update(Category category) {
-        return this.execute(
+        return executor.write("CategoryRepository.update",
                 session -> {
                     session.update(category);
                     return Optional.ofNullable(category);
@@ -141,7 +116,7 @@ public class HibernateCategoryRepository implements CategoryRepository {
      */
     @Override
     public Optional<Category> add(Category category) {
-        return this.execute(
+        return executor.write("CategoryRepository.add",
                 session -> {
                     session.save(category);
                     return Optional.ofNullable(category);
@@ -156,7 +131,7 @@ public class HibernateCategoryRepository implements CategoryRepository {
      */
     @Override
     public void deleteCategoryById(int id) {
-        this.execute(session -> session.createQuery(
+        executor.write("CategoryRepository.deleteCategoryById", session -> session.createQuery(
                         DELETE_CATEGORY_BY_ID)
                 .setParameter("id", id)
                 .executeUpdate());
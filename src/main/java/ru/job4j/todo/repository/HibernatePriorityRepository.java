@@ -2,15 +2,13 @@ package ru.job4j.todo.repository;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.hibernate.Session;
-import org.hibernate.SessionFactory;
-import org.hibernate.Transaction;
 import org.hibernate.query.Query;
 import org.springframework.stereotype.Repository;
 import ru.job4j.todo.model.Priority;
 
+import java.util.List;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Реализация хранилища приоритетов
@@ -24,14 +22,14 @@ import java.util.function.Function;
 public class HibernatePriorityRepository implements PriorityRepository {
 
     /**
-     * SQL запрос по выбору задачи из таблицы priority с фильтром по name
+     * SQL запрос по выбору всех приоритетов из таблицы priorities в порядке позиции
      */
-    private final static String FIND_PRIORITY_BY_NAME = "from Priority p where p.name = :name";
+    private final static String FIND_ALL_PRIORITIES = "from Priority p order by p.position";
 
     /**
-     * SQL запрос по выбору приоритета из таблицы priorities с фильтром по id
+     * SQL запрос по выбору задачи из таблицы priority с фильтром по name
      */
-    private final static String FIND_PRIORITY_BY_ID = "select distinct p from Priority p where p.id = :id";
+    private final static String FIND_PRIORITY_BY_NAME = "from Priority p where p.name = :name";
 
     /**
      * SQL запрос по удалению приоритета из таблицы priorities с фильтром по id
@@ -39,47 +37,52 @@ public class HibernatePriorityRepository implements PriorityRepository {
     private final static String DELETE_PRIORITY_BY_ID = "delete Priority where id = :id";
 
     /**
-     * Объект для выполнения подключения к базе данных приложения
+     * Исполнитель операций с базой данных
      */
-    private final SessionFactory sessionFactory;
+    private final SessionExecutor executor;
 
     /**
-     * Выполняет переданный метод оборачиваю в транзакцию
+     * Выполняет операцию хранилища, возвращая Optional с результатом операции.
+     * При ошибке работы с базой данных возвращается Optional.empty().
      *
-     * @param command выполняемый метод
-     * @return объект результат выполнения переданного метода
+     * @param call операция хранилища
+     * @return Optional.ofNullable() с результатом операции, Optional.empty() при ошибке
      */
-    private <T> Optional<T> execute(final Function<Session, T> command) {
-        final Session session = sessionFactory.openSession();
-        final Transaction transaction = session.beginTransaction();
+    private <T> Optional<T> optional(Supplier<T> call) {
         try {
-            T rsl = command.apply(session);
-            transaction.commit();
-            return Optional.ofNullable(rsl);
-        } catch (final Exception e) {
-            session.getTransaction().rollback();
-            log.info("Исключение при работе с методами PriorityRepository", e);
+            return Optional.ofNullable(call.get());
+        } catch (final RepositoryException e) {
             return Optional.empty();
-        } finally {
-            session.close();
         }
     }
 
+    /**
+     * Выполняет возврат всех приоритетов из базы данных в порядке позиции.
+     * Результат запроса хранится в кэше запросов и сбрасывается hibernate
+     * при любом изменении таблицы priorities.
+     *
+     * @return список приоритетов
+     */
+    @Override
+    public List<Priority> findAllPriorities() {
+        return executor.read("PriorityRepository.findAllPriorities",
+                session -> session.createQuery(FIND_ALL_PRIORITIES, Priority.class)
+                        .setCacheable(true)
+                        .list());
+    }
+
     /**
      * Выполняет поиск приоритета по идентификатору. Возвращает Optional
      * с объектом приоритета. Возвращаемый Optional может содержать null,
-     * если приоритет не найден.
+     * если приоритет не найден. Приоритет, находящийся во втором уровне кэша,
+     * в базе данных не запрашивается.
      *
      * @param id идентификатор приоритета
      * @return Optional.ofNullable() с объектом priority
      */
     public Optional<Priority> findPriorityById(int id) {
-        return this.execute(
-                session -> {
-                    Query<Priority> query = session.createQuery(FIND_PRIORITY_BY_ID, Priority.class);
-                    query.setParameter("id", id);
-                    return query.uniqueResult();
-                });
+        return optional(() -> executor.read("PriorityRepository.findPriorityById",
+                session -> session.get(Priority.class, id)));
     }
 
     /**
@@ -89,12 +92,12 @@ public class HibernatePriorityRepository implements PriorityRepository {
      * @return Optional.ofNullable() с обновленным объектом priority
      */
     public Optional<Priority> update(Priority priority) {
-        return this.execute(
+        return optional(() -> executor.write("PriorityRepository.update",
                 session -> {
                     session.update(priority);
                     return priority;
                 }
-        );
+        ));
     }
 
     /**
@@ -105,12 +108,12 @@ public class HibernatePriorityRepository implements PriorityRepository {
      * @return Optional.ofNullable() с сохраненным объектом priority
      */
     public Optional<Priority> add(Priority priority) {
-        return this.execute(
+        return optional(() -> executor.write("PriorityRepository.add",
                 session -> {
                     session.save(priority);
                     return priority;
                 }
-        );
+        ));
     }
 
     /**
@@ -119,27 +122,29 @@ public class HibernatePriorityRepository implements PriorityRepository {
      * @param id идентификатор приоритета
      */
     public void deletePriorityById(int id) {
-        this.execute(session -> session.createQuery(
+        optional(() -> executor.write("PriorityRepository.deletePriorityById", session -> session.createQuery(
                         DELETE_PRIORITY_BY_ID)
                 .setParameter("id", id)
-                .executeUpdate());
+                .executeUpdate()));
     }
 
     /**
      * Выполняет поиск приоритета по имени. Возвращает Optional
      * с объектом приоритета. Возвращаемый Optional может содержать null,
-     * если приоритет не найден.
+     * если приоритет не найден. Результат запроса хранится в кэше запросов
+     * и сбрасывается hibernate при любом изменении таблицы priorities.
      *
      * @param name имя приоритета
      * @return Optional с объектом priority
      */
     @Override
     public Optional<Priority> findPriorityByName(String name) {
-        return this.execute(
+        return optional(() -> executor.read("PriorityRepository.findPriorityByName",
                 session -> {
                     Query<Priority> query = session.createQuery(FIND_PRIORITY_BY_NAME, Priority.class);
                     query.setParameter("name", name);
+                    query.setCacheable(true);
                     return query.uniqueResult();
-                });
+                }));
     }
 }
\ No newline at end of file
@@ -2,16 +2,37 @@ package ru.job4j.todo.repository;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
-import org.hibernate.SessionFactory;
-import org.hibernate.Transaction;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
+import org.hibernate.type.InstantType;
+import org.hibernate.type.StandardBasicTypes;
 import org.springframework.stereotype.Repository;
+import ru.job4j.todo.dto.TaskExportRow;
+import ru.job4j.todo.dto.TaskListView;
+import ru.job4j.todo.dto.TaskNameRow;
+import ru.job4j.todo.dto.TaskSearchResult;
+import ru.job4j.todo.model.Category;
+import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.model.Task;
 
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.function.Consumer;
 
 /**
  * Реализация хранилища задач
@@ -27,26 +48,90 @@ public class HibernateTaskRepository implements TaskRepository {
     /**
      * SQL запрос по выбору всех задач из таблицы tasks
      */
-    private final static String FIND_ALL_TASKS = "select distinct t from Task t join fetch t.priority "
-            + "join fetch t.categories order by t.id";
+    private final static String FIND_ALL_TASKS = "select t from Task t join fetch t.priority "
+            + "left join fetch t.user order by t.id";
 
     /**
      * SQL запрос по выбору новых задач из таблицы tasks
      */
-    private final static String FIND_NEW_TASKS = "select distinct t from Task t join fetch t.priority "
-            + "join fetch t.categories where t.done = false order by t.id ";
+    private final static String FIND_NEW_TASKS = "select t from Task t join fetch t.priority "
+            + "left join fetch t.user where t.done = false order by t.id";
 
     /**
      * SQL запрос по выбору выполненных задач из таблицы tasks
      */
-    private final static String FIND_DONE_TASKS = "select distinct t from Task t join fetch t.priority "
-            + "join fetch t.categories where t.done = true order by t.id ";
+    private final static String FIND_DONE_TASKS = "select t from Task t join fetch t.priority "
+            + "left join fetch t.user where t.done = true order by t.id";
+
+    /**
+     * SQL запрос по выбору задач пользователя из таблицы tasks
+     */
+    private final static String FIND_TASKS_BY_USER = "select t from Task t join fetch t.priority "
+            + "join fetch t.user where t.user.id = :userId";
+
+    /**
+     * SQL запрос по выбору страницы задач пользователя после курсора
+     */
+    private final static String FIND_TASKS_AFTER = "select new ru.job4j.todo.dto.TaskListView("
+            + "t.id, t.name, t.created, t.done, u.name, p.name) from Task t join t.priority p join t.user u "
+            + "where t.user.id = :userId and t.id > :cursor";
+
+    /**
+     * SQL запрос по выбору страницы задач пользователя до курсора
+     */
+    private final static String FIND_TASKS_BEFORE = "select new ru.job4j.todo.dto.TaskListView("
+            + "t.id, t.name, t.created, t.done, u.name, p.name) from Task t join t.priority p join t.user u "
+            + "where t.user.id = :userId and t.id < :cursor";
+
+    /**
+     * SQL запрос полнотекстового поиска задач пользователя в PostgreSQL по поисковому вектору
+     * tasks.search_vector (индекс GIN tasks_user_id_search_vector_idx). Фрагменты описания
+     * с выделением найденных слов строятся только для задач выбранной страницы
+     */
+    private final static String SEARCH_TASKS = "select r.id, r.name, r.created_at as created, r.done, p.name as priority_name, "
+            + "ts_headline('russian', coalesce(nullif(r.description, ''), r.name), r.q, :options) as snippet, "
+            + "r.rank from (select t.id, t.name, t.description, t.created_at, t.done, t.priority_id, q, "
+            + "ts_rank(t.search_vector, q) as rank from tasks t, websearch_to_tsquery('russian', :text) q "
+            + "where t.user_id = :userId and t.search_vector @@ q "
+            + "order by rank desc, t.id desc limit :limit offset :offset) r "
+            + "join priorities p on p.id = r.priority_id order by r.rank desc, r.id desc";
+
+    /**
+     * SQL запрос поиска задач пользователя по вхождению строки в наименование или описание,
+     * используется для баз данных без полнотекстового поиска (H2)
+     */
+    private final static String SEARCH_TASKS_BY_PATTERN = "select t.id, t.name, t.description, t.created, "
+            + "t.done, p.name from Task t join t.priority p where t.user.id = :userId "
+            + "and (lower(t.name) like :pattern escape '!' or lower(t.description) like :pattern escape '!') "
+            + "order by t.id desc";
+
+    /**
+     * Параметры построения фрагментов описания задачи функцией ts_headline
+     */
+    private final static String SEARCH_HEADLINE_OPTIONS = "StartSel=" + TaskSearchResult.HIGHLIGHT_START
+            + ", StopSel=" + TaskSearchResult.HIGHLIGHT_END + ", MaxWords=30, MinWords=10, MaxFragments=2";
+
+    /**
+     * Количество символов фрагмента описания задачи при поиске по вхождению строки
+     */
+    private final static int SEARCH_SNIPPET_LENGTH = 160;
+
+    /**
+     * SQL запрос по выбору имен категорий задач из таблицы tasks_categories с фильтром по списку id задач
+     */
+    private final static String FIND_CATEGORY_NAMES_BY_TASK_IDS = "select t.id, c.name from Task t "
+            + "join t.categories c where t.id in (:ids) order by c.id";
 
     /**
      * SQL запрос по выбору задачи из таблицы tasks с фильтром по id
      */
     private final static String FIND_TASK_BY_ID = "select distinct t from Task t join fetch t.priority "
-            + "join fetch t.categories where t.id = :id";
+            + "left join fetch t.user left join fetch t.categories where t.id = :id";
+
+    /**
+     * SQL запрос по установке статуса выполнено задаче из таблицы tasks с фильтром по id, версия задач увеличивается
+     */
+    private final static String MARK_TASK_DONE = "update versioned Task t set t.done = true where t.id = :id";
 
     /**
      * SQL запрос по удалению задач из таблицы tasks с фильтром по id
@@ -54,31 +139,60 @@ public class HibernateTaskRepository implements TaskRepository {
     private final static String DELETE_TASK_BY_ID = "delete Task where id = :id";
 
     /**
-     * Объект для выполнения подключения к базе данных приложения
+     * SQL запрос по установке статуса выполнено задачам пользователя из таблицы tasks
+     * с фильтром по списку id, версия задач увеличивается
      */
-    private final SessionFactory sessionFactory;
+    private final static String COMPLETE_TASKS = "update versioned Task t set t.done = true "
+            + "where t.id in (:ids) and t.user.id = :userId";
 
     /**
-     * Выполняет переданный метод оборачиваю в транзакцию.
-     *
-     * @param command выполняемый метод
-     * @return объект результат выполнения переданного метода
+     * SQL запрос по изменению приоритета задач пользователя из таблицы tasks
+     * с фильтром по списку id, версия задач увеличивается
      */
-    private <T> T execute(final Function<Session, T> command) {
-        final Session session = sessionFactory.openSession();
-        final Transaction transaction = session.beginTransaction();
-        try {
-            T rsl = command.apply(session);
-            transaction.commit();
-            return rsl;
-        } catch (final Exception e) {
-            session.getTransaction().rollback();
-            log.info("Исключение при работе с методами TaskRepository", e);
-            throw e;
-        } finally {
-            session.close();
-        }
-    }
+    private final static String CHANGE_TASKS_PRIORITY = "update versioned Task t set t.priority = :priority "
+            + "where t.id in (:ids) and t.user.id = :userId";
+
+    /**
+     * SQL запрос по удалению связей задач пользователя с категориями из таблицы
+     * tasks_categories с фильтром по списку id задач
+     */
+    private final static String DELETE_TASKS_CATEGORIES = "delete from tasks_categories "
+            + "where task_id in (select id from tasks where id in (:ids) and user_id = :userId)";
+
+    /**
+     * SQL запрос по удалению задач пользователя из таблицы tasks с фильтром по списку id
+     */
+    private final static String DELETE_TASKS = "delete Task t where t.id in (:ids) and t.user.id = :userId";
+
+    /**
+     * SQL запрос по добавлению связи задачи с категорией в таблицу tasks_categories
+     */
+    private final static String INSERT_TASK_CATEGORY = "insert into tasks_categories (task_id, category_id) "
+            + "values (?, ?)";
+
+    /**
+     * SQL запрос по выборке полей задач пользователя из таблицы tasks с именами приоритета
+     * и категорий для выгрузки, строки одной задачи следуют подряд
+     */
+    private final static String EXPORT_TASKS_BY_USER = "select t.id, t.name, t.description, t.created, t.done, "
+            + "p.name, c.name from Task t join t.priority p left join t.categories c "
+            + "where t.user.id = :userId order by t.id";
+
+    /**
+     * SQL запрос по выборке идентификаторов и наименований задач всех пользователей из таблицы tasks
+     */
+    private final static String SCAN_TASK_NAMES = "select t.id, u.id, t.name from Task t join t.user u "
+            + "order by t.id";
+
+    /**
+     * Количество строк, получаемых драйвером JDBC за одно обращение к базе данных при выгрузке
+     */
+    private final static int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Исполнитель операций с базой данных
+     */
+    private final SessionExecutor executor;
 
     /**
      * Возвращает список всех задач.
@@ -87,8 +201,8 @@ public class HibernateTaskRepository implements TaskRepository {
      */
     @Override
     public List<Task> findAllTasks() {
-        return this.execute(
-                session -> session.createQuery(FIND_ALL_TASKS).list());
+        return executor.read("TaskRepository.findAllTasks",
+                session -> initializeCategories(session.createQuery(FIND_ALL_TASKS, Task.class).list()));
     }
 
     /**
@@ -98,8 +212,8 @@ public class HibernateTaskRepository implements TaskRepository {
      */
     @Override
     public List<Task> findNewTasks() {
-        return this.execute(
-                session -> session.createQuery(FIND_NEW_TASKS).list());
+        return executor.read("TaskRepository.findNewTasks",
+                session -> initializeCategories(session.createQuery(FIND_NEW_TASKS, Task.class).list()));
     }
 
     /**
@@ -109,8 +223,251 @@ public class HibernateTaskRepository implements TaskRepository {
      */
     @Override
     public List<Task> findDoneTasks() {
-        return this.execute(
-                session -> session.createQuery(FIND_DONE_TASKS).list());
+        return executor.read("TaskRepository.findDoneTasks",
+                session -> initializeCategories(session.createQuery(FIND_DONE_TASKS, Task.class).list()));
+    }
+
+    /**
+     * Возвращает список задач пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @param done статус задач, null - задачи с любым статусом
+     * @return список задач пользователя
+     */
+    @Override
+    public List<Task> findTasksByUser(int userId, Boolean done) {
+        return executor.read("TaskRepository.findTasksByUser",
+                session -> {
+                    Query<Task> query = session.createQuery(
+                            FIND_TASKS_BY_USER + (done != null ? " and t.done = :done" : "") + " order by t.id",
+                            Task.class);
+                    query.setParameter("userId", userId);
+                    if (done != null) {
+                        query.setParameter("done", done);
+                    }
+                    return initializeCategories(query.list());
+                });
+    }
+
+    /**
+     * Возвращает страницу представлений задач пользователя с идентификатором больше
+     * курсора, упорядоченную по возрастанию идентификатора.
+     *
+     * @param userId идентификатор пользователя
+     * @param done статус задач, null - задачи с любым статусом
+     * @param afterId курсор, идентификатор последней задачи предыдущей страницы
+     * @param limit максимальное количество задач
+     * @return список представлений задач
+     */
+    @Override
+    public List<TaskListView> findTasksAfter(int userId, Boolean done, int afterId, int limit) {
+        return executor.read("TaskRepository.findTasksAfter",
+                session -> findPage(session, FIND_TASKS_AFTER, userId, done, afterId, limit, "asc"));
+    }
+
+    /**
+     * Возвращает страницу представлений задач пользователя с идентификатором меньше
+     * курсора, упорядоченную по возрастанию идентификатора.
+     *
+     * @param userId идентификатор пользователя
+     * @param done статус задач, null - задачи с любым статусом
+     * @param beforeId курсор, идентификатор первой задачи следующей страницы
+     * @param limit максимальное количество задач
+     * @return список представлений задач
+     */
+    @Override
+    public List<TaskListView> findTasksBefore(int userId, Boolean done, int beforeId, int limit) {
+        return executor.read("TaskRepository.findTasksBefore",
+                session -> findPage(session, FIND_TASKS_BEFORE, userId, done, beforeId, limit, "desc"));
+    }
+
+    /**
+     * Выполняет полнотекстовый поиск задач пользователя по наименованию и описанию.
+     * В PostgreSQL поиск выполняется по поисковому вектору с ранжированием ts_rank,
+     * в остальных базах данных - по вхождению строки без учета регистра.
+     *
+     * @param userId идентификатор пользователя
+     * @param text поисковый запрос
+     * @param offset количество пропускаемых результатов
+     * @param limit максимальное количество результатов
+     * @return список результатов поиска
+     */
+    @Override
+    public List<TaskSearchResult> searchTasks(int userId, String text, int offset, int limit) {
+        return executor.read("TaskRepository.searchTasks",
+                session -> isPostgreSql(session)
+                        ? searchByVector(session, userId, text, offset, limit)
+                        : searchByPattern(session, userId, text, offset, limit));
+    }
+
+    /**
+     * Проверяет, что сессия работает с базой данных PostgreSQL.
+     *
+     * @param session сессия
+     * @return true, если диалект базы данных PostgreSQL
+     */
+    private boolean isPostgreSql(Session session) {
+        return ((SessionFactoryImplementor) session.getSessionFactory())
+                .getJdbcServices().getDialect() instanceof PostgreSQL81Dialect;
+    }
+
+    /**
+     * Выполняет полнотекстовый поиск задач в PostgreSQL. Запрос разбирается функцией
+     * websearch_to_tsquery, поэтому поддерживаются фразы в кавычках, "or" и исключение слов через "-".
+     *
+     * @param session сессия
+     * @param userId идентификатор пользователя
+     * @param text поисковый запрос
+     * @param offset количество пропускаемых результатов
+     * @param limit максимальное количество результатов
+     * @return список результатов поиска
+     */
+    @SuppressWarnings("unchecked")
+    private List<TaskSearchResult> searchByVector(Session session, int userId, String text,
+                                                  int offset, int limit) {
+        NativeQuery<Object[]> query = session.createNativeQuery(SEARCH_TASKS)
+                .addScalar("id", StandardBasicTypes.INTEGER)
+                .addScalar("name", StandardBasicTypes.STRING)
+                .addScalar("created", InstantType.INSTANCE)
+                .addScalar("done", StandardBasicTypes.BOOLEAN)
+                .addScalar("priority_name", StandardBasicTypes.STRING)
+                .addScalar("snippet", StandardBasicTypes.STRING)
+                .addScalar("rank", StandardBasicTypes.DOUBLE);
+        List<TaskSearchResult> results = new ArrayList<>();
+        for (Object[] row : query.setParameter("userId", userId)
+                .setParameter("text", text)
+                .setParameter("options", SEARCH_HEADLINE_OPTIONS)
+                .setParameter("limit", limit)
+                .setParameter("offset", offset)
+                .list()) {
+            results.add(new TaskSearchResult((Integer) row[0], (String) row[1], (Instant) row[2],
+                    (Boolean) row[3], (String) row[4], (String) row[5], (Double) row[6]));
+        }
+        return results;
+    }
+
+    /**
+     * Выполняет поиск задач по вхождению строки в наименование или описание задачи
+     * без учета регистра. Результаты упорядочены по убыванию идентификатора,
+     * релевантность всех результатов равна нулю.
+     *
+     * @param session сессия
+     * @param userId идентификатор пользователя
+     * @param text поисковый запрос
+     * @param offset количество пропускаемых результатов
+     * @param limit максимальное количество результатов
+     * @return список результатов поиска
+     */
+    private List<TaskSearchResult> searchByPattern(Session session, int userId, String text,
+                                                   int offset, int limit) {
+        String pattern = "%" + text.toLowerCase()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_") + "%";
+        List<Object[]> rows = session.createQuery(SEARCH_TASKS_BY_PATTERN, Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("pattern", pattern)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .list();
+        List<TaskSearchResult> results = new ArrayList<>();
+        for (Object[] row : rows) {
+            String description = (String) row[2];
+            String source = description == null || description.isEmpty() ? (String) row[1] : description;
+            results.add(new TaskSearchResult((Integer) row[0], (String) row[1], (Instant) row[3],
+                    (Boolean) row[4], (String) row[5], highlight(source, text), 0));
+        }
+        return results;
+    }
+
+    /**
+     * Возвращает фрагмент текста вокруг первого вхождения строки поиска
+     * с выделением вхождения маркерами {@link TaskSearchResult#HIGHLIGHT_START}
+     * и {@link TaskSearchResult#HIGHLIGHT_END}. Если вхождения нет,
+     * возвращается начало текста.
+     *
+     * @param source текст задачи
+     * @param text строка поиска
+     * @return фрагмент текста
+     */
+    private String highlight(String source, String text) {
+        int index = -1;
+        for (int i = 0; i + text.length() <= source.length() && index < 0; i++) {
+            if (source.regionMatches(true, i, text, 0, text.length())) {
+                index = i;
+            }
+        }
+        if (index < 0) {
+            return source.length() > SEARCH_SNIPPET_LENGTH
+                    ? source.substring(0, SEARCH_SNIPPET_LENGTH) + "…" : source;
+        }
+        int end = index + text.length();
+        int from = Math.max(0, index - SEARCH_SNIPPET_LENGTH / 3);
+        int to = Math.min(source.length(), Math.max(end, from + SEARCH_SNIPPET_LENGTH));
+        return (from > 0 ? "…" : "") + source.substring(from, index)
+                + TaskSearchResult.HIGHLIGHT_START + source.substring(index, end) + TaskSearchResult.HIGHLIGHT_END
+                + source.substring(end, to) + (to < source.length() ? "…" : "");
+    }
+
+    /**
+     * Выполняет постраничную выборку представлений задач по ключу. Поля задач
+     * страницы с именами пользователя и приоритета выбираются одним запросом
+     * с ограничением limit на стороне базы данных, имена категорий задач страницы
+     * выбираются вторым запросом по списку идентификаторов задач. Сущности в контекст
+     * сессии не загружаются, снимки состояния и проверка изменений не выполняются.
+     *
+     * @param session сессия
+     * @param pageQuery запрос выбора задач относительно курсора
+     * @param userId идентификатор пользователя
+     * @param done статус задач, null - задачи с любым статусом
+     * @param cursor курсор
+     * @param limit максимальное количество задач
+     * @param direction направление сортировки идентификаторов
+     * @return список представлений задач страницы по возрастанию идентификатора
+     */
+    private List<TaskListView> findPage(Session session, String pageQuery, int userId, Boolean done,
+                                        int cursor, int limit, String direction) {
+        String hql = pageQuery + (done != null ? " and t.done = :done" : "") + " order by t.id " + direction;
+        Query<TaskListView> query = session.createQuery(hql, TaskListView.class)
+                .setParameter("userId", userId)
+                .setParameter("cursor", cursor)
+                .setMaxResults(limit);
+        if (done != null) {
+            query.setParameter("done", done);
+        }
+        List<TaskListView> views = new ArrayList<>(query.list());
+        views.sort(Comparator.comparingInt(TaskListView::getId));
+        if (views.isEmpty()) {
+            return views;
+        }
+        Map<Integer, TaskListView> byId = new HashMap<>();
+        for (TaskListView view : views) {
+            byId.put(view.getId(), view);
+        }
+        List<Object[]> categories = session.createQuery(FIND_CATEGORY_NAMES_BY_TASK_IDS, Object[].class)
+                .setParameterList("ids", byId.keySet())
+                .list();
+        for (Object[] row : categories) {
+            byId.get((Integer) row[0]).getCategories().add((String) row[1]);
+        }
+        return views;
+    }
+
+    /**
+     * Выполняет загрузку категорий задач в открытой сессии. Коллекция категорий
+     * задачи загружается пакетно (см. {@link Task#getCategories()}), поэтому при
+     * инициализации первой коллекции категории остальных задач списка выбираются
+     * тем же запросом с условием task_id in (...), без декартова произведения
+     * строк задач и категорий в основном запросе.
+     *
+     * @param tasks список задач
+     * @return тот же список задач с загруженными категориями
+     */
+    private List<Task> initializeCategories(List<Task> tasks) {
+        for (Task task : tasks) {
+            Hibernate.initialize(task.getCategories());
+        }
+        return tasks;
     }
 
     /**
@@ -123,7 +480,7 @@ public class HibernateTaskRepository implements TaskRepository {
      */
     @Override
     public Optional<Task> findTaskById(int id) {
-        return this.execute(
+        return executor.read("TaskRepository.findTaskById",
                 session -> {
                     Query<Task> query = session.createQuery(FIND_TASK_BY_ID, Task.class);
                     query.setParameter("id", id);
@@ -132,21 +489,50 @@ public class HibernateTaskRepository implements TaskRepository {
     }
 
     /**
-     * Выполняет обновление задачи.
+     * Выполняет обновление задачи запросом update с условием на версию задачи.
+     * Изменения записываются сразу, поэтому несовпадение версии (задача изменена
+     * или удалена после открытия формы) выбрасывается из этого метода.
      *
      * @param task задача
      * @return Optional.ofNullable() с обновленным объектом task
+     * @exception RepositoryException с признаком isStaleState(), если версия задачи не совпала
      */
     @Override
     public Optional<Task> update(Task task) {
-        return this.execute(
+        return executor.write("TaskRepository.update",
                 session -> {
                     session.update(task);
+                    session.flush();
                     return Optional.ofNullable(task);
                 }
         );
     }
 
+    /**
+     * Выполняет установку статуса задачи в выполнено одним запросом update
+     * без загрузки и полного обновления задачи. Обновление и выборка задачи
+     * для страницы с подробной информацией выполняются в одной транзакции.
+     *
+     * @param id идентификатор задачи
+     * @return Optional.ofNullable() с обновленным объектом task, Optional.empty(),
+     * если задача не найдена
+     */
+    @Override
+    public Optional<Task> markDone(int id) {
+        return executor.write("TaskRepository.markDone",
+                session -> {
+                    int updated = session.createQuery(MARK_TASK_DONE)
+                            .setParameter("id", id)
+                            .executeUpdate();
+                    if (updated == 0) {
+                        return Optional.empty();
+                    }
+                    return session.createQuery(FIND_TASK_BY_ID, Task.class)
+                            .setParameter("id", id)
+                            .uniqueResultOptional();
+                });
+    }
+
     /**
      * Выполняет добавление задачи. Возвращает
      * задачу с проинициализированным идентификатором.
@@ -156,7 +542,7 @@ public class HibernateTaskRepository implements TaskRepository {
      */
     @Override
     public Optional<Task> add(Task task) {
-        return this.execute(
+        return executor.write("TaskRepository.add",
                 session -> {
                     session.save(task);
                     return Optional.ofNullable(task);
@@ -164,6 +550,122 @@ public class HibernateTaskRepository implements TaskRepository {
         );
     }
 
+    /**
+     * Выполняет добавление списка задач в сессии без состояния в одной транзакции.
+     * Задачи вставляются пакетом JDBC (hibernate.jdbc.batch_size), который
+     * выполняется до вставки связей задач с категориями. Связи, которые сессия
+     * без состояния не сохраняет, вставляются отдельным пакетом JDBC.
+     *
+     * @param tasks добавляемые задачи
+     * @return количество добавленных задач
+     */
+    @Override
+    public int addAll(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        return executor.stateless("TaskRepository.addAll",
+                session -> {
+                    for (Task task : tasks) {
+                        session.insert(task);
+                    }
+                    ((SharedSessionContractImplementor) session).getJdbcCoordinator().executeBatch();
+                    session.doWork(connection -> {
+                        try (PreparedStatement statement = connection.prepareStatement(INSERT_TASK_CATEGORY)) {
+                            for (Task task : tasks) {
+                                if (task.getCategories() == null) {
+                                    continue;
+                                }
+                                for (Category category : task.getCategories()) {
+                                    statement.setInt(1, task.getId());
+                                    statement.setInt(2, category.getId());
+                                    statement.addBatch();
+                                }
+                            }
+                            statement.executeBatch();
+                        }
+                    });
+                    return tasks.size();
+                });
+    }
+
+    /**
+     * Выполняет выгрузку задач пользователя через курсор только для чтения
+     * с движением вперед (ScrollMode.FORWARD_ONLY). Драйвер получает строки
+     * порциями по EXPORT_FETCH_SIZE, строки одной задачи с разными категориями
+     * объединяются в одну строку выгрузки. Выбираются только скалярные поля,
+     * сущности в контекст сессии не загружаются, поэтому потребление памяти
+     * не зависит от количества задач.
+     *
+     * @param userId идентификатор пользователя
+     * @param consumer обработчик строк выгрузки
+     * @return количество выгруженных задач
+     */
+    @Override
+    public int exportTasksByUser(int userId, Consumer<TaskExportRow> consumer) {
+        return executor.read("TaskRepository.exportTasksByUser",
+                session -> {
+                    int count = 0;
+                    try (ScrollableResults results = session.createQuery(EXPORT_TASKS_BY_USER, Object[].class)
+                            .setParameter("userId", userId)
+                            .setReadOnly(true)
+                            .setCacheMode(CacheMode.IGNORE)
+                            .setFetchSize(EXPORT_FETCH_SIZE)
+                            .scroll(ScrollMode.FORWARD_ONLY)) {
+                        TaskExportRow current = null;
+                        while (results.next()) {
+                            Object[] row = results.get();
+                            int id = (Integer) row[0];
+                            if (current == null || current.getId() != id) {
+                                if (current != null) {
+                                    consumer.accept(current);
+                                    count++;
+                                }
+                                current = new TaskExportRow(id, (String) row[1], (String) row[2],
+                                        (Instant) row[3], (Boolean) row[4], (String) row[5],
+                                        new ArrayList<>());
+                            }
+                            if (row[6] != null) {
+                                current.getCategories().add((String) row[6]);
+                            }
+                        }
+                        if (current != null) {
+                            consumer.accept(current);
+                            count++;
+                        }
+                    }
+                    return count;
+                });
+    }
+
+    /**
+     * Выполняет выборку наименований задач через курсор только для чтения с движением
+     * вперед порциями по EXPORT_FETCH_SIZE строк. Выбираются только скалярные поля,
+     * сущности в контекст сессии не загружаются.
+     *
+     * @param consumer обработчик строк наименований задач
+     * @return количество переданных задач
+     */
+    @Override
+    public int scanTaskNames(Consumer<TaskNameRow> consumer) {
+        return executor.read("TaskRepository.scanTaskNames",
+                session -> {
+                    int count = 0;
+                    try (ScrollableResults results = session.createQuery(SCAN_TASK_NAMES, Object[].class)
+                            .setReadOnly(true)
+                            .setCacheMode(CacheMode.IGNORE)
+                            .setFetchSize(EXPORT_FETCH_SIZE)
+                            .scroll(ScrollMode.FORWARD_ONLY)) {
+                        while (results.next()) {
+                            Object[] row = results.get();
+                            consumer.accept(new TaskNameRow((Integer) row[0], (Integer) row[1], (String) row[2]));
+                            count++;
+                        }
+                    }
+                    return count;
+                });
+    }
+
     /**
      * Выполняет удаление задачи по идентификатору.
      *
@@ -171,9 +673,79 @@ public class HibernateTaskRepository implements TaskRepository {
      */
     @Override
     public void deleteTaskById(int id) {
-        this.execute(session -> session.createQuery(
+        executor.write("TaskRepository.deleteTaskById", session -> session.createQuery(
                         DELETE_TASK_BY_ID)
                 .setParameter("id", id)
                 .executeUpdate());
     }
-}
\ No newline at end of file
+
+    /**
+     * Выполняет установку статуса выполнено задачам пользователя одним запросом
+     * update. Задачи других пользователей не изменяются.
+     *
+     * @param ids идентификаторы задач
+     * @param userId идентификатор пользователя
+     * @return количество обновленных задач
+     */
+    @Override
+    public int completeTasks(Collection<Integer> ids, int userId) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return executor.write("TaskRepository.completeTasks", session -> session.createQuery(COMPLETE_TASKS)
+                .setParameterList("ids", ids)
+                .setParameter("userId", userId)
+                .executeUpdate());
+    }
+
+    /**
+     * Выполняет удаление задач пользователя в одной транзакции: сначала одним
+     * запросом удаляются связи задач с категориями, затем одним запросом задачи.
+     * Задачи других пользователей не удаляются. Для запроса удаления связей указана
+     * изменяемая таблица tasks_categories, иначе hibernate после запроса SQL очищает
+     * все регионы второго уровня кэша (приоритеты, категории, пользователи).
+     *
+     * @param ids идентификаторы задач
+     * @param userId идентификатор пользователя
+     * @return количество удаленных задач
+     */
+    @Override
+    public int deleteTasks(Collection<Integer> ids, int userId) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return executor.write("TaskRepository.deleteTasks",
+                session -> {
+                    session.createNativeQuery(DELETE_TASKS_CATEGORIES)
+                            .addSynchronizedQuerySpace("tasks_categories")
+                            .setParameterList("ids", ids)
+                            .setParameter("userId", userId)
+                            .executeUpdate();
+                    return session.createQuery(DELETE_TASKS)
+                            .setParameterList("ids", ids)
+                            .setParameter("userId", userId)
+                            .executeUpdate();
+                });
+    }
+
+    /**
+     * Выполняет изменение приоритета задач пользователя одним запросом update.
+     * Задачи других пользователей не изменяются.
+     *
+     * @param ids идентификаторы задач
+     * @param priority новый приоритет задач
+     * @param userId идентификатор пользователя
+     * @return количество обновленных задач
+     */
+    @Override
+    public int changePriority(Collection<Integer> ids, Priority priority, int userId) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return executor.write("TaskRepository.changePriority", session -> session.createQuery(CHANGE_TASKS_PRIORITY)
+                .setParameter("priority", priority)
+                .setParameterList("ids", ids)
+                .setParameter("userId", userId)
+                .executeUpdate());
+    }
+}
@@ -2,16 +2,14 @@ package ru.job4j.todo.repository;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.hibernate.Session;
-import org.hibernate.SessionFactory;
-import org.hibernate.Transaction;
-import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.Cache;
+import org.hibernate.CacheMode;
 import org.hibernate.query.Query;
 import org.springframework.stereotype.Repository;
 import ru.job4j.todo.model.User;
 
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Реализация хранилища пользователей
@@ -30,66 +28,108 @@ public class HibernateUserRepository implements UserRepository {
     private final static String FIND_USER_BY_LOGIN = "from User u where u.login = :login";
 
     /**
-     * Объект для выполнения подключения к базе данных приложения
+     * Регион кэша запросов поиска пользователя по логину
      */
-    private final SessionFactory sessionFactory;
+    public final static String USER_BY_LOGIN_REGION = "ru.job4j.todo.model.User.byLogin";
 
     /**
-     * Выполняет переданный метод оборачиваю в транзакцию
+     * Исполнитель операций с базой данных
+     */
+    private final SessionExecutor executor;
+
+    /**
+     * Выполняет операцию хранилища, возвращая Optional с результатом операции.
+     * При ошибке работы с базой данных, в том числе при повторяющемся логине,
+     * возвращается Optional.empty().
      *
-     * @param command выполняемый метод
-     * @return объект результат выполнения переданного метода
+     * @param call операция хранилища
+     * @return Optional.ofNullable() с результатом операции, Optional.empty() при ошибке
      */
-    private <T> Optional<T> execute(final Function<Session, T> command) {
-        final Session session = sessionFactory.openSession();
-        final Transaction transaction = session.beginTransaction();
+    private <T> Optional<T> optional(Supplier<T> call) {
         try {
-            T rsl = command.apply(session);
-            transaction.commit();
-            return Optional.ofNullable(rsl);
-        } catch (final ConstraintViolationException e) {
-            session.getTransaction().rollback();
-            log.info("Повторяющееся значение ключа нарушает ограничение уникальности todo_users_login_key", e);
+            return Optional.ofNullable(call.get());
+        } catch (final RepositoryException e) {
+            if (e.isConstraintViolation()) {
+                log.info("Повторяющееся значение ключа нарушает ограничение уникальности todo_users_login_key");
+            }
             return Optional.empty();
-        } catch (final Exception e) {
-            session.getTransaction().rollback();
-            log.info("Исключение при работе с методами UserRepository", e);
-            return Optional.empty();
-        } finally {
-            session.close();
         }
     }
 
     /**
-     * Выполняет поиск пользователя по логину.
+     * Выполняет поиск пользователя по логину. Результат запроса, в том числе
+     * пустой для неизвестного логина, хранится в регионе кэша запросов
+     * USER_BY_LOGIN_REGION и сбрасывается hibernate при любом изменении
+     * таблицы todo_users, сам пользователь загружается из второго уровня кэша.
+     * Кэш локален для экземпляра приложения, изменение пользователя на другом
+     * экземпляре видно после окончания времени жизни записей (ehcache.xml)
+     * или после удаления записей {@link HibernateUserRepository#evict(User)}.
      *
      * @param login логин (почтовый адрес)
      * @return Optional с найденным объектом user
      */
     @Override
     public Optional<User> findUserByLogin(String login) {
-        return this.execute(
+        return optional(() -> executor.read("UserRepository.findUserByLogin",
                 session -> {
                     Query<User> query = session.createQuery(FIND_USER_BY_LOGIN, User.class);
                     query.setParameter("login", login);
+                    query.setCacheable(true);
+                    query.setCacheRegion(USER_BY_LOGIN_REGION);
                     return query.uniqueResult();
-                });
+                }));
+    }
+
+    /**
+     * Выполняет поиск пользователя по логину в базе данных без второго уровня кэша
+     * (CacheMode.IGNORE): результат не читается из кэша и не записывается в него.
+     * Используется для повторной проверки пароля, не совпавшего с хешем из кэша:
+     * хеш пароля мог быть изменен на другом экземпляре приложения.
+     *
+     * @param login логин (почтовый адрес)
+     * @return Optional с найденным объектом user
+     */
+    @Override
+    public Optional<User> findFreshUserByLogin(String login) {
+        return optional(() -> executor.read("UserRepository.findFreshUserByLogin",
+                session -> session.createQuery(FIND_USER_BY_LOGIN, User.class)
+                        .setParameter("login", login)
+                        .setCacheMode(CacheMode.IGNORE)
+                        .uniqueResult()));
+    }
+
+    /**
+     * Удаляет пользователя из региона пользователей второго уровня кэша
+     * и все результаты поиска по логину из региона USER_BY_LOGIN_REGION:
+     * прежний логин измененного пользователя не должен находиться в кэше.
+     *
+     * @param user пользователь
+     */
+    @Override
+    public void evict(User user) {
+        Cache cache = executor.cache();
+        cache.evictEntityData(User.class, user.getId());
+        cache.evictQueryRegion(USER_BY_LOGIN_REGION);
     }
 
     /**
-     * Выполняет обновление пользователя.
+     * Выполняет обновление пользователя. После успешного обновления
+     * пользователь удаляется из кэша, поэтому измененные пароль и логин
+     * сразу читаются из базы данных.
      *
      * @param user пользователь
      * @return Optional с обновленным объектом user
      */
     @Override
     public Optional<User> update(User user) {
-        return this.execute(
+        Optional<User> rsl = optional(() -> executor.write("UserRepository.update",
                 session -> {
                     session.update(user);
                     return user;
                 }
-        );
+        ));
+        rsl.ifPresent(this::evict);
+        return rsl;
     }
 
     /**
@@ -101,11 +141,11 @@ public class HibernateUserRepository implements UserRepository {
      */
     @Override
     public Optional<User> add(User user) {
-        return this.execute(
+        return optional(() -> executor.write("UserRepository.add",
                 session -> {
                     session.save(user);
                     return user;
                 }
-        );
+        ));
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package ru.job4j.todo.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Repository;
+import ru.job4j.todo.model.UserSession;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Реализация хранилища сессий пользователей
+ * @see ru.job4j.todo.repository.UserSessionRepository
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Repository
+@AllArgsConstructor
+public class HibernateUserSessionRepository implements UserSessionRepository {
+
+    /**
+     * SQL запрос по выбору сессии вместе с пользователем по идентификатору сессии
+     */
+    private final static String FIND_SESSION_BY_ID = "from UserSession s join fetch s.user where s.id = :id";
+
+    /**
+     * SQL запрос по обновлению момента последнего обращения группы сессий
+     */
+    private final static String TOUCH_SESSIONS = "update UserSession s set s.lastAccess = :lastAccess "
+            + "where s.id in (:ids) and s.lastAccess < :lastAccess";
+
+    /**
+     * SQL запрос по удалению сессии по идентификатору
+     */
+    private final static String DELETE_SESSION_BY_ID = "delete from UserSession s where s.id = :id";
+
+    /**
+     * SQL запрос по удалению истекших сессий
+     */
+    private final static String DELETE_EXPIRED_SESSIONS = "delete from UserSession s where s.lastAccess < :cutoff";
+
+    /**
+     * Исполнитель операций с базой данных
+     */
+    private final SessionExecutor executor;
+
+    /**
+     * Выполняет добавление сессии.
+     *
+     * @param userSession сессия
+     * @return Optional с сохраненной сессией, Optional.empty() при ошибке
+     */
+    @Override
+    public Optional<UserSession> add(UserSession userSession) {
+        try {
+            return Optional.of(executor.write("UserSessionRepository.add",
+                    session -> {
+                        session.save(userSession);
+                        return userSession;
+                    }));
+        } catch (RepositoryException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Выполняет поиск сессии по идентификатору вместе с пользователем сессии.
+     *
+     * @param id идентификатор сессии
+     * @return Optional с найденной сессией
+     */
+    @Override
+    public Optional<UserSession> findById(String id) {
+        return executor.read("UserSessionRepository.findById",
+                session -> session.createQuery(FIND_SESSION_BY_ID, UserSession.class)
+                        .setParameter("id", id)
+                        .uniqueResultOptional());
+    }
+
+    /**
+     * Выполняет обновление момента последнего обращения группы сессий одним запросом.
+     * Момент обращения не уменьшается, если другой экземпляр приложения уже записал
+     * более позднее обращение.
+     *
+     * @param ids идентификаторы сессий
+     * @param lastAccess момент последнего обращения
+     * @return количество обновленных сессий
+     */
+    @Override
+    public int touch(Collection<String> ids, Instant lastAccess) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return executor.write("UserSessionRepository.touch",
+                session -> session.createQuery(TOUCH_SESSIONS)
+                        .setParameter("lastAccess", lastAccess)
+                        .setParameterList("ids", ids)
+                        .executeUpdate());
+    }
+
+    /**
+     * Выполняет удаление сессии по идентификатору.
+     *
+     * @param id идентификатор сессии
+     * @return true, если сессия удалена
+     */
+    @Override
+    public boolean deleteById(String id) {
+        return executor.write("UserSessionRepository.deleteById",
+                session -> session.createQuery(DELETE_SESSION_BY_ID)
+                        .setParameter("id", id)
+                        .executeUpdate() > 0);
+    }
+
+    /**
+     * Выполняет удаление сессий, последнее обращение к которым было раньше заданного момента.
+     *
+     * @param cutoff момент, раньше которого сессии считаются истекшими
+     * @return количество удаленных сессий
+     */
+    @Override
+    public int deleteExpired(Instant cutoff) {
+        return executor.write("UserSessionRepository.deleteExpired",
+                session -> session.createQuery(DELETE_EXPIRED_SESSIONS)
+                        .setParameter("cutoff", cutoff)
+                        .executeUpdate());
+    }
+}
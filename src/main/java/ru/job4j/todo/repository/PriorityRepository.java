@@ -2,6 +2,7 @@ package ru.job4j.todo.repository;
 
 import ru.job4j.todo.model.Priority;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,6 +13,13 @@ import java.util.Optional;
  */
 public interface PriorityRepository {
 
+    /**
+     * Выполняет возврат всех приоритетов из базы данных в порядке позиции.
+     *
+     * @return список приоритетов
+     */
+    List<Priority> findAllPriorities();
+
     /**
      * Выполняет поиск приоритета по идентификатору. Возвращает Optional
      * с объектом приоритета. Возвращаемый Optional может содержать null,
@@ -0,0 +1,27 @@
+package ru.job4j.todo.repository;
+
+/**
+ * Обработчик завершения операции хранилища, получает время выполнения
+ * каждой операции для журналирования или сбора метрик
+ * @see ru.job4j.todo.repository.SessionExecutor
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface RepositoryCallListener {
+
+    /**
+     * Обработчик, не выполняющий никаких действий
+     */
+    RepositoryCallListener NONE = (operation, readOnly, elapsedNanos, failure) -> { };
+
+    /**
+     * Вызывается после завершения операции хранилища.
+     *
+     * @param operation имя операции, например TaskRepository.findTaskById
+     * @param readOnly признак операции только для чтения
+     * @param elapsedNanos время выполнения операции в наносекундах
+     * @param failure исключение операции, null при успешном выполнении
+     */
+    void onCall(String operation, boolean readOnly, long elapsedNanos, Throwable failure);
+}
@@ -0,0 +1,65 @@
+package ru.job4j.todo.repository;
+
+/**
+ * Исключение хранилища, в которое преобразуются исключения hibernate
+ * и JPA при выполнении операций с базой данных
+ * @see ru.job4j.todo.repository.SessionExecutor
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public class RepositoryException extends RuntimeException {
+
+    /**
+     * Признак нарушения ограничения целостности (уникальность, внешний ключ, not null)
+     */
+    private final boolean constraintViolation;
+
+    /**
+     * Признак изменения или удаления записи другой транзакцией после ее чтения
+     * (не совпала версия при обновлении)
+     */
+    private final boolean staleState;
+
+    /**
+     * Создает исключение хранилища.
+     *
+     * @param message описание ошибки
+     * @param cause исходное исключение
+     * @param constraintViolation признак нарушения ограничения целостности
+     */
+    public RepositoryException(String message, Throwable cause, boolean constraintViolation) {
+        this(message, cause, constraintViolation, false);
+    }
+
+    /**
+     * Создает исключение хранилища.
+     *
+     * @param message описание ошибки
+     * @param cause исходное исключение
+     * @param constraintViolation признак нарушения ограничения целостности
+     * @param staleState признак изменения записи другой транзакцией
+     */
+    public RepositoryException(String message, Throwable cause, boolean constraintViolation, boolean staleState) {
+        super(message, cause);
+        this.constraintViolation = constraintViolation;
+        this.staleState = staleState;
+    }
+
+    /**
+     * Возвращает признак нарушения ограничения целостности.
+     *
+     * @return true, если операция нарушила ограничение целостности
+     */
+    public boolean isConstraintViolation() {
+        return constraintViolation;
+    }
+
+    /**
+     * Возвращает признак изменения или удаления записи другой транзакцией.
+     *
+     * @return true, если версия записи при обновлении не совпала
+     */
+    public boolean isStaleState() {
+        return staleState;
+    }
+}
@@ -0,0 +1,253 @@
+package ru.job4j.todo.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StaleStateException;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.hibernate5.SessionHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Общий для всех хранилищ исполнитель операций с базой данных. Если операция
+ * вызвана внутри транзакции Spring (методы сервисов с аннотацией Transactional),
+ * она выполняется в сессии этой транзакции, иначе в отдельной сессии и транзакции.
+ * Операции чтения в отдельной сессии выполняются в сессии только для чтения:
+ * сущности загружаются без снимков состояния, сброс изменений в базу данных
+ * отключен (FlushMode.MANUAL), соединению передается признак только для чтения.
+ * Исключения hibernate и JPA преобразуются
+ * в {@link RepositoryException}, время выполнения каждой операции передается
+ * обработчику {@link RepositoryCallListener}.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class SessionExecutor {
+
+    /**
+     * Объект для выполнения подключения к базе данных приложения
+     */
+    private final SessionFactory sessionFactory;
+
+    /**
+     * Обработчик завершения операций
+     */
+    private final RepositoryCallListener listener;
+
+    /**
+     * Создает исполнитель операций.
+     *
+     * @param sessionFactory фабрика сессий
+     * @param listener обработчик завершения операций
+     */
+    @Autowired
+    public SessionExecutor(SessionFactory sessionFactory, RepositoryCallListener listener) {
+        this.sessionFactory = sessionFactory;
+        this.listener = listener;
+    }
+
+    /**
+     * Создает исполнитель операций без обработчика завершения операций.
+     *
+     * @param sessionFactory фабрика сессий
+     */
+    public SessionExecutor(SessionFactory sessionFactory) {
+        this(sessionFactory, RepositoryCallListener.NONE);
+    }
+
+    /**
+     * Выполняет операцию чтения в сессии только для чтения.
+     *
+     * @param operation имя операции
+     * @param command выполняемый метод
+     * @return объект результат выполнения переданного метода
+     * @exception RepositoryException при ошибке работы с базой данных
+     */
+    public <T> T read(String operation, Function<Session, T> command) {
+        return call(operation, true, () -> inSession(true, command));
+    }
+
+    /**
+     * Выполняет операцию изменения данных в транзакции.
+     *
+     * @param operation имя операции
+     * @param command выполняемый метод
+     * @return объект результат выполнения переданного метода
+     * @exception RepositoryException при ошибке работы с базой данных
+     */
+    public <T> T write(String operation, Function<Session, T> command) {
+        return call(operation, false, () -> inSession(false, command));
+    }
+
+    /**
+     * Выполняет операцию в сессии без состояния в транзакции. Сессия без состояния
+     * не хранит загруженные и сохраненные объекты, поэтому потребление памяти
+     * не зависит от количества обработанных объектов. Операция всегда выполняется
+     * в отдельной транзакции и не участвует в транзакции Spring.
+     *
+     * @param operation имя операции
+     * @param command выполняемый метод
+     * @return объект результат выполнения переданного метода
+     * @exception RepositoryException при ошибке работы с базой данных
+     */
+    public <T> T stateless(String operation, Function<StatelessSession, T> command) {
+        return call(operation, false, () -> {
+            final StatelessSession session = sessionFactory.openStatelessSession();
+            try {
+                final Transaction transaction = session.beginTransaction();
+                try {
+                    T rsl = command.apply(session);
+                    transaction.commit();
+                    return rsl;
+                } catch (final RuntimeException e) {
+                    rollback(transaction);
+                    throw e;
+                }
+            } finally {
+                session.close();
+            }
+        });
+    }
+
+    /**
+     * Возвращает второй уровень кэша фабрики сессий для удаления записей.
+     * При выключенном втором уровне кэша удаление записей ничего не делает.
+     *
+     * @return второй уровень кэша
+     */
+    public Cache cache() {
+        return sessionFactory.getCache();
+    }
+
+    /**
+     * Выполняет переданный метод в сессии, оборачивая в транзакцию.
+     * Признак только для чтения передается соединению после начала транзакции,
+     * пул соединений HikariCP восстанавливает его при возврате соединения в пул.
+     * При наличии транзакции Spring метод выполняется в ее сессии, после операции
+     * изменения данных выполняется сброс изменений, чтобы ошибки ограничений
+     * базы данных возникали в вызвавшем операцию хранилище, а не при фиксации транзакции.
+     * При ошибке транзакция Spring помечается для отката.
+     *
+     * @param readOnly признак сессии только для чтения
+     * @param command выполняемый метод
+     * @return объект результат выполнения переданного метода
+     */
+    private <T> T inSession(boolean readOnly, Function<Session, T> command) {
+        final SessionHolder holder = transactionSessionHolder();
+        if (holder != null) {
+            try {
+                final Session session = holder.getSession();
+                T rsl = command.apply(session);
+                if (!readOnly && session.getHibernateFlushMode() != FlushMode.MANUAL) {
+                    session.flush();
+                }
+                return rsl;
+            } catch (final RuntimeException e) {
+                holder.setRollbackOnly();
+                throw e;
+            }
+        }
+        final Session session = sessionFactory.openSession();
+        try {
+            if (readOnly) {
+                session.setDefaultReadOnly(true);
+                session.setHibernateFlushMode(FlushMode.MANUAL);
+            }
+            final Transaction transaction = session.beginTransaction();
+            try {
+                if (readOnly) {
+                    session.doWork(connection -> connection.setReadOnly(true));
+                }
+                T rsl = command.apply(session);
+                transaction.commit();
+                return rsl;
+            } catch (final RuntimeException e) {
+                rollback(transaction);
+                throw e;
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Возвращает сессию текущей транзакции Spring, открытую менеджером транзакций
+     * HibernateTransactionManager для этой фабрики сессий.
+     *
+     * @return сессия транзакции или null, если транзакции нет
+     */
+    private SessionHolder transactionSessionHolder() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        return (SessionHolder) TransactionSynchronizationManager.getResource(sessionFactory);
+    }
+
+    /**
+     * Выполняет откат транзакции, если он возможен.
+     *
+     * @param transaction транзакция
+     */
+    private void rollback(Transaction transaction) {
+        if (transaction.getStatus().canRollback()) {
+            transaction.rollback();
+        }
+    }
+
+    /**
+     * Выполняет операцию с замером времени выполнения и преобразованием исключений.
+     *
+     * @param operation имя операции
+     * @param readOnly признак операции только для чтения
+     * @param call выполняемая операция
+     * @return результат операции
+     */
+    private <T> T call(String operation, boolean readOnly, Supplier<T> call) {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return call.get();
+        } catch (final RuntimeException e) {
+            failure = e;
+            log.info("Исключение при выполнении операции {}", operation, e);
+            throw translate(operation, e);
+        } finally {
+            listener.onCall(operation, readOnly, System.nanoTime() - start, failure);
+        }
+    }
+
+    /**
+     * Выполняет преобразование исключений hibernate и JPA (PersistenceException) в исключение хранилища
+     * с признаками нарушения ограничения целостности и несовпадения версии записи,
+     * остальные исключения возвращаются без изменений.
+     *
+     * @param operation имя операции
+     * @param e исключение операции
+     * @return исключение для выброса
+     */
+    private RuntimeException translate(String operation, RuntimeException e) {
+        if (!(e instanceof PersistenceException)) {
+            return e;
+        }
+        boolean constraintViolation = false;
+        boolean staleState = false;
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            constraintViolation |= cause instanceof ConstraintViolationException;
+            staleState |= cause instanceof StaleStateException || cause instanceof OptimisticLockException;
+        }
+        return new RepositoryException(
+                String.format("Ошибка выполнения операции %s", operation), e, constraintViolation, staleState);
+    }
+}
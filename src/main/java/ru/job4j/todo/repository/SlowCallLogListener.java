@@ -0,0 +1,52 @@
+package ru.job4j.todo.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обработчик завершения операций хранилища, журналирующий время выполнения
+ * операций: медленные операции на уровне WARN, остальные на уровне DEBUG
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class SlowCallLogListener implements RepositoryCallListener {
+
+    /**
+     * Время выполнения операции в миллисекундах, начиная с которого операция считается медленной
+     */
+    private final long slowCallMillis;
+
+    /**
+     * Создает обработчик с порогом медленной операции из свойства todo.repository.slow-call-ms.
+     *
+     * @param slowCallMillis порог медленной операции в миллисекундах
+     */
+    public SlowCallLogListener(@Value("${todo.repository.slow-call-ms:500}") long slowCallMillis) {
+        this.slowCallMillis = slowCallMillis;
+    }
+
+    /**
+     * Журналирует время выполнения операции хранилища.
+     *
+     * @param operation имя операции
+     * @param readOnly признак операции только для чтения
+     * @param elapsedNanos время выполнения операции в наносекундах
+     * @param failure исключение операции, null при успешном выполнении
+     */
+    @Override
+    public void onCall(String operation, boolean readOnly, long elapsedNanos, Throwable failure) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (millis >= slowCallMillis) {
+            log.warn("Медленная операция хранилища {}: {} мс, только чтение: {}, ошибка: {}",
+                    operation, millis, readOnly, failure != null);
+        } else if (log.isDebugEnabled()) {
+            log.debug("Операция хранилища {}: {} мс, только чтение: {}, ошибка: {}",
+                    operation, millis, readOnly, failure != null);
+        }
+    }
+}
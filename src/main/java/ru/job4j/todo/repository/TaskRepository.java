@@ -1,9 +1,16 @@
 package ru.job4j.todo.repository;
 
+import ru.job4j.todo.dto.TaskExportRow;
+import ru.job4j.todo.dto.TaskListView;
+import ru.job4j.todo.dto.TaskNameRow;
+import ru.job4j.todo.dto.TaskSearchResult;
+import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.model.Task;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Хранилище задач
@@ -34,6 +41,51 @@ public interface TaskRepository {
      */
     List<Task> findDoneTasks();
 
+    /**
+     * Возвращает список задач пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @param done статус задач, null - задачи с любым статусом
+     * @return список задач пользователя
+     */
+    List<Task> findTasksByUser(int userId, Boolean done);
+
+    /**
+     * Возвращает страницу представлений задач пользователя с идентификатором больше
+     * курсора, упорядоченную по возрастанию идентификатора.
+     *
+     * @param userId идентификатор пользователя
+     * @param done статус задач, null - задачи с любым статусом
+     * @param afterId курсор, идентификатор последней задачи предыдущей страницы
+     * @param limit максимальное количество задач
+     * @return список представлений задач
+     */
+    List<TaskListView> findTasksAfter(int userId, Boolean done, int afterId, int limit);
+
+    /**
+     * Возвращает страницу представлений задач пользователя с идентификатором меньше
+     * курсора, упорядоченную по возрастанию идентификатора.
+     *
+     * @param userId идентификатор пользователя
+     * @param done статус задач, null - задачи с любым статусом
+     * @param beforeId курсор, идентификатор первой задачи следующей страницы
+     * @param limit максимальное количество задач
+     * @return список представлений задач
+     */
+    List<TaskListView> findTasksBefore(int userId, Boolean done, int beforeId, int limit);
+
+    /**
+     * Выполняет полнотекстовый поиск задач пользователя по наименованию и описанию.
+     * Результаты упорядочены по убыванию релевантности.
+     *
+     * @param userId идентификатор пользователя
+     * @param text поисковый запрос
+     * @param offset количество пропускаемых результатов
+     * @param limit максимальное количество результатов
+     * @return список результатов поиска
+     */
+    List<TaskSearchResult> searchTasks(int userId, String text, int offset, int limit);
+
     /**
      * Выполняет поиск задачи по идентификатору. Возвращает Optional
      * с объектом задачи. Возвращаемый Optional может содержать null,
@@ -52,6 +104,17 @@ public interface TaskRepository {
      */
     Optional<Task> update(Task task);
 
+    /**
+     * Выполняет установку статуса задачи в выполнено одним запросом update
+     * без загрузки и полного обновления задачи. Возвращает задачу для
+     * отображения на странице с подробной информацией о задаче.
+     *
+     * @param id идентификатор задачи
+     * @return Optional.ofNullable() с обновленным объектом task, Optional.empty(),
+     * если задача не найдена
+     */
+    Optional<Task> markDone(int id);
+
     /**
      * Выполняет добавление задачи. Возвращает
      * задачу с проинициализированным идентификатором.
@@ -61,10 +124,66 @@ public interface TaskRepository {
      */
     Optional<Task> add(Task task);
 
+    /**
+     * Выполняет добавление списка задач вместе со связями задач с категориями
+     * в одной транзакции без загрузки задач в контекст сессии.
+     *
+     * @param tasks добавляемые задачи
+     * @return количество добавленных задач
+     */
+    int addAll(List<Task> tasks);
+
+    /**
+     * Выполняет выгрузку задач пользователя, передавая строки выгрузки
+     * обработчику по одной без загрузки всего списка в память.
+     *
+     * @param userId идентификатор пользователя
+     * @param consumer обработчик строк выгрузки
+     * @return количество выгруженных задач
+     */
+    int exportTasksByUser(int userId, Consumer<TaskExportRow> consumer);
+
+    /**
+     * Передает обработчику наименования задач всех пользователей по одной
+     * без загрузки всего списка в память.
+     *
+     * @param consumer обработчик строк наименований задач
+     * @return количество переданных задач
+     */
+    int scanTaskNames(Consumer<TaskNameRow> consumer);
+
     /**
      * Выполняет удаление задачи по идентификатору.
      *
      * @param id идентификатор задачи
      */
     void deleteTaskById(int id);
+
+    /**
+     * Выполняет установку статуса выполнено задачам пользователя одним запросом.
+     *
+     * @param ids идентификаторы задач
+     * @param userId идентификатор пользователя
+     * @return количество обновленных задач
+     */
+    int completeTasks(Collection<Integer> ids, int userId);
+
+    /**
+     * Выполняет удаление задач пользователя вместе со связями задач с категориями.
+     *
+     * @param ids идентификаторы задач
+     * @param userId идентификатор пользователя
+     * @return количество удаленных задач
+     */
+    int deleteTasks(Collection<Integer> ids, int userId);
+
+    /**
+     * Выполняет изменение приоритета задач пользователя одним запросом.
+     *
+     * @param ids идентификаторы задач
+     * @param priority новый приоритет задач
+     * @param userId идентификатор пользователя
+     * @return количество обновленных задач
+     */
+    int changePriority(Collection<Integer> ids, Priority priority, int userId);
 }
@@ -0,0 +1,250 @@
+package ru.job4j.todo.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.job4j.todo.model.User;
+
+import javax.cache.Cache;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Показатели кэша пользователей во втором уровне кэша hibernate:
+ * регион пользователей по идентификатору и регион запросов поиска по логину.
+ * Попадания и промахи берутся из статистики hibernate, количество записей
+ * вычисляется обходом кэшей JCache. Память оценивается без сериализации:
+ * по размерам полей графа объектов первых SAMPLE_ENTRIES записей региона,
+ * средний размер записи умножается на количество записей.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class UserCacheMonitor {
+
+    /**
+     * Регион кэша пользователей по идентификатору
+     */
+    private static final String USER_REGION = User.class.getName();
+
+    /**
+     * Количество записей региона, по которым оценивается средний размер записи
+     */
+    private static final int SAMPLE_ENTRIES = 100;
+
+    /**
+     * Наибольшая глубина обхода графа объектов записи
+     */
+    private static final int MAX_DEPTH = 8;
+
+    /**
+     * Размер заголовка объекта в байтах
+     */
+    private static final int OBJECT_HEADER = 12;
+
+    /**
+     * Размер заголовка массива в байтах
+     */
+    private static final int ARRAY_HEADER = 16;
+
+    /**
+     * Размер ссылки в байтах
+     */
+    private static final int REFERENCE = 4;
+
+    /**
+     * Фабрика сессий
+     */
+    private final SessionFactoryImplementor sf;
+
+    /**
+     * Создает объект показателей кэша пользователей.
+     *
+     * @param sf фабрика сессий
+     */
+    public UserCacheMonitor(SessionFactory sf) {
+        this.sf = sf.unwrap(SessionFactoryImplementor.class);
+    }
+
+    /**
+     * Возвращает показатели кэша пользователей. При выключенном втором уровне
+     * кэша все показатели равны нулю, попадания и промахи равны нулю
+     * при выключенной статистике hibernate.
+     *
+     * @return показатели кэша пользователей
+     */
+    public UserCacheStats stats() {
+        if (!sf.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return new UserCacheStats(0, 0, 0, 0, 0, 0, 0);
+        }
+        Statistics statistics = sf.getStatistics();
+        CacheRegionStatistics login = statistics.getQueryRegionStatistics(HibernateUserRepository.USER_BY_LOGIN_REGION);
+        CacheRegionStatistics entity = statistics.getDomainDataRegionStatistics(USER_REGION);
+        long[] loginSize = size(HibernateUserRepository.USER_BY_LOGIN_REGION);
+        long[] entitySize = size(USER_REGION);
+        return new UserCacheStats(
+                login == null ? 0 : login.getHitCount(),
+                login == null ? 0 : login.getMissCount(),
+                entity == null ? 0 : entity.getHitCount(),
+                entity == null ? 0 : entity.getMissCount(),
+                loginSize[0], entitySize[0], loginSize[1] + entitySize[1]);
+    }
+
+    /**
+     * Журналирует показатели кэша пользователей.
+     */
+    @Scheduled(fixedDelayString = "${todo.user-cache.report-interval:PT5M}")
+    public void report() {
+        UserCacheStats stats = stats();
+        log.info("Кэш пользователей: попадания по логину {}%, по идентификатору {}%, записей {} и {}, около {} КБ",
+                Math.round(stats.getLoginHitRatio() * 100), Math.round(stats.getEntityHitRatio() * 100),
+                stats.getLoginEntries(), stats.getEntityEntries(), stats.getEstimatedBytes() / 1024);
+    }
+
+    /**
+     * Вычисляет количество записей региона обходом кэша и оценку занимаемой
+     * ими памяти по среднему размеру первых SAMPLE_ENTRIES записей.
+     * Объекты, общие для нескольких записей выборки, учитываются один раз.
+     *
+     * @param region имя региона
+     * @return количество записей и оценка памяти в байтах
+     */
+    private long[] size(String region) {
+        RegionFactory factory = sf.getCache().getRegionFactory();
+        if (!(factory instanceof JCacheRegionFactory)) {
+            return new long[2];
+        }
+        Cache<Object, Object> cache = ((JCacheRegionFactory) factory).getCacheManager().getCache(region);
+        long entries = 0;
+        long sampleBytes = 0;
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (cache != null) {
+            for (Cache.Entry<Object, Object> entry : cache) {
+                if (entries < SAMPLE_ENTRIES) {
+                    sampleBytes += sizeOf(entry.getKey(), seen, 0) + sizeOf(entry.getValue(), seen, 0);
+                }
+                entries++;
+            }
+        }
+        long sampled = Math.min(entries, SAMPLE_ENTRIES);
+        return new long[] {entries, sampled == 0 ? 0 : sampleBytes * entries / sampled};
+    }
+
+    /**
+     * Оценивает размер графа объектов по размерам полей. Строки, массивы,
+     * коллекции и словари оцениваются по содержимому, остальные объекты
+     * стандартной библиотеки - по заголовку, объекты приложения и hibernate -
+     * по полям, доступным через отражение. Уже учтенные объекты и объекты
+     * глубже MAX_DEPTH не учитываются.
+     *
+     * @param value объект
+     * @param seen уже учтенные объекты
+     * @param depth глубина объекта в графе
+     * @return оценка размера в байтах
+     */
+    private static long sizeOf(Object value, Set<Object> seen, int depth) {
+        if (value == null || depth > MAX_DEPTH || !seen.add(value)) {
+            return 0;
+        }
+        Class<?> type = value.getClass();
+        if (value instanceof String) {
+            return align(OBJECT_HEADER + 2 * REFERENCE) + align(ARRAY_HEADER + ((String) value).length());
+        }
+        if (type.isArray()) {
+            int length = Array.getLength(value);
+            Class<?> component = type.getComponentType();
+            if (component.isPrimitive()) {
+                return align(ARRAY_HEADER + (long) length * primitiveSize(component));
+            }
+            long size = align(ARRAY_HEADER + (long) length * REFERENCE);
+            for (int i = 0; i < length; i++) {
+                size += sizeOf(Array.get(value, i), seen, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            long size = align(OBJECT_HEADER + 2 * REFERENCE) + align(ARRAY_HEADER + (long) collection.size() * REFERENCE);
+            for (Object element : collection) {
+                size += sizeOf(element, seen, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            long size = align(OBJECT_HEADER + 4 * REFERENCE) + align(ARRAY_HEADER + (long) map.size() * REFERENCE)
+                    + (long) map.size() * align(OBJECT_HEADER + 4 * REFERENCE);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += sizeOf(entry.getKey(), seen, depth + 1) + sizeOf(entry.getValue(), seen, depth + 1);
+            }
+            return size;
+        }
+        if (type.getName().startsWith("java.")) {
+            return align(OBJECT_HEADER + Long.BYTES);
+        }
+        long shallow = OBJECT_HEADER;
+        long nested = 0;
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                if (field.getType().isPrimitive()) {
+                    shallow += primitiveSize(field.getType());
+                    continue;
+                }
+                shallow += REFERENCE;
+                if (field.trySetAccessible()) {
+                    try {
+                        nested += sizeOf(field.get(value), seen, depth + 1);
+                    } catch (IllegalAccessException e) {
+                        log.debug("Поле {} не учтено в оценке памяти кэша", field);
+                    }
+                }
+            }
+        }
+        return align(shallow) + nested;
+    }
+
+    /**
+     * Возвращает размер значения примитивного типа.
+     *
+     * @param type примитивный тип
+     * @return размер в байтах
+     */
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return Long.BYTES;
+        }
+        if (type == int.class || type == float.class) {
+            return Integer.BYTES;
+        }
+        if (type == short.class || type == char.class) {
+            return Short.BYTES;
+        }
+        return Byte.BYTES;
+    }
+
+    /**
+     * Выравнивает размер объекта по 8 байт.
+     *
+     * @param size размер в байтах
+     * @return выровненный размер
+     */
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,81 @@
+package ru.job4j.todo.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Показатели кэша пользователей: попадания и промахи поиска по логину
+ * и загрузки по идентификатору, количество записей и оценка занимаемой ими памяти.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class UserCacheStats {
+
+    /**
+     * Количество попаданий поиска по логину, в том числе неизвестных логинов
+     */
+    private final long loginHits;
+
+    /**
+     * Количество промахов поиска по логину
+     */
+    private final long loginMisses;
+
+    /**
+     * Количество попаданий загрузки пользователя по идентификатору
+     */
+    private final long entityHits;
+
+    /**
+     * Количество промахов загрузки пользователя по идентификатору
+     */
+    private final long entityMisses;
+
+    /**
+     * Количество записей поиска по логину
+     */
+    private final long loginEntries;
+
+    /**
+     * Количество записей пользователей
+     */
+    private final long entityEntries;
+
+    /**
+     * Оценка памяти записей обоих регионов в байтах
+     */
+    private final long estimatedBytes;
+
+    /**
+     * Возвращает долю попаданий поиска по логину.
+     *
+     * @return доля попаданий от 0 до 1, 0 если поиска не было
+     */
+    public double getLoginHitRatio() {
+        return ratio(loginHits, loginMisses);
+    }
+
+    /**
+     * Возвращает долю попаданий загрузки пользователя по идентификатору.
+     *
+     * @return доля попаданий от 0 до 1, 0 если загрузки не было
+     */
+    public double getEntityHitRatio() {
+        return ratio(entityHits, entityMisses);
+    }
+
+    /**
+     * Вычисляет долю попаданий.
+     *
+     * @param hits количество попаданий
+     * @param misses количество промахов
+     * @return доля попаданий
+     */
+    private static double ratio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+}
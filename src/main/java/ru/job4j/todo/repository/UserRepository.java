@@ -13,13 +13,28 @@ import java.util.Optional;
 public interface UserRepository {
 
     /**
-     * Выполняет поиск пользователя по логину.
+     * Выполняет поиск пользователя по логину с использованием кэша.
      *
      * @param login логин (почтовый адрес)
      * @return Optional с найденным объектом user
      */
     Optional<User> findUserByLogin(String login);
 
+    /**
+     * Выполняет поиск пользователя по логину в базе данных без использования кэша.
+     *
+     * @param login логин (почтовый адрес)
+     * @return Optional с найденным объектом user
+     */
+    Optional<User> findFreshUserByLogin(String login);
+
+    /**
+     * Удаляет пользователя и результаты поиска по логину из кэша.
+     *
+     * @param user пользователь
+     */
+    void evict(User user);
+
     /**
      * Выполняет обновление пользователя
      *
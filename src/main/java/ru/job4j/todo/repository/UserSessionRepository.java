@@ -0,0 +1,56 @@
+package ru.job4j.todo.repository;
+
+import ru.job4j.todo.model.UserSession;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Хранилище сессий пользователей
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public interface UserSessionRepository {
+
+    /**
+     * Выполняет добавление сессии.
+     *
+     * @param userSession сессия
+     * @return Optional с сохраненной сессией, Optional.empty() при ошибке
+     */
+    Optional<UserSession> add(UserSession userSession);
+
+    /**
+     * Выполняет поиск сессии по идентификатору вместе с пользователем сессии.
+     *
+     * @param id идентификатор сессии
+     * @return Optional с найденной сессией
+     */
+    Optional<UserSession> findById(String id);
+
+    /**
+     * Выполняет обновление момента последнего обращения группы сессий одним запросом.
+     *
+     * @param ids идентификаторы сессий
+     * @param lastAccess момент последнего обращения
+     * @return количество обновленных сессий
+     */
+    int touch(Collection<String> ids, Instant lastAccess);
+
+    /**
+     * Выполняет удаление сессии по идентификатору.
+     *
+     * @param id идентификатор сессии
+     * @return true, если сессия удалена
+     */
+    boolean deleteById(String id);
+
+    /**
+     * Выполняет удаление сессий, последнее обращение к которым было раньше заданного момента.
+     *
+     * @param cutoff момент, раньше которого сессии считаются истекшими
+     * @return количество удаленных сессий
+     */
+    int deleteExpired(Instant cutoff);
+}
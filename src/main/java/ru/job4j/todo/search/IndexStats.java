@@ -0,0 +1,46 @@
+package ru.job4j.todo.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Показатели индекса наименований задач: количество задач, триграмм,
+ * вхождений и оценка занимаемой индексом памяти.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class IndexStats {
+
+    /**
+     * Количество проиндексированных задач
+     */
+    private final int tasks;
+
+    /**
+     * Количество различных триграмм по всем пользователям
+     */
+    private final long trigrams;
+
+    /**
+     * Количество вхождений задач в списки триграмм
+     */
+    private final long postings;
+
+    /**
+     * Оценка памяти, занимаемой индексом, в байтах
+     */
+    private final long estimatedBytes;
+
+    /**
+     * Возвращает оценку памяти, занимаемой индексом, в расчете на одну задачу.
+     *
+     * @return количество байт на задачу, 0 если индекс пустой
+     */
+    public long getBytesPerTask() {
+        return tasks == 0 ? 0 : estimatedBytes / tasks;
+    }
+}
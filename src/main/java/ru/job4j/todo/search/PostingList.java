@@ -0,0 +1,99 @@
+package ru.job4j.todo.search;
+
+import java.util.Arrays;
+
+/**
+ * Список вхождений индекса: упорядоченный по возрастанию массив
+ * идентификаторов задач без упаковки в объекты Integer.
+ * Идентификаторы новых задач возрастают, поэтому добавление обычно
+ * выполняется в конец массива без сдвига элементов.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+final class PostingList {
+
+    /**
+     * Начальная емкость массива идентификаторов
+     */
+    private static final int INITIAL_CAPACITY = 2;
+
+    /**
+     * Идентификаторы задач по возрастанию
+     */
+    private int[] ids = new int[INITIAL_CAPACITY];
+
+    /**
+     * Количество идентификаторов в списке
+     */
+    private int size;
+
+    /**
+     * Добавляет идентификатор в список, если его еще нет.
+     *
+     * @param id идентификатор задачи
+     */
+    void add(int id) {
+        int index = size > 0 && ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return;
+        }
+        index = -index - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ids[index] = id;
+        size++;
+    }
+
+    /**
+     * Удаляет идентификатор из списка.
+     *
+     * @param id идентификатор задачи
+     */
+    void remove(int id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Проверяет наличие идентификатора в списке двоичным поиском.
+     *
+     * @param id идентификатор задачи
+     * @return true, если идентификатор есть в списке
+     */
+    boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Возвращает идентификатор по позиции в списке.
+     *
+     * @param index позиция
+     * @return идентификатор задачи
+     */
+    int get(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Возвращает количество идентификаторов в списке.
+     *
+     * @return количество идентификаторов
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает емкость массива идентификаторов для оценки занимаемой памяти.
+     *
+     * @return емкость массива
+     */
+    int capacity() {
+        return ids.length;
+    }
+}
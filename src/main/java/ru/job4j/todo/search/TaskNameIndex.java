@@ -0,0 +1,446 @@
+package ru.job4j.todo.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.job4j.todo.dto.TaskSuggestion;
+import ru.job4j.todo.model.Task;
+import ru.job4j.todo.repository.TaskRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс наименований задач в памяти приложения для подсказок при вводе.
+ * Для каждого пользователя хранится обратный индекс: каждой триграмме
+ * (трем подряд идущим символам наименования в нижнем регистре) соответствует
+ * упорядоченный список идентификаторов задач {@link PostingList}.
+ * Поиск пересекает списки триграмм запроса, начиная с самого короткого,
+ * и проверяет вхождение запроса в наименование, обращений к базе данных нет.
+ * Индекс загружается из хранилища при запуске приложения и изменяется сервисами
+ * при сохранении и удалении задач; внутри транзакции изменение применяется
+ * после ее фиксации.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class TaskNameIndex {
+
+    /**
+     * Длина n-граммы индекса
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Оценка памяти списка вхождений без массива идентификаторов, байт
+     */
+    private static final int POSTING_LIST_BYTES = 32;
+
+    /**
+     * Оценка памяти записи триграммы в таблице пользователя, байт
+     */
+    private static final int GRAM_ENTRY_BYTES = 56;
+
+    /**
+     * Оценка памяти записи наименования задачи без символов наименования, байт
+     */
+    private static final int NAME_ENTRY_BYTES = 88;
+
+    /**
+     * Оценка памяти записи владельца задачи, байт
+     */
+    private static final int OWNER_ENTRY_BYTES = 64;
+
+    /**
+     * Объект для доступа к методам TaskRepository
+     */
+    private final TaskRepository taskRepository;
+
+    /**
+     * Индексы задач по идентификаторам пользователей
+     */
+    private final Map<Integer, UserIndex> users = new ConcurrentHashMap<>();
+
+    /**
+     * Идентификаторы пользователей по идентификаторам задач
+     */
+    private final Map<Integer, Integer> owners = new ConcurrentHashMap<>();
+
+    /**
+     * Создает индекс наименований задач.
+     *
+     * @param taskRepository хранилище задач
+     */
+    public TaskNameIndex(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Выполняет загрузку наименований всех задач из хранилища после запуска приложения.
+     * При ошибке загрузки приложение продолжает работу, индекс заполняется
+     * по мере сохранения задач.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        try {
+            taskRepository.scanTaskNames(row -> apply(row.getUserId(), row.getId(), row.getName()));
+            log.info("Индекс наименований задач загружен за {} мс: {}",
+                    (System.nanoTime() - start) / 1_000_000, stats());
+        } catch (RuntimeException e) {
+            log.error("Ошибка загрузки индекса наименований задач", e);
+        }
+    }
+
+    /**
+     * Добавляет или заменяет наименование задачи в индексе. Если пользователь
+     * задачи не задан, используется пользователь, под которым задача уже проиндексирована.
+     *
+     * @param task задача
+     */
+    public void put(Task task) {
+        Integer userId = task.getUser() != null ? Integer.valueOf(task.getUser().getId()) : owners.get(task.getId());
+        if (userId != null && task.getName() != null) {
+            put(userId, task.getId(), task.getName());
+        }
+    }
+
+    /**
+     * Добавляет или заменяет наименование задачи пользователя в индексе.
+     *
+     * @param userId идентификатор пользователя
+     * @param taskId идентификатор задачи
+     * @param name наименование задачи
+     */
+    public void put(int userId, int taskId, String name) {
+        onCommit(() -> apply(userId, taskId, name));
+    }
+
+    /**
+     * Удаляет задачу из индекса.
+     *
+     * @param taskId идентификатор задачи
+     */
+    public void remove(int taskId) {
+        onCommit(() -> {
+            Integer userId = owners.remove(taskId);
+            if (userId != null) {
+                removeFromUser(userId, taskId);
+            }
+        });
+    }
+
+    /**
+     * Удаляет задачи пользователя из индекса, задачи других пользователей не удаляются.
+     *
+     * @param userId идентификатор пользователя
+     * @param taskIds идентификаторы задач
+     */
+    public void removeAll(int userId, Collection<Integer> taskIds) {
+        onCommit(() -> {
+            for (Integer taskId : taskIds) {
+                if (owners.remove(taskId, userId)) {
+                    removeFromUser(userId, taskId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Возвращает подсказки по задачам пользователя, наименования которых содержат
+     * строку запроса без учета регистра, начиная с последних созданных задач.
+     *
+     * @param userId идентификатор пользователя
+     * @param text строка запроса, может быть null
+     * @param limit максимальное количество подсказок
+     * @return список подсказок
+     */
+    public List<TaskSuggestion> suggest(int userId, String text, int limit) {
+        String query = text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+        UserIndex index = users.get(userId);
+        if (query.isEmpty() || index == null || limit <= 0) {
+            return List.of();
+        }
+        return index.find(query, limit);
+    }
+
+    /**
+     * Возвращает показатели индекса с оценкой занимаемой памяти.
+     *
+     * @return показатели индекса
+     */
+    public IndexStats stats() {
+        long trigrams = 0;
+        long postings = 0;
+        long bytes = (long) owners.size() * OWNER_ENTRY_BYTES;
+        for (UserIndex index : users.values()) {
+            long[] userStats = index.stats();
+            trigrams += userStats[0];
+            postings += userStats[1];
+            bytes += userStats[2];
+        }
+        return new IndexStats(owners.size(), trigrams, postings, bytes);
+    }
+
+    /**
+     * Выполняет изменение индекса после фиксации текущей транзакции Spring,
+     * а при ее отсутствии - сразу.
+     *
+     * @param change изменение индекса
+     */
+    private void onCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * Добавляет наименование задачи в индекс пользователя, при смене пользователя
+     * задача удаляется из индекса прежнего пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @param taskId идентификатор задачи
+     * @param name наименование задачи
+     */
+    private void apply(int userId, int taskId, String name) {
+        Integer previous = owners.put(taskId, userId);
+        if (previous != null && previous != userId) {
+            removeFromUser(previous, taskId);
+        }
+        users.computeIfAbsent(userId, id -> new UserIndex()).put(taskId, name);
+    }
+
+    /**
+     * Удаляет задачу из индекса пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @param taskId идентификатор задачи
+     */
+    private void removeFromUser(int userId, int taskId) {
+        UserIndex index = users.get(userId);
+        if (index != null) {
+            index.remove(taskId);
+        }
+    }
+
+    /**
+     * Возвращает различные триграммы строки по возрастанию. Триграмма кодируется
+     * числом long из трех символов по 16 бит.
+     *
+     * @param text строка в нижнем регистре
+     * @return массив триграмм
+     */
+    private static long[] trigrams(String text) {
+        if (text.length() < GRAM_LENGTH) {
+            return new long[0];
+        }
+        long[] keys = new long[text.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2);
+        }
+        Arrays.sort(keys);
+        int size = 0;
+        for (long key : keys) {
+            if (size == 0 || keys[size - 1] != key) {
+                keys[size++] = key;
+            }
+        }
+        return Arrays.copyOf(keys, size);
+    }
+
+    /**
+     * Индекс наименований задач одного пользователя. Чтение выполняется
+     * параллельно, изменение - под блокировкой записи.
+     */
+    private static final class UserIndex {
+
+        /**
+         * Блокировка индекса
+         */
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * Списки вхождений задач по триграммам
+         */
+        private final Map<Long, PostingList> grams = new HashMap<>();
+
+        /**
+         * Наименования задач по идентификаторам
+         */
+        private final Map<Integer, String> names = new HashMap<>();
+
+        /**
+         * Идентификаторы всех задач пользователя, используются для запросов короче триграммы
+         */
+        private final PostingList all = new PostingList();
+
+        /**
+         * Добавляет или заменяет наименование задачи.
+         *
+         * @param taskId идентификатор задачи
+         * @param name наименование задачи
+         */
+        void put(int taskId, String name) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(taskId);
+                names.put(taskId, name);
+                all.add(taskId);
+                for (long key : trigrams(name.toLowerCase(Locale.ROOT))) {
+                    grams.computeIfAbsent(key, k -> new PostingList()).add(taskId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Удаляет задачу.
+         *
+         * @param taskId идентификатор задачи
+         */
+        void remove(int taskId) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(taskId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Удаляет задачу под уже полученной блокировкой записи.
+         * Пустые списки вхождений удаляются.
+         *
+         * @param taskId идентификатор задачи
+         */
+        private void removeLocked(int taskId) {
+            String name = names.remove(taskId);
+            if (name == null) {
+                return;
+            }
+            all.remove(taskId);
+            for (long key : trigrams(name.toLowerCase(Locale.ROOT))) {
+                PostingList list = grams.get(key);
+                if (list != null) {
+                    list.remove(taskId);
+                    if (list.size() == 0) {
+                        grams.remove(key);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Выполняет поиск задач, наименования которых содержат строку запроса.
+         *
+         * @param query строка запроса в нижнем регистре
+         * @param limit максимальное количество подсказок
+         * @return список подсказок по убыванию идентификатора задачи
+         */
+        List<TaskSuggestion> find(String query, int limit) {
+            lock.readLock().lock();
+            try {
+                List<TaskSuggestion> rsl = new ArrayList<>();
+                long[] keys = trigrams(query);
+                PostingList[] lists = new PostingList[Math.max(keys.length, 1)];
+                lists[0] = all;
+                for (int i = 0; i < keys.length; i++) {
+                    lists[i] = grams.get(keys[i]);
+                    if (lists[i] == null) {
+                        return rsl;
+                    }
+                }
+                Arrays.sort(lists, Comparator.comparingInt(PostingList::size));
+                PostingList smallest = lists[0];
+                for (int i = smallest.size() - 1; i >= 0 && rsl.size() < limit; i--) {
+                    int taskId = smallest.get(i);
+                    String name = names.get(taskId);
+                    if (containsAll(lists, taskId) && containsIgnoreCase(name, query)) {
+                        rsl.add(new TaskSuggestion(taskId, name));
+                    }
+                }
+                return rsl;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Возвращает показатели индекса пользователя: количество триграмм,
+         * количество вхождений и оценку занимаемой памяти в байтах.
+         *
+         * @return массив показателей
+         */
+        long[] stats() {
+            lock.readLock().lock();
+            try {
+                long postings = 0;
+                long bytes = POSTING_LIST_BYTES + 4L * all.capacity();
+                for (PostingList list : grams.values()) {
+                    postings += list.size();
+                    bytes += GRAM_ENTRY_BYTES + POSTING_LIST_BYTES + 4L * list.capacity();
+                }
+                for (String name : names.values()) {
+                    bytes += NAME_ENTRY_BYTES + 2L * name.length();
+                }
+                return new long[] {grams.size(), postings, bytes};
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Проверяет наличие задачи во всех списках вхождений.
+         *
+         * @param lists списки вхождений
+         * @param taskId идентификатор задачи
+         * @return true, если задача есть во всех списках
+         */
+        private static boolean containsAll(PostingList[] lists, int taskId) {
+            for (int i = 1; i < lists.length; i++) {
+                if (!lists[i].contains(taskId)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Проверяет вхождение строки запроса в наименование без учета регистра.
+         * Совпадение триграмм не гарантирует вхождения запроса целиком.
+         *
+         * @param name наименование задачи
+         * @param query строка запроса в нижнем регистре
+         * @return true, если наименование содержит строку запроса
+         */
+        private static boolean containsIgnoreCase(String name, String query) {
+            for (int i = 0; i + query.length() <= name.length(); i++) {
+                if (name.regionMatches(true, i, query, 0, query.length())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.job4j.todo.service;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.job4j.todo.model.Category;
 import ru.job4j.todo.repository.CategoryRepository;
 
@@ -15,6 +16,7 @@ import java.util.List;
  */
 @AllArgsConstructor
 @Service
+@Transactional(readOnly = true)
 public class ImplCategoryService implements CategoryService {
 
     /**
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.repository.PriorityRepository;
 
+import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
@@ -22,6 +23,16 @@ public class ImplPriorityService implements PriorityService {
      */
     private final PriorityRepository priorityRepository;
 
+    /**
+     * Возвращает список всех приоритетов в порядке позиции.
+     *
+     * @return список приоритетов
+     */
+    @Override
+    public List<Priority> findAllPriorities() {
+        return priorityRepository.findAllPriorities();
+    }
+
     /**
      * Выполняет поиск приоритета по имени. При успешном нахождении возвращает
      * приоритет, иначе выбрасывает исключение.
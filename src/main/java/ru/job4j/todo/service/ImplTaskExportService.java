@@ -0,0 +1,136 @@
+package ru.job4j.todo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.job4j.todo.dto.TaskExportRow;
+import ru.job4j.todo.repository.TaskRepository;
+import ru.job4j.todo.util.CsvUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Реализация сервиса выгрузки задач. Формат выгрузки совместим
+ * с форматом импорта задач
+ * @see ru.job4j.todo.service.TaskExportService
+ * @see ru.job4j.todo.service.TaskImportService
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@AllArgsConstructor
+@Service
+public class ImplTaskExportService implements TaskExportService {
+
+    /**
+     * Формат CSV, первая строка содержит заголовок с именами колонок
+     */
+    private static final String CSV = "csv";
+
+    /**
+     * Формат JSON lines, каждая строка содержит объект задачи
+     */
+    private static final String JSON_LINES = "jsonl";
+
+    /**
+     * Заголовок CSV
+     */
+    private static final String CSV_HEADER = "id,name,description,created,done,priority,categories";
+
+    /**
+     * Разделитель категорий в колонке categories формата CSV
+     */
+    private static final String CATEGORY_SEPARATOR = ";";
+
+    /**
+     * Объект для доступа к методам TaskRepository
+     */
+    private final TaskRepository taskRepository;
+
+    /**
+     * Объект для формирования строк JSON
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Выполняет выгрузку задач пользователя в поток вывода в кодировке UTF-8.
+     * Каждая задача записывается в поток сразу после чтения из базы данных.
+     *
+     * @param userId идентификатор пользователя
+     * @param format формат данных: csv или jsonl
+     * @param out поток вывода
+     * @return количество выгруженных задач
+     * @exception IllegalArgumentException если формат не поддерживается
+     * @exception UncheckedIOException при ошибке записи в поток вывода
+     */
+    @Override
+    public int exportTasks(int userId, String format, OutputStream out) {
+        if (!CSV.equals(format) && !JSON_LINES.equals(format)) {
+            throw new IllegalArgumentException(
+                    String.format("Формат выгрузки %s не поддерживается", format));
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            if (CSV.equals(format)) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            int count = taskRepository.exportTasksByUser(userId, row -> {
+                try {
+                    writer.write(CSV.equals(format) ? toCsv(row) : toJson(row));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Формирует строку CSV задачи.
+     *
+     * @param row строка выгрузки задачи
+     * @return строка CSV
+     */
+    private String toCsv(TaskExportRow row) {
+        return String.join(",",
+                String.valueOf(row.getId()),
+                CsvUtil.escape(row.getName()),
+                CsvUtil.escape(row.getDescription()),
+                row.getCreated() == null ? "" : row.getCreated().toString(),
+                String.valueOf(row.isDone()),
+                CsvUtil.escape(row.getPriority()),
+                CsvUtil.escape(String.join(CATEGORY_SEPARATOR, row.getCategories())));
+    }
+
+    /**
+     * Формирует строку JSON задачи.
+     *
+     * @param row строка выгрузки задачи
+     * @return строка JSON
+     * @throws IOException при ошибке формирования JSON
+     */
+    private String toJson(TaskExportRow row) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("id", row.getId());
+        node.put("name", row.getName());
+        node.put("description", row.getDescription());
+        node.put("created", row.getCreated() == null ? null : row.getCreated().toString());
+        node.put("done", row.isDone());
+        node.put("priority", row.getPriority());
+        ArrayNode categories = node.putArray("categories");
+        row.getCategories().forEach(categories::add);
+        return objectMapper.writeValueAsString(node);
+    }
+}
@@ -0,0 +1,358 @@
+package ru.job4j.todo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.job4j.todo.dto.ImportReport;
+import ru.job4j.todo.model.Category;
+import ru.job4j.todo.model.Priority;
+import ru.job4j.todo.model.Task;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.repository.TaskRepository;
+import ru.job4j.todo.search.TaskNameIndex;
+import ru.job4j.todo.util.CsvUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Реализация сервиса импорта задач
+ * @see ru.job4j.todo.service.TaskImportService
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Slf4j
+@AllArgsConstructor
+@Service
+public class ImplTaskImportService implements TaskImportService {
+
+    /**
+     * Количество задач, сохраняемых в одной транзакции
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    /**
+     * Формат CSV, первая строка содержит заголовок с именами колонок
+     */
+    private static final String CSV = "csv";
+
+    /**
+     * Формат JSON lines, каждая строка содержит объект задачи
+     */
+    private static final String JSON_LINES = "jsonl";
+
+    /**
+     * Разделитель категорий в колонке categories формата CSV
+     */
+    private static final String CATEGORY_SEPARATOR = ";";
+
+    /**
+     * Наибольшее количество строк одной записи CSV
+     */
+    private static final int MAX_RECORD_LINES = 100;
+
+    /**
+     * Наибольшая длина одной записи CSV в символах
+     */
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    /**
+     * Объект для доступа к методам TaskRepository
+     */
+    private final TaskRepository taskRepository;
+
+    /**
+     * Объект для доступа к методам PriorityService
+     */
+    private final PriorityService priorityService;
+
+    /**
+     * Объект для доступа к методам CategoryService
+     */
+    private final CategoryService categoryService;
+
+    /**
+     * Объект для разбора строк JSON
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Индекс наименований задач для подсказок при вводе
+     */
+    private final TaskNameIndex taskNameIndex;
+
+    /**
+     * Выполняет импорт задач пользователя. Строки читаются по одной, запись CSV
+     * с переводом строки внутри поля в кавычках собирается из нескольких строк,
+     * в памяти хранится только текущий пакет задач. Запись с незакрытыми кавычками
+     * или превышающая ограничение по строкам или длине отклоняется одной ошибкой,
+     * импорт продолжается со следующей за ее началом строки. Приоритеты и категории определяются
+     * по имени из кэшируемых справочников. Строки с ошибками пропускаются
+     * и попадают в отчет, ошибка сохранения пакета отклоняет все строки пакета.
+     *
+     * @param reader источник данных
+     * @param format формат данных: csv или jsonl
+     * @param user пользователь, которому принадлежат задачи
+     * @return отчет об импорте
+     * @exception IllegalArgumentException если формат не поддерживается
+     * или заголовок CSV не содержит обязательных колонок
+     */
+    @Override
+    public ImportReport importTasks(Reader reader, String format, User user) {
+        if (!CSV.equals(format) && !JSON_LINES.equals(format)) {
+            throw new IllegalArgumentException(
+                    String.format("Формат импорта %s не поддерживается", format));
+        }
+        ImportReport report = new ImportReport();
+        Map<String, Priority> priorities = new HashMap<>();
+        Map<String, Category> categories = new HashMap<>();
+        for (Category category : categoryService.findAllCategories()) {
+            categories.put(category.getName(), category);
+        }
+        List<Task> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<String> header = null;
+        int lineNumber = 0;
+        Deque<String> pending = new ArrayDeque<>();
+        try (BufferedReader in = new BufferedReader(reader)) {
+            String line = nextLine(in, pending);
+            while (line != null) {
+                lineNumber++;
+                int recordLine = lineNumber;
+                if (CSV.equals(format) && CsvUtil.isOpenRecord(line)) {
+                    List<String> continuation = new ArrayList<>();
+                    try {
+                        line = csvRecord(in, pending, line, continuation);
+                        lineNumber += continuation.size();
+                    } catch (IllegalArgumentException e) {
+                        for (int i = continuation.size() - 1; i >= 0; i--) {
+                            pending.addFirst(continuation.get(i));
+                        }
+                        report.addProcessed();
+                        report.addFailed(1, String.format("Строка %d: %s", recordLine, e.getMessage()));
+                        line = "";
+                    }
+                }
+                if (!line.isBlank()) {
+                    if (CSV.equals(format) && header == null) {
+                        header = csvHeader(line);
+                    } else {
+                        report.addProcessed();
+                        try {
+                            Task task = CSV.equals(format) ? parseCsv(header, line) : parseJson(line);
+                            chunk.add(resolve(task, user, priorities, categories));
+                        } catch (IllegalArgumentException | NoSuchElementException | JsonProcessingException e) {
+                            report.addFailed(1, String.format("Строка %d: %s", recordLine, e.getMessage()));
+                        }
+                    }
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    save(chunk, report);
+                }
+                line = nextLine(in, pending);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        save(chunk, report);
+        return report;
+    }
+
+    /**
+     * Возвращает следующую строку: сначала из возвращенных после отклоненной
+     * записи CSV строк, затем из источника данных.
+     *
+     * @param in источник данных
+     * @param pending возвращенные строки
+     * @return строка или null, если данные закончились
+     * @throws IOException при ошибке чтения
+     */
+    private String nextLine(BufferedReader in, Deque<String> pending) throws IOException {
+        return pending.isEmpty() ? in.readLine() : pending.pollFirst();
+    }
+
+    /**
+     * Собирает запись CSV, начатую строкой с незакрытыми кавычками, из следующих строк.
+     * Состояние кавычек определяется только по каждой новой строке, поэтому запись
+     * просматривается один раз. Прочитанные строки продолжения добавляются в continuation.
+     *
+     * @param in источник данных
+     * @param pending возвращенные строки
+     * @param first первая строка записи
+     * @param continuation прочитанные строки продолжения записи
+     * @return запись CSV
+     * @throws IOException при ошибке чтения
+     * @exception IllegalArgumentException если кавычки не закрыты до конца данных
+     * или запись превышает ограничение по строкам или длине
+     */
+    private String csvRecord(BufferedReader in, Deque<String> pending, String first,
+                             List<String> continuation) throws IOException {
+        StringBuilder record = new StringBuilder(first);
+        boolean open = true;
+        while (open) {
+            String next = nextLine(in, pending);
+            if (next == null) {
+                throw new IllegalArgumentException("Не закрыты кавычки в строке CSV");
+            }
+            continuation.add(next);
+            if (continuation.size() >= MAX_RECORD_LINES
+                    || record.length() + next.length() + 1 > MAX_RECORD_LENGTH) {
+                throw new IllegalArgumentException(String.format(
+                        "Запись CSV длиннее %d строк или %d символов", MAX_RECORD_LINES, MAX_RECORD_LENGTH));
+            }
+            record.append('\n').append(next);
+            open = CsvUtil.isOpenRecord(next) != open;
+        }
+        return record.toString();
+    }
+
+    /**
+     * Выполняет сохранение пакета задач и очищает пакет.
+     *
+     * @param chunk пакет задач
+     * @param report отчет об импорте
+     */
+    private void save(List<Task> chunk, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            report.addImported(taskRepository.addAll(chunk));
+            for (Task task : chunk) {
+                taskNameIndex.put(task);
+            }
+        } catch (RuntimeException e) {
+            report.addFailed(chunk.size(),
+                    String.format("Ошибка сохранения пакета из %d задач: %s", chunk.size(), e.getMessage()));
+        }
+        chunk.clear();
+        log.info("Импорт задач: обработано строк {}, сохранено задач {}, отклонено строк {}",
+                report.getProcessed(), report.getImported(), report.getFailed());
+    }
+
+    /**
+     * Выполняет разбор заголовка CSV.
+     *
+     * @param line строка заголовка
+     * @return имена колонок
+     * @exception IllegalArgumentException если нет колонок name и priority
+     */
+    private List<String> csvHeader(String line) {
+        List<String> header = CsvUtil.parseLine(line.strip());
+        if (!header.contains("name") || !header.contains("priority")) {
+            throw new IllegalArgumentException("Заголовок CSV должен содержать колонки name и priority");
+        }
+        return header;
+    }
+
+    /**
+     * Выполняет разбор строки CSV в задачу с неразрешенными по имени
+     * приоритетом и категориями.
+     *
+     * @param header имена колонок
+     * @param line строка CSV
+     * @return задача
+     */
+    private Task parseCsv(List<String> header, String line) {
+        List<String> fields = CsvUtil.parseLine(line);
+        List<Category> categories = new ArrayList<>();
+        for (String name : csvValue(header, fields, "categories").split(CATEGORY_SEPARATOR)) {
+            if (!name.isBlank()) {
+                categories.add(Category.builder().name(name.strip()).build());
+            }
+        }
+        return Task.builder()
+                .name(csvValue(header, fields, "name"))
+                .description(csvValue(header, fields, "description"))
+                .priority(Priority.builder().name(csvValue(header, fields, "priority")).build())
+                .categories(categories)
+                .done(Boolean.parseBoolean(csvValue(header, fields, "done")))
+                .build();
+    }
+
+    /**
+     * Возвращает значение колонки строки CSV.
+     *
+     * @param header имена колонок
+     * @param fields поля строки
+     * @param column имя колонки
+     * @return значение колонки, пустая строка если колонки нет
+     */
+    private String csvValue(List<String> header, List<String> fields, String column) {
+        int index = header.indexOf(column);
+        return index >= 0 && index < fields.size() ? fields.get(index).strip() : "";
+    }
+
+    /**
+     * Выполняет разбор строки JSON в задачу с неразрешенными по имени
+     * приоритетом и категориями.
+     *
+     * @param line строка JSON
+     * @return задача
+     * @throws JsonProcessingException если строка не является JSON
+     */
+    private Task parseJson(String line) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(line);
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Строка должна содержать объект JSON");
+        }
+        List<Category> categories = new ArrayList<>();
+        for (JsonNode category : node.path("categories")) {
+            categories.add(Category.builder().name(category.asText().strip()).build());
+        }
+        return Task.builder()
+                .name(node.path("name").asText("").strip())
+                .description(node.path("description").asText(""))
+                .priority(Priority.builder().name(node.path("priority").asText("").strip()).build())
+                .categories(categories)
+                .done(node.path("done").asBoolean(false))
+                .build();
+    }
+
+    /**
+     * Выполняет проверку задачи, заменяет приоритет и категории объектами
+     * справочников и заполняет пользователя и дату создания.
+     *
+     * @param task задача
+     * @param user пользователь
+     * @param priorities найденные приоритеты по имени
+     * @param categories категории по имени
+     * @return задача, готовая к сохранению
+     * @exception IllegalArgumentException если не указано наименование задачи или категория не найдена
+     * @exception NoSuchElementException если приоритет не найден
+     */
+    private Task resolve(Task task, User user, Map<String, Priority> priorities, Map<String, Category> categories) {
+        if (task.getName().isBlank()) {
+            throw new IllegalArgumentException("Не указано наименование задачи");
+        }
+        task.setPriority(priorities.computeIfAbsent(task.getPriority().getName(),
+                priorityService::findPriorityByName));
+        List<Category> resolved = new ArrayList<>();
+        for (Category category : task.getCategories()) {
+            Category found = categories.get(category.getName());
+            if (found == null) {
+                throw new IllegalArgumentException(
+                        String.format("Категория c name = %s не найдена", category.getName()));
+            }
+            if (!resolved.contains(found)) {
+                resolved.add(found);
+            }
+        }
+        task.setCategories(resolved);
+        task.setUser(user);
+        task.setCreated(Instant.now());
+        return task;
+    }
+}
@@ -2,23 +2,46 @@ package ru.job4j.todo.service;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.job4j.todo.dto.Page;
+import ru.job4j.todo.dto.TaskListView;
+import ru.job4j.todo.dto.TaskSearchResult;
 import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.model.Task;
+import ru.job4j.todo.repository.RepositoryException;
 import ru.job4j.todo.repository.TaskRepository;
+import ru.job4j.todo.search.TaskNameIndex;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
- * Реализация сервиса по работе с задачами
+ * Реализация сервиса по работе с задачами.
+ * Каждый метод выполняется в одной транзакции, методы чтения в транзакции только для чтения.
  * @see ru.job4j.todo.service.TaskService
  * @author Alexander Emelyanov
  * @version 1.0
  */
 @AllArgsConstructor
 @Service
+@Transactional(readOnly = true)
 public class ImplTaskService implements TaskService {
 
+    /**
+     * Максимальная длина поискового запроса
+     */
+    private static final int SEARCH_TEXT_MAX_LENGTH = 200;
+
+    /**
+     * Максимальное количество страниц результатов поиска. Результаты упорядочены
+     * по релевантности и выбираются со смещением, поэтому глубина поиска ограничена:
+     * дальние страницы требуют ранжирования и пропуска всех предыдущих результатов
+     */
+    private static final int SEARCH_MAX_PAGES = 10;
+
     /**
      * Объект для доступа к методам TaskRepository
      */
@@ -29,6 +52,16 @@ public class ImplTaskService implements TaskService {
      */
     private final PriorityService priorityService;
 
+    /**
+     * Объект для доступа к методам CategoryService
+     */
+    private final CategoryService categoryService;
+
+    /**
+     * Индекс наименований задач для подсказок при вводе
+     */
+    private final TaskNameIndex taskNameIndex;
+
     /**
      * Возвращает список всех задач.
      *
@@ -59,6 +92,90 @@ public class ImplTaskService implements TaskService {
         return taskRepository.findDoneTasks();
     }
 
+    /**
+     * Возвращает список задач пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @param done статус задач, null - задачи с любым статусом
+     * @return список задач пользователя
+     */
+    @Override
+    public List<Task> findTasksByUser(int userId, Boolean done) {
+        return taskRepository.findTasksByUser(userId, done);
+    }
+
+    /**
+     * Возвращает страницу представлений задач пользователя для страницы списка задач.
+     * Если задан курсор before, возвращается страница задач, предшествующих ему,
+     * иначе страница задач, следующих за курсором after.
+     * Из хранилища запрашивается на одну задачу больше размера страницы, чтобы
+     * определить наличие соседней страницы без отдельного запроса.
+     *
+     * @param userId идентификатор пользователя
+     * @param done статус задач, null - задачи с любым статусом
+     * @param after курсор следующей страницы, может быть null
+     * @param before курсор предыдущей страницы, может быть null
+     * @param size размер страницы
+     * @return страница задач
+     */
+    @Override
+    public Page<TaskListView> findTasksPage(int userId, Boolean done, Integer after, Integer before, int size) {
+        if (before != null) {
+            List<TaskListView> tasks = new ArrayList<>(taskRepository.findTasksBefore(userId, done, before, size + 1));
+            boolean hasPrevious = tasks.size() > size;
+            if (hasPrevious) {
+                tasks.remove(0);
+            }
+            return new Page<>(tasks,
+                    hasPrevious ? tasks.get(0).getId() : null,
+                    tasks.isEmpty() ? null : tasks.get(tasks.size() - 1).getId());
+        }
+        int cursor = after != null ? after : 0;
+        List<TaskListView> tasks = new ArrayList<>(taskRepository.findTasksAfter(userId, done, cursor, size + 1));
+        boolean hasNext = tasks.size() > size;
+        if (hasNext) {
+            tasks.remove(size);
+        }
+        return new Page<>(tasks,
+                cursor > 0 && !tasks.isEmpty() ? tasks.get(0).getId() : null,
+                hasNext ? tasks.get(tasks.size() - 1).getId() : null);
+    }
+
+    /**
+     * Возвращает страницу результатов полнотекстового поиска задач пользователя.
+     * Поисковый запрос без пробелов в начале и конце ограничивается длиной
+     * {@link #SEARCH_TEXT_MAX_LENGTH}, при пустом запросе хранилище не вызывается.
+     * Из хранилища запрашивается на один результат больше размера страницы, чтобы
+     * определить наличие следующей страницы без отдельного запроса.
+     * Номер страницы ограничивается {@link #SEARCH_MAX_PAGES} страницами,
+     * на последней из них ссылка на следующую страницу не возвращается.
+     *
+     * @param userId идентификатор пользователя
+     * @param text поисковый запрос, может быть null
+     * @param page номер страницы, начиная с нуля
+     * @param size размер страницы
+     * @return страница результатов поиска, курсоры содержат номера соседних страниц
+     */
+    @Override
+    public Page<TaskSearchResult> searchTasks(int userId, String text, int page, int size) {
+        String query = text == null ? "" : text.strip();
+        if (query.length() > SEARCH_TEXT_MAX_LENGTH) {
+            query = query.substring(0, SEARCH_TEXT_MAX_LENGTH);
+        }
+        if (query.isEmpty()) {
+            return new Page<>(List.of(), null, null);
+        }
+        int number = Math.min(Math.max(page, 0), SEARCH_MAX_PAGES - 1);
+        List<TaskSearchResult> results = new ArrayList<>(
+                taskRepository.searchTasks(userId, query, number * size, size + 1));
+        boolean hasNext = results.size() > size;
+        if (hasNext) {
+            results.remove(size);
+        }
+        hasNext = hasNext && number < SEARCH_MAX_PAGES - 1;
+        return new Page<>(results, number > 0 ? number - 1 : null, hasNext ? number + 1 : null);
+    }
+
     /**
      * Выполняет поиск задачи по идентификатору. При успешном нахождении возвращает
      * задачу, иначе выбрасывает исключение.
@@ -75,19 +192,31 @@ public class ImplTaskService implements TaskService {
     }
 
     /**
-     * Выполняет обновление задачи.
+     * Выполняет обновление задачи с условием на версию задачи.
      *
      * @param task обновляемая задача
      * @return задача при успешном обновлении
      * @exception NoSuchElementException если задача не найдена
+     * @exception TaskConflictException если задача изменена или удалена после открытия формы
      */
     @Override
+    @Transactional
     public Task update(Task task) {
         Priority priorityFromDB = priorityService.findPriorityByName(task.getPriority().getName());
         task.setPriority(priorityFromDB);
-        return taskRepository.update(task).orElseThrow(
-                () -> new IllegalArgumentException(
-                        String.format("Ошибка в обновлении задачи с id = %d", task.getId())));
+        Task updated;
+        try {
+            updated = taskRepository.update(task).orElseThrow(
+                    () -> new IllegalArgumentException(
+                            String.format("Ошибка в обновлении задачи с id = %d", task.getId())));
+        } catch (RepositoryException e) {
+            if (e.isStaleState()) {
+                throw new TaskConflictException(task, e);
+            }
+            throw e;
+        }
+        taskNameIndex.put(updated);
+        return updated;
     }
 
     /**
@@ -99,22 +228,30 @@ public class ImplTaskService implements TaskService {
      * @exception IllegalArgumentException если сохранение задачи не произошло
      */
     @Override
+    @Transactional
     public Task add(Task task) {
         Priority priorityFromDB = priorityService.findPriorityByName(task.getPriority().getName());
         task.setPriority(priorityFromDB);
-        return taskRepository.add(task).orElseThrow(
+        Task saved = taskRepository.add(task).orElseThrow(
                 () -> new IllegalArgumentException(
                         String.format("Ошибка в сохранении задачи с наименованием - %s", task.getName())));
+        taskNameIndex.put(saved);
+        return saved;
     }
 
     /**
-     * Выполняет выбор методов класса для сохранения или обновления задачи.
+     * Выполняет выбор методов класса для сохранения или обновления задачи
+     * с установкой выбранных категорий. Поиск категорий, приоритета и сохранение
+     * задачи выполняются в одной транзакции.
      *
      * @param task сохраняемая задача
+     * @param categoryIds идентификаторы выбранных категорий
      * @return задача при успешном сохранении или обновлении
      */
     @Override
-    public Task addOrUpdateTask(Task task) {
+    @Transactional
+    public Task addOrUpdateTask(Task task, List<Integer> categoryIds) {
+        task.setCategories(categoryService.findCategoriesByIds(categoryIds));
         Task taskFromDB;
         if (task.getId() == 0) {
             taskFromDB = add(task);
@@ -129,12 +266,14 @@ public class ImplTaskService implements TaskService {
      *
      * @param id идентификатор задачи
      * @return задача при успешном обновлении статуса
+     * @exception NoSuchElementException если задача не найдена
      */
     @Override
+    @Transactional
     public Task taskDone(int id) {
-        Task taskFromDB = findTaskById(id);
-        taskFromDB.setDone(true);
-        return update(taskFromDB);
+        return taskRepository.markDone(id).orElseThrow(
+                () -> new NoSuchElementException(
+                        String.format("Задание c id = %d не найдено", id)));
     }
 
     /**
@@ -143,7 +282,79 @@ public class ImplTaskService implements TaskService {
      * @param id идентификатор задачи
      */
     @Override
+    @Transactional
     public void deleteTaskById(int id) {
         taskRepository.deleteTaskById(id);
+        taskNameIndex.remove(id);
+    }
+
+    /**
+     * Выполняет установку статуса выполнено выбранным задачам пользователя
+     * одним запросом в одной транзакции.
+     *
+     * @param ids идентификаторы задач, может быть null
+     * @param userId идентификатор пользователя
+     * @return количество обновленных задач
+     */
+    @Override
+    @Transactional
+    public int completeTasks(List<Integer> ids, int userId) {
+        return taskRepository.completeTasks(distinctIds(ids), userId);
+    }
+
+    /**
+     * Выполняет удаление выбранных задач пользователя вместе со связями
+     * с категориями в одной транзакции.
+     *
+     * @param ids идентификаторы задач, может быть null
+     * @param userId идентификатор пользователя
+     * @return количество удаленных задач
+     */
+    @Override
+    @Transactional
+    public int deleteTasks(List<Integer> ids, int userId) {
+        Set<Integer> distinctIds = distinctIds(ids);
+        int deleted = taskRepository.deleteTasks(distinctIds, userId);
+        taskNameIndex.removeAll(userId, distinctIds);
+        return deleted;
+    }
+
+    /**
+     * Выполняет изменение приоритета выбранных задач пользователя одним
+     * запросом в одной транзакции.
+     *
+     * @param ids идентификаторы задач, может быть null
+     * @param priorityName имя приоритета
+     * @param userId идентификатор пользователя
+     * @return количество обновленных задач
+     * @exception NoSuchElementException если приоритет не найден
+     */
+    @Override
+    @Transactional
+    public int changePriority(List<Integer> ids, String priorityName, int userId) {
+        Set<Integer> distinctIds = distinctIds(ids);
+        if (distinctIds.isEmpty()) {
+            return 0;
+        }
+        Priority priority = priorityService.findPriorityByName(priorityName);
+        return taskRepository.changePriority(distinctIds, priority, userId);
+    }
+
+    /**
+     * Возвращает набор уникальных идентификаторов задач без null значений.
+     *
+     * @param ids идентификаторы задач, может быть null
+     * @return набор идентификаторов задач
+     */
+    private Set<Integer> distinctIds(List<Integer> ids) {
+        Set<Integer> rsl = new LinkedHashSet<>();
+        if (ids != null) {
+            for (Integer id : ids) {
+                if (id != null) {
+                    rsl.add(id);
+                }
+            }
+        }
+        return rsl;
     }
 }
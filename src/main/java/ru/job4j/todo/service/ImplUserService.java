@@ -2,19 +2,27 @@ package ru.job4j.todo.service;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import ru.job4j.todo.model.User;
 import ru.job4j.todo.repository.UserRepository;
 
 import java.util.NoSuchElementException;
 
 /**
- * Реализация сервиса по работе с пользователями
+ * Реализация сервиса по работе с пользователями.
+ * Методы чтения выполняются в транзакции только для чтения.
+ * Пароли сохраняются в виде хеша, см. {@link PasswordHasher}. Методы, вычисляющие
+ * или проверяющие хеш пароля, выполняются вне транзакции: ожидание пула хеширования
+ * не удерживает соединение с базой данных, а чтение и запись пользователя
+ * выполняются хранилищем в отдельных коротких транзакциях.
  * @see ru.job4j.todo.service.UserService
  * @author Alexander Emelyanov
  * @version 1.0
  */
 @AllArgsConstructor
 @Service
+@Transactional(readOnly = true)
 public class ImplUserService implements UserService {
 
     /**
@@ -23,7 +31,12 @@ public class ImplUserService implements UserService {
     private final UserRepository userRepository;
 
     /**
-     * Выполняет сохранение пользователя. При успешном сохранении возвращает
+     * Хеширование паролей
+     */
+    private final PasswordHasher passwordHasher;
+
+    /**
+     * Выполняет сохранение пользователя с хешем пароля. При успешном сохранении возвращает
      * сохраненного пользователя, иначе выбрасывается исключение.
      *
      * @param user сохраняемый пользователь
@@ -31,22 +44,26 @@ public class ImplUserService implements UserService {
      * @exception IllegalArgumentException если сохранение пользователя не произошло
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User add(User user) {
+        user.setPassword(passwordHasher.hash(user.getPassword()));
         return userRepository.add(user).orElseThrow(
                 () -> new IllegalArgumentException(
                         String.format("Аккаунт с login = %s уже существует!", user.getLogin())));
     }
 
     /**
-     * Выполняет обновление пользователя.
+     * Выполняет обновление пользователя с хешем нового пароля.
      *
      * @param user обновляемый пользователь
      * @exception NoSuchElementException если пользователь не найден
      * @return пользователь при успешном обновлении
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User update(User user) {
-         return userRepository.update(user).orElseThrow(
+        user.setPassword(passwordHasher.hash(user.getPassword()));
+        return userRepository.update(user).orElseThrow(
                 () -> new NoSuchElementException(
                         String.format("Пользователь с login = %s не обновлен", user.getLogin())));
     }
@@ -70,19 +87,100 @@ public class ImplUserService implements UserService {
      * Выполняет сверку данных пользователя с входной формы с данными пользователя в базе по
      * логину (почтовому адресу) и паролю. При успешной проверке возвращает пользователя извлеченного
      * из базы данных, иначе выбрасывает исключение.
-     * Для нахождения пользователя в базе данных используется метод
-     * {@link ImplUserService#findUserByLogin(String)} (String)}.
+     * Пользователь и неизвестный логин ищутся в кэше, см. {@link ImplUserService#verify(String, String)}.
+     * Пароль, сохраненный в открытом виде или с устаревшим количеством итераций
+     * хеширования, при успешной проверке заменяется новым хешем.
+     * Пользователь читается в короткой транзакции только для чтения, пароль проверяется
+     * вне транзакции, новый хеш сохраняется в отдельной короткой транзакции
+     * {@link ImplUserService#rehash(User, String)}.
      *
      * @param user пользователя
      * @return пользователя при успешном при совпадении пароля и логина (почтового адреса)
      * @exception IllegalArgumentException если пароли пользователя не совпали
+     * @exception NoSuchElementException если пользователь не найден
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User validateUserLogin(User user) {
-        User userFromDB = findUserByLogin(user.getLogin());
-        if (!userFromDB.getPassword().equals(user.getPassword())) {
+        User userFromDB = verify(user.getLogin(), user.getPassword());
+        if (userFromDB == null) {
             throw new IllegalArgumentException("Неверный пароль пользователя");
         }
+        if (passwordHasher.needsRehash(userFromDB.getPassword())) {
+            rehash(userFromDB, passwordHasher.hash(user.getPassword()));
+        }
         return userFromDB;
     }
+
+    /**
+     * Сохраняет новый хеш пароля пользователя, вычисленный заранее вне транзакции.
+     * Пользователь мог быть взят из кэша, поэтому перед обновлением он читается
+     * из базы данных, чтобы не записать устаревшие имя или временную зону.
+     * Вызывается без транзакции Spring, поэтому хранилище выполняет чтение
+     * и обновление в отдельных коротких транзакциях.
+     *
+     * @param user пользователь
+     * @param hash новый хеш пароля
+     */
+    private void rehash(User user, String hash) {
+        User fresh = findFreshUserByLogin(user.getLogin());
+        if (fresh.getPassword().equals(user.getPassword())) {
+            fresh.setPassword(hash);
+            userRepository.update(fresh);
+            user.setPassword(hash);
+        }
+    }
+
+    /**
+     * Проверяет пароль пользователя с заданным логином (почтовым адресом),
+     * см. {@link ImplUserService#verify(String, String)}.
+     *
+     * @param login логин (почтовый адрес) пользователя
+     * @param password пароль
+     * @return true, если пароль совпадает
+     * @exception NoSuchElementException если пользователь не найден
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean checkPassword(String login, String password) {
+        return verify(login, password) != null;
+    }
+
+    /**
+     * Проверяет пароль по хешу пользователя из кэша. Кэш локален для экземпляра
+     * приложения, поэтому при несовпадении пароля пользователь читается из базы
+     * данных без кэша: если хеш в базе данных другой (пароль изменен на другом
+     * экземпляре), пользователь удаляется из кэша и пароль проверяется по новому хешу,
+     * если хеш тот же, пароль неверен и повторно не хешируется.
+     *
+     * @param login логин (почтовый адрес) пользователя
+     * @param password пароль
+     * @return пользователь с совпавшим паролем или null, если пароль не совпал
+     * @exception NoSuchElementException если пользователь не найден
+     */
+    private User verify(String login, String password) {
+        User cached = findUserByLogin(login);
+        if (passwordHasher.matches(password, cached.getPassword())) {
+            return cached;
+        }
+        User fresh = findFreshUserByLogin(login);
+        if (fresh.getPassword().equals(cached.getPassword())) {
+            return null;
+        }
+        userRepository.evict(cached);
+        return passwordHasher.matches(password, fresh.getPassword()) ? fresh : null;
+    }
+
+    /**
+     * Выполняет поиск пользователя по логину в базе данных без использования кэша.
+     *
+     * @param login логин (почтовый адрес) пользователя
+     * @return пользователя при успешном нахождении
+     * @exception NoSuchElementException если пользователь не найден
+     */
+    private User findFreshUserByLogin(String login) {
+        return userRepository.findFreshUserByLogin(login).orElseThrow(
+                () -> new NoSuchElementException(
+                        String.format("Пользователь с login = %s не найден", login)));
+    }
 }
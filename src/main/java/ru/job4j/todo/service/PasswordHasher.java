@@ -0,0 +1,233 @@
+package ru.job4j.todo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Хеширование паролей пользователей алгоритмом PBKDF2WithHmacSHA256 со случайной
+ * солью. Хеш записывается в виде pbkdf2$итерации$соль$хеш, поэтому количество
+ * итераций todo.password.iterations можно увеличивать без потери старых хешей.
+ * Вычисления выполняются в отдельном пуле из todo.password.threads потоков
+ * с очередью не более todo.password.queue задач: при заполненной очереди задача
+ * сразу отклоняется, и всплеск входов не занимает все потоки обработки запросов.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Component
+public class PasswordHasher {
+
+    /**
+     * Алгоритм хеширования
+     */
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    /**
+     * Префикс хеша в записи пароля
+     */
+    private static final String PREFIX = "pbkdf2$";
+
+    /**
+     * Длина соли, байт
+     */
+    private static final int SALT_BYTES = 16;
+
+    /**
+     * Длина хеша, бит
+     */
+    private static final int HASH_BITS = 256;
+
+    /**
+     * Кодирование соли и хеша
+     */
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+
+    /**
+     * Декодирование соли и хеша
+     */
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    /**
+     * Количество итераций для новых хешей
+     */
+    private final int iterations;
+
+    /**
+     * Пул потоков хеширования
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Генератор соли
+     */
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Создает объект хеширования паролей по свойствам приложения.
+     *
+     * @param iterations количество итераций для новых хешей
+     * @param threads количество потоков хеширования, 0 - по количеству процессоров
+     * @param queue наибольшее количество задач, ожидающих свободного потока
+     */
+    public PasswordHasher(@Value("${todo.password.iterations:210000}") int iterations,
+                          @Value("${todo.password.threads:0}") int threads,
+                          @Value("${todo.password.queue:64}") int queue) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Количество итераций хеширования должно быть больше 0");
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> workQueue = queue > 0 ? new ArrayBlockingQueue<>(queue) : new SynchronousQueue<>();
+        AtomicInteger number = new AtomicInteger();
+        this.iterations = iterations;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, workQueue,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + number.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Вычисляет хеш пароля с новой случайной солью.
+     *
+     * @param password пароль
+     * @return запись пароля pbkdf2$итерации$соль$хеш
+     * @exception RejectedExecutionException если очередь хеширования заполнена
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = execute(() -> pbkdf2(password, salt, iterations));
+        return PREFIX + iterations + "$" + ENCODER.encodeToString(salt) + "$" + ENCODER.encodeToString(hash);
+    }
+
+    /**
+     * Проверяет пароль по записи пароля. Запись без префикса pbkdf2$ считается
+     * паролем в открытом виде, сохраненным до введения хеширования.
+     *
+     * @param password пароль
+     * @param stored запись пароля
+     * @return true, если пароль совпадает
+     * @exception RejectedExecutionException если очередь хеширования заполнена
+     */
+    public boolean matches(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!stored.startsWith(PREFIX)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            if (storedIterations < 1) {
+                return false;
+            }
+            byte[] salt = DECODER.decode(parts[2]);
+            byte[] expected = DECODER.decode(parts[3]);
+            byte[] actual = execute(() -> pbkdf2(password, salt, storedIterations));
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Проверяет, нужно ли пересчитать хеш записи пароля: пароль хранится в открытом
+     * виде или хеш вычислен с меньшим количеством итераций, чем задано сейчас.
+     *
+     * @param stored запись пароля
+     * @return true, если запись пароля нужно обновить
+     */
+    public boolean needsRehash(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return true;
+        }
+        int end = stored.indexOf('$', PREFIX.length());
+        try {
+            return end < 0 || Integer.parseInt(stored.substring(PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Выполняет задачу в пуле хеширования и ожидает ее результат.
+     *
+     * @param task задача
+     * @param <T> тип результата
+     * @return результат задачи
+     * @exception RejectedExecutionException если очередь хеширования заполнена
+     */
+    <T> T execute(Callable<T> task) {
+        Future<T> future = executor.submit(task);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Хеширование пароля прервано", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка хеширования пароля", e.getCause());
+        }
+    }
+
+    /**
+     * Возвращает количество задач, ожидающих свободного потока.
+     *
+     * @return количество задач в очереди
+     */
+    int queued() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Останавливает пул хеширования при остановке приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Вычисляет хеш пароля.
+     *
+     * @param password пароль
+     * @param salt соль
+     * @param rounds количество итераций
+     * @return хеш
+     */
+    private static byte[] pbkdf2(String password, byte[] salt, int rounds) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, rounds, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package ru.job4j.todo.service;
 
 import ru.job4j.todo.model.Priority;
 
+import java.util.List;
+
 /**
  * Сервис по работе с приоритетами
  * @see ru.job4j.todo.model.Priority
@@ -10,6 +12,13 @@ import ru.job4j.todo.model.Priority;
  */
 public interface PriorityService {
 
+    /**
+     * Возвращает список всех приоритетов в порядке позиции.
+     *
+     * @return список приоритетов
+     */
+    List<Priority> findAllPriorities();
+
     /**
      * Выполняет поиск приоритета по имени. При успешном нахождении возвращает
      * приоритет.
@@ -0,0 +1,31 @@
+package ru.job4j.todo.service;
+
+import lombok.Getter;
+import ru.job4j.todo.model.Task;
+
+/**
+ * Исключение одновременного изменения задачи: задача изменена или удалена
+ * после открытия формы редактирования, версия задачи не совпала.
+ * Содержит задачу с изменениями пользователя для их сравнения с текущей версией.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Getter
+public class TaskConflictException extends RuntimeException {
+
+    /**
+     * Задача с изменениями пользователя
+     */
+    private final Task task;
+
+    /**
+     * Создает исключение одновременного изменения задачи.
+     *
+     * @param task задача с изменениями пользователя
+     * @param cause исходное исключение
+     */
+    public TaskConflictException(Task task, Throwable cause) {
+        super(String.format("Задание c id = %d изменено другим пользователем", task.getId()), cause);
+        this.task = task;
+    }
+}
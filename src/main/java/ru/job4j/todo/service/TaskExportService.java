@@ -0,0 +1,22 @@
+package ru.job4j.todo.service;
+
+import java.io.OutputStream;
+
+/**
+ * Сервис выгрузки задач в файлы CSV и JSON lines
+ * @see ru.job4j.todo.model.Task
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public interface TaskExportService {
+
+    /**
+     * Выполняет выгрузку задач пользователя в поток вывода.
+     *
+     * @param userId идентификатор пользователя
+     * @param format формат данных: csv или jsonl
+     * @param out поток вывода
+     * @return количество выгруженных задач
+     */
+    int exportTasks(int userId, String format, OutputStream out);
+}
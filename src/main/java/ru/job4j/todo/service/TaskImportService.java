@@ -0,0 +1,26 @@
+package ru.job4j.todo.service;
+
+import ru.job4j.todo.dto.ImportReport;
+import ru.job4j.todo.model.User;
+
+import java.io.Reader;
+
+/**
+ * Сервис импорта задач из файлов CSV и JSON lines
+ * @see ru.job4j.todo.model.Task
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public interface TaskImportService {
+
+    /**
+     * Выполняет импорт задач пользователя. Данные читаются построчно,
+     * сохранение выполняется пакетами фиксированного размера.
+     *
+     * @param reader источник данных
+     * @param format формат данных: csv или jsonl
+     * @param user пользователь, которому принадлежат задачи
+     * @return отчет об импорте
+     */
+    ImportReport importTasks(Reader reader, String format, User user);
+}
@@ -1,5 +1,8 @@
 package ru.job4j.todo.service;
 
+import ru.job4j.todo.dto.Page;
+import ru.job4j.todo.dto.TaskListView;
+import ru.job4j.todo.dto.TaskSearchResult;
 import ru.job4j.todo.model.Task;
 
 import java.util.List;
@@ -33,6 +36,41 @@ public interface TaskService {
      */
     List<Task> findDoneTasks();
 
+    /**
+     * Возвращает список задач пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @param done статус задач, null - задачи с любым статусом
+     * @return список задач пользователя
+     */
+    List<Task> findTasksByUser(int userId, Boolean done);
+
+    /**
+     * Возвращает страницу представлений задач пользователя для страницы списка задач.
+     * Если задан курсор before, возвращается страница задач, предшествующих ему,
+     * иначе страница задач, следующих за курсором after.
+     *
+     * @param userId идентификатор пользователя
+     * @param done статус задач, null - задачи с любым статусом
+     * @param after курсор следующей страницы, может быть null
+     * @param before курсор предыдущей страницы, может быть null
+     * @param size размер страницы
+     * @return страница задач
+     */
+    Page<TaskListView> findTasksPage(int userId, Boolean done, Integer after, Integer before, int size);
+
+    /**
+     * Возвращает страницу результатов полнотекстового поиска задач пользователя
+     * по наименованию и описанию, упорядоченных по убыванию релевантности.
+     *
+     * @param userId идентификатор пользователя
+     * @param text поисковый запрос
+     * @param page номер страницы, начиная с нуля
+     * @param size размер страницы
+     * @return страница результатов поиска, курсоры содержат номера соседних страниц
+     */
+    Page<TaskSearchResult> searchTasks(int userId, String text, int page, int size);
+
     /**
      * Выполняет поиск задачи по идентификатору. При успешном нахождении возвращает
      * задачу.
@@ -43,10 +81,11 @@ public interface TaskService {
     Task findTaskById(int id);
 
     /**
-     * Выполняет обновление задачи.
+     * Выполняет обновление задачи с условием на версию задачи.
      *
      * @param task обновляемая задача
      * @return задача при успешном обновлении
+     * @exception TaskConflictException если задача изменена или удалена после открытия формы
      */
     Task update(Task task);
 
@@ -60,12 +99,14 @@ public interface TaskService {
     Task add(Task task);
 
     /**
-     * Выполняет выбор методов класса для сохранения или обновления задачи.
+     * Выполняет выбор методов класса для сохранения или обновления задачи
+     * с установкой выбранных категорий.
      *
      * @param task сохраняемая задача
+     * @param categoryIds идентификаторы выбранных категорий
      * @return задача при успешном сохранении или обновлении
      */
-    Task addOrUpdateTask(Task task);
+    Task addOrUpdateTask(Task task, List<Integer> categoryIds);
 
     /**
      * Выполняет установку статуса задачи в выполнено.
@@ -81,4 +122,32 @@ public interface TaskService {
      * @param id идентификатор задачи
      */
     void deleteTaskById(int id);
+
+    /**
+     * Выполняет установку статуса выполнено выбранным задачам пользователя.
+     *
+     * @param ids идентификаторы задач
+     * @param userId идентификатор пользователя
+     * @return количество обновленных задач
+     */
+    int completeTasks(List<Integer> ids, int userId);
+
+    /**
+     * Выполняет удаление выбранных задач пользователя.
+     *
+     * @param ids идентификаторы задач
+     * @param userId идентификатор пользователя
+     * @return количество удаленных задач
+     */
+    int deleteTasks(List<Integer> ids, int userId);
+
+    /**
+     * Выполняет изменение приоритета выбранных задач пользователя.
+     *
+     * @param ids идентификаторы задач
+     * @param priorityName имя приоритета
+     * @param userId идентификатор пользователя
+     * @return количество обновленных задач
+     */
+    int changePriority(List<Integer> ids, String priorityName, int userId);
 }
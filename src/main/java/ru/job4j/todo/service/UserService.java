@@ -48,4 +48,13 @@ public interface UserService {
      * @return пользователя при успешном при совпадении пароля и почтового адреса
      */
     User validateUserLogin(User user);
+
+    /**
+     * Проверяет пароль пользователя с заданным логином (почтовым адресом).
+     *
+     * @param login логин (почтовый адрес) пользователя
+     * @param password пароль
+     * @return true, если пароль совпадает
+     */
+    boolean checkPassword(String login, String password);
 }
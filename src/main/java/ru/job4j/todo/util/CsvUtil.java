@@ -0,0 +1,109 @@
+package ru.job4j.todo.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Утилитный класс для разбора и формирования строк CSV (RFC 4180)
+ * с разделителем запятая. Поля в кавычках могут содержать перевод строки,
+ * такая запись занимает несколько строк, см. {@link CsvUtil#isOpenRecord(String)}.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+public final class CsvUtil {
+
+    /**
+     * Разделитель полей
+     */
+    private static final char SEPARATOR = ',';
+
+    /**
+     * Символ экранирования поля
+     */
+    private static final char QUOTE = '"';
+
+    /**
+     * Приватный конструктор класса для исключения наследования.
+     *
+     *@exception AssertionError выбрасывается при попытке вызвать конструктор
+     */
+    private CsvUtil() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Выполняет разбор строки CSV на поля.
+     *
+     * @param line строка CSV
+     * @return список полей строки
+     * @exception IllegalArgumentException если кавычки поля не закрыты
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == QUOTE && i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+                    field.append(QUOTE);
+                    i++;
+                } else if (c == QUOTE) {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == QUOTE) {
+                quoted = true;
+            } else if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+            i++;
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Не закрыты кавычки в строке CSV");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Проверяет, что в записи CSV остались незакрытые кавычки, т.е. поле в кавычках
+     * содержит перевод строки и запись продолжается на следующей строке.
+     * Удвоенные кавычки внутри поля не меняют четность количества кавычек.
+     *
+     * @param record прочитанная часть записи CSV
+     * @return true, если кавычки поля не закрыты
+     */
+    public static boolean isOpenRecord(String record) {
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == QUOTE) {
+                quoted = !quoted;
+            }
+        }
+        return quoted;
+    }
+
+    /**
+     * Выполняет экранирование поля CSV: поле, содержащее разделитель, кавычки
+     * или перевод строки, заключается в кавычки, кавычки внутри поля удваиваются.
+     *
+     * @param value значение поля, может быть null
+     * @return экранированное значение поля
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(SEPARATOR) < 0 && value.indexOf(QUOTE) < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return QUOTE + value.replace("\"", "\"\"") + QUOTE;
+    }
+}
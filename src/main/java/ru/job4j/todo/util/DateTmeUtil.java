@@ -2,11 +2,8 @@ package ru.job4j.todo.util;
 
 import ru.job4j.todo.model.User;
 
+import java.time.DateTimeException;
 import java.time.ZoneId;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
 
 /**
  * Утилитный класс для работы со временем и временными зонами
@@ -25,25 +22,30 @@ public final class DateTmeUtil {
     }
 
     /**
-     * Выполняет составление списка временных зон в Java.
+     * Возвращает временную зону пользователя, если временная зона
+     * отсутствует, то вернется временная зона 'Europe/London'
      *
-     * @return список временных зон
+     * @param user пользователь
+     * @return временная зона пользователя
      */
-    public static List<String> getTimeZoneIds() {
-        Set<String> zoneIds = ZoneId.getAvailableZoneIds();
-        List<String> zones = new ArrayList<>(zoneIds);
-        Collections.sort(zones);
-        return zones;
+    public static String getUserTimeZone(User user) {
+        return user.getTimezone() != null ? user.getTimezone() : "Europe/London";
     }
 
     /**
-     * Возвращает временную зону пользователя, если временная зона
-     * отсутствует, то вернется временная зона 'Europe/London'
+     * Возвращает временную зону пользователя как ZoneId. Если временная зона
+     * отсутствует или не распознана, то вернется временная зона 'Europe/London'.
+     * Разбор идентификатора зоны выполняется один раз при входе пользователя,
+     * далее зона берется из сессии.
      *
      * @param user пользователь
      * @return временная зона пользователя
      */
-    public static String getUserTimeZone(User user) {
-        return user.getTimezone() != null ? user.getTimezone() : "Europe/London";
+    public static ZoneId getUserZoneId(User user) {
+        try {
+            return ZoneId.of(getUserTimeZone(user));
+        } catch (DateTimeException e) {
+            return ZoneId.of("Europe/London");
+        }
     }
 }
@@ -3,6 +3,8 @@ package ru.job4j.todo.util;
 import ru.job4j.todo.model.User;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.time.ZoneId;
 
 /**
  * Утилитный класс для извлечения пользователя и сессии
@@ -11,6 +13,11 @@ import javax.servlet.http.HttpServletRequest;
  */
 public final class UserUtil {
 
+    /**
+     * Имя атрибута сессии с временной зоной пользователя
+     */
+    public static final String SESSION_ZONE = "zone";
+
     /**
      * Приватный конструктор класса для исключения наследования.
      *
@@ -21,17 +28,61 @@ public final class UserUtil {
     }
 
     /**
-     * Выполняет извлечение пользователя из сессии, если пользователь в
-     * сессии отсутствует, создается и возвращается новый пустой пользователь.
+     * Выполняет извлечение пользователя из атрибутов запроса, куда его записывает
+     * фильтр при аутентификации по маркеру, или из сессии. Если пользователя нет,
+     * создается и возвращается новый пустой пользователь.
+     * Сессия для анонимного пользователя не создается.
      *
      * @param req запрос пользователя
      * @return пользователя
      */
     public static User getSessionUser(HttpServletRequest req) {
-        User user = (User) req.getSession().getAttribute("user");
+        User user = (User) req.getAttribute("user");
+        if (user == null) {
+            HttpSession session = req.getSession(false);
+            user = session == null ? null : (User) session.getAttribute("user");
+        }
         if (user == null) {
             user = new User();
         }
         return user;
     }
+
+    /**
+     * Записывает пользователя в сессию вместе с его временной зоной,
+     * чтобы зона не определялась заново при выводе каждой страницы.
+     *
+     * @param session сессия клиента
+     * @param user пользователь
+     */
+    public static void setSessionUser(HttpSession session, User user) {
+        session.setAttribute("user", user);
+        session.setAttribute(SESSION_ZONE, DateTmeUtil.getUserZoneId(user));
+    }
+
+    /**
+     * Выполняет извлечение временной зоны пользователя из сессии. Если зона
+     * в сессии отсутствует, она определяется по пользователю сессии
+     * и записывается в сессию. При аутентификации по маркеру зона берется
+     * из атрибутов запроса. Без сессии возвращается зона по умолчанию.
+     *
+     * @param req запрос пользователя
+     * @return временная зона пользователя
+     */
+    public static ZoneId getSessionZone(HttpServletRequest req) {
+        ZoneId requestZone = (ZoneId) req.getAttribute(SESSION_ZONE);
+        if (requestZone != null) {
+            return requestZone;
+        }
+        HttpSession session = req.getSession(false);
+        if (session == null) {
+            return DateTmeUtil.getUserZoneId(new User());
+        }
+        ZoneId zone = (ZoneId) session.getAttribute(SESSION_ZONE);
+        if (zone == null) {
+            zone = DateTmeUtil.getUserZoneId(getSessionUser(req));
+            session.setAttribute(SESSION_ZONE, zone);
+        }
+        return zone;
+    }
 }
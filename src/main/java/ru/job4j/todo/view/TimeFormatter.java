@@ -0,0 +1,50 @@
+package ru.job4j.todo.view;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Форматирование моментов времени для вывода на страницах. Используется
+ * в шаблонах как ${@timeFormatter.format(task.created, zone)}, где zone -
+ * временная зона пользователя из сессии. Перевод в зону пользователя
+ * выполняется только при выводе, объекты задач не изменяются.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Component
+public class TimeFormatter {
+
+    /**
+     * Шаблон вывода времени на страницах
+     */
+    private static final String PATTERN = "HH:mm dd.MM.yyyy";
+
+    /**
+     * Форматтер без временной зоны
+     */
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN);
+
+    /**
+     * Форматтеры по временным зонам, создаются один раз для каждой зоны
+     */
+    private final Map<ZoneId, DateTimeFormatter> formatters = new ConcurrentHashMap<>();
+
+    /**
+     * Возвращает момент времени в виде строки по временной зоне пользователя.
+     *
+     * @param instant момент времени
+     * @param zone временная зона пользователя
+     * @return строка времени, пустая строка, если момент времени отсутствует
+     */
+    public String format(Instant instant, ZoneId zone) {
+        if (instant == null) {
+            return "";
+        }
+        return formatters.computeIfAbsent(zone, FORMATTER::withZone).format(instant);
+    }
+}
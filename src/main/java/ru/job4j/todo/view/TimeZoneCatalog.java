@@ -0,0 +1,169 @@
+package ru.job4j.todo.view;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.job4j.todo.dto.TimeZoneOption;
+import ru.job4j.todo.dto.TimeZoneRegion;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Каталог временных зон для выбора временной зоны пользователя.
+ * Каталог строится один раз при запуске приложения: идентификаторы зон
+ * упорядочены и сгруппированы по регионам, смещения от UTC и подписи
+ * вычислены заранее. Страницы регистрации и редактирования пользователя
+ * получают готовый неизменяемый список без копирования и сортировки.
+ * Смещения зон меняются при переходе на летнее время, поэтому каталог
+ * перестраивается ежедневно и заменяется целиком.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class TimeZoneCatalog {
+
+    /**
+     * Наименование региона для зон без региона в идентификаторе (UTC, GMT и т.п.)
+     */
+    private static final String OTHER_REGION = "Other";
+
+    /**
+     * Язык наименований временных зон
+     */
+    private static final Locale LOCALE = new Locale("ru");
+
+    /**
+     * Часы для вычисления текущих смещений зон
+     */
+    private final Clock clock;
+
+    /**
+     * Текущее состояние каталога
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Создает каталог по системным часам.
+     */
+    public TimeZoneCatalog() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * Создает каталог по заданным часам.
+     *
+     * @param clock часы для вычисления текущих смещений зон
+     */
+    TimeZoneCatalog(Clock clock) {
+        this.clock = clock;
+        this.snapshot = build(clock.instant());
+    }
+
+    /**
+     * Перестраивает каталог с текущими смещениями зон. Выполняется ежедневно.
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void refresh() {
+        snapshot = build(clock.instant());
+        log.debug("Каталог временных зон обновлен, зон: {}", snapshot.byId.size());
+    }
+
+    /**
+     * Возвращает регионы временных зон, упорядоченные по наименованию.
+     *
+     * @return неизменяемый список регионов
+     */
+    public List<TimeZoneRegion> getRegions() {
+        return snapshot.regions;
+    }
+
+    /**
+     * Проверяет, что идентификатор временной зоны есть в каталоге.
+     *
+     * @param zoneId идентификатор временной зоны
+     * @return true, если временная зона есть в каталоге
+     */
+    public boolean contains(String zoneId) {
+        return zoneId != null && snapshot.byId.containsKey(zoneId);
+    }
+
+    /**
+     * Выполняет поиск временной зоны в каталоге по идентификатору.
+     *
+     * @param zoneId идентификатор временной зоны
+     * @return Optional временной зоны, пустой Optional, если зоны нет в каталоге
+     */
+    public Optional<TimeZoneOption> find(String zoneId) {
+        return zoneId == null ? Optional.empty() : Optional.ofNullable(snapshot.byId.get(zoneId));
+    }
+
+    /**
+     * Строит состояние каталога со смещениями зон на заданный момент.
+     *
+     * @param now момент вычисления смещений
+     * @return состояние каталога
+     */
+    private static Snapshot build(Instant now) {
+        Map<String, List<TimeZoneOption>> regions = new TreeMap<>();
+        Map<String, TimeZoneOption> byId = new HashMap<>();
+        for (String id : ZoneId.getAvailableZoneIds()) {
+            ZoneId zone = ZoneId.of(id);
+            ZoneOffset offset = zone.getRules().getOffset(now);
+            TimeZoneOption option = new TimeZoneOption(id, offset.getTotalSeconds(),
+                    "(UTC" + (offset.getTotalSeconds() == 0 ? "+00:00" : offset.getId()) + ") " + id,
+                    zone.getDisplayName(TextStyle.FULL, LOCALE));
+            int slash = id.indexOf('/');
+            regions.computeIfAbsent(slash > 0 ? id.substring(0, slash) : OTHER_REGION, k -> new ArrayList<>())
+                    .add(option);
+            byId.put(id, option);
+        }
+        List<TimeZoneRegion> result = new ArrayList<>(regions.size());
+        for (Map.Entry<String, List<TimeZoneOption>> entry : regions.entrySet()) {
+            List<TimeZoneOption> zones = entry.getValue();
+            zones.sort(Comparator.comparing(TimeZoneOption::getId));
+            result.add(new TimeZoneRegion(entry.getKey(), List.copyOf(zones)));
+        }
+        return new Snapshot(List.copyOf(result), Map.copyOf(byId));
+    }
+
+    /**
+     * Неизменяемое состояние каталога: регионы для вывода на страницах
+     * и временные зоны по идентификатору для проверки выбора пользователя.
+     */
+    private static final class Snapshot {
+
+        /**
+         * Регионы временных зон
+         */
+        private final List<TimeZoneRegion> regions;
+
+        /**
+         * Временные зоны по идентификатору
+         */
+        private final Map<String, TimeZoneOption> byId;
+
+        /**
+         * Создает состояние каталога.
+         *
+         * @param regions регионы временных зон
+         * @param byId временные зоны по идентификатору
+         */
+        private Snapshot(List<TimeZoneRegion> regions, Map<String, TimeZoneOption> byId) {
+            this.regions = regions;
+            this.byId = byId;
+        }
+    }
+}
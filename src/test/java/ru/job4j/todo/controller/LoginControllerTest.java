@@ -4,12 +4,18 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.ui.Model;
+import ru.job4j.todo.filter.Authenticator;
 import ru.job4j.todo.model.User;
 import ru.job4j.todo.service.UserService;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 /**
@@ -45,6 +51,11 @@ class LoginControllerTest {
      */
     HttpSession session;
 
+    /**
+     * Ответ
+     */
+    HttpServletResponse response;
+
     /**
      * Модель
      */
@@ -57,9 +68,10 @@ class LoginControllerTest {
     @BeforeEach
     void setUp() {
         userService = mock(UserService.class);
-        loginController = new LoginController(userService);
+        loginController = new LoginController(userService, new Authenticator("session", "", Duration.ofHours(8), null));
         model = mock(Model.class);
         request = mock(HttpServletRequest.class);
+        response = mock(HttpServletResponse.class);
         session = mock(HttpSession.class);
         user = User.builder()
                 .id(1)
@@ -77,10 +89,10 @@ class LoginControllerTest {
         String error = null;
         String logout = null;
         String errorMessage = null;
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
 
-        String result = loginController.loginPage(error, logout, model, request);
+        String result = loginController.loginPage(error, logout, null, model, request);
 
         verify(model).addAttribute("errorMessage", errorMessage);
         verify(model).addAttribute("user", user);
@@ -96,10 +108,10 @@ class LoginControllerTest {
         String error = "true";
         String logout = null;
         String errorMessage = "Имя аккаунта или пароль введены неправильно!";
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
 
-        String template = loginController.loginPage(error, logout, model, request);
+        String template = loginController.loginPage(error, logout, null, model, request);
 
         verify(model).addAttribute("errorMessage", errorMessage);
         verify(model).addAttribute("user", user);
@@ -115,16 +127,34 @@ class LoginControllerTest {
         String error = null;
         String logout = "true";
         String errorMessage = "Вы вышли!";
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
 
-        String template = loginController.loginPage(error, logout, model, request);
+        String template = loginController.loginPage(error, logout, null, model, request);
 
         verify(model).addAttribute("errorMessage", errorMessage);
         verify(model).addAttribute("user", user);
         Assertions.assertThat(template).isEqualTo("user/login");
     }
 
+    /**
+     * Выполняется проверка перенаправления на страницу входа с сообщением
+     * о перегрузке, если очередь проверки паролей заполнена.
+     */
+    @Test
+    void whenLoginRejectedThenBusyMessage() {
+        doThrow(new RejectedExecutionException()).when(userService).validateUserLogin(user);
+
+        RejectedExecutionException e = assertThrows(RejectedExecutionException.class,
+                () -> loginController.loginUser(user, request, response));
+        String result = loginController.busyHandler(e);
+        String template = loginController.loginPage(null, null, "true", model, request);
+
+        verify(model).addAttribute("errorMessage", "Сервер перегружен, повторите вход позже");
+        Assertions.assertThat(result).isEqualTo("redirect:/login?busy=true");
+        Assertions.assertThat(template).isEqualTo("user/login");
+    }
+
     /**
      * Выполняется проверка возвращения страницы со списком задач,
      * при удачном входе пользователя.
@@ -134,9 +164,10 @@ class LoginControllerTest {
         doReturn(user).when(userService).validateUserLogin(user);
         doReturn(session).when(request).getSession();
 
-        String result = loginController.loginUser(user, request);
+        String result = loginController.loginUser(user, request, response);
 
         verify(session).setAttribute("user", user);
+        verify(session).setAttribute("zone", ZoneId.of("Europe/Moscow"));
         Assertions.assertThat(result).isEqualTo("redirect:/tasks");
     }
 
@@ -146,7 +177,9 @@ class LoginControllerTest {
      */
     @Test
     void whenLogout() {
-        String template = loginController.logoutPage(session);
+        doReturn(session).when(request).getSession(false);
+
+        String template = loginController.logoutPage(request, response);
 
         verify(session).invalidate();
         Assertions.assertThat(template).isEqualTo("redirect:/login?logout=true");
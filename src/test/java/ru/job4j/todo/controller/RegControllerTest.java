@@ -7,10 +7,13 @@ import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
 import ru.job4j.todo.model.User;
 import ru.job4j.todo.service.UserService;
+import ru.job4j.todo.view.TimeZoneCatalog;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verify;
 
@@ -27,6 +30,11 @@ class RegControllerTest {
      */
     private UserService userService;
 
+    /**
+     * Каталог временных зон
+     */
+    private TimeZoneCatalog timeZoneCatalog;
+
     /**
      * Объект для доступа к методам RegController
      */
@@ -64,7 +72,8 @@ class RegControllerTest {
     @BeforeEach
     void setUp() {
         userService = mock(UserService.class);
-        regController = new RegController(userService);
+        timeZoneCatalog = new TimeZoneCatalog();
+        regController = new RegController(userService, timeZoneCatalog);
         model = mock(Model.class);
         request = mock(HttpServletRequest.class);
         session = mock(HttpSession.class);
@@ -86,10 +95,10 @@ class RegControllerTest {
         String password = null;
         String account = null;
         String errorMessage = null;
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
 
-        String template = regController.regPage(password, account, model, request);
+        String template = regController.regPage(password, account, null, model, request);
 
         verify(model).addAttribute("errorMessage", errorMessage);
         verify(model).addAttribute("user", user);
@@ -105,10 +114,10 @@ class RegControllerTest {
         String password = "true";
         String account = null;
         String errorMessage = "Пароли должны совпадать!";
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
 
-        String template = regController.regPage(password, account, model, request);
+        String template = regController.regPage(password, account, null, model, request);
 
         verify(model).addAttribute("errorMessage", errorMessage);
         verify(model).addAttribute("user", user);
@@ -124,10 +133,10 @@ class RegControllerTest {
         String password = null;
         String account = "true";
         String errorMessage = "Пользователь с таким email существует!";
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
 
-        String template = regController.regPage(password, account, model, request);
+        String template = regController.regPage(password, account, null, model, request);
 
         verify(model).addAttribute("errorMessage", errorMessage);
         verify(model).addAttribute("user", user);
@@ -143,12 +152,39 @@ class RegControllerTest {
         String repassword = "password";
         doReturn(true).when(errors).hasErrors();
 
-        String template = regController.regSave(user, errors, repassword);
+        String template = regController.regSave(user, errors, repassword, model);
 
         verify(userService, times(0)).add(user);
+        verify(model).addAttribute("zones", timeZoneCatalog.getRegions());
         Assertions.assertThat(template).isEqualTo("user/registration");
     }
 
+    /**
+     * Выполняется проверка отклонения временной зоны, которой нет в каталоге.
+     */
+    @Test
+    void whenRegistrationSaveIfTimezoneUnknownThenError() {
+        user.setTimezone("Mars/Olympus");
+
+        regController.regSave(user, errors, "password", model);
+
+        verify(errors).rejectValue("timezone", "timezone.unknown", "Неизвестная временная зона");
+    }
+
+    /**
+     * Выполняется проверка регистрации пользователя без выбранной временной зоны.
+     */
+    @Test
+    void whenRegistrationSaveIfTimezoneEmptyThenNull() {
+        user.setTimezone("");
+
+        String template = regController.regSave(user, errors, "password", model);
+
+        verify(errors, never()).rejectValue(any(), any(), any());
+        Assertions.assertThat(user.getTimezone()).isNull();
+        Assertions.assertThat(template).isEqualTo("redirect:/login");
+    }
+
     /**
      * Выполняется проверка возвращения страницы регистрации,
      * при несовпадении паролей при повторном вводе.
@@ -157,7 +193,7 @@ class RegControllerTest {
     void whenRegistrationSaveIfPasswordNotEqual() {
         String repassword = "pwd";
 
-        String template = regController.regSave(user, errors, repassword);
+        String template = regController.regSave(user, errors, repassword, model);
 
         verify(userService, times(0)).add(user);
         Assertions.assertThat(template).isEqualTo("redirect:/registration?password=true");
@@ -171,9 +207,29 @@ class RegControllerTest {
     void whenRegistrationSaveSuccess() {
         String repassword = "password";
 
-        String template = regController.regSave(user, errors, repassword);
+        String template = regController.regSave(user, errors, repassword, model);
 
         verify(userService, times(1)).add(user);
         Assertions.assertThat(template).isEqualTo("redirect:/login");
     }
-}
\ No newline at end of file
+
+    /**
+     * Выполняется проверка перенаправления на страницу регистрации с сообщением
+     * о перегрузке, если очередь хеширования паролей заполнена.
+     */
+    @Test
+    void whenRegistrationRejectedThenBusyMessage() {
+        doThrow(new RejectedExecutionException()).when(userService).add(user);
+        doReturn(session).when(request).getSession(false);
+        doReturn(user).when(session).getAttribute("user");
+
+        RejectedExecutionException e = assertThrows(RejectedExecutionException.class,
+                () -> regController.regSave(user, errors, "password", model));
+        String result = regController.busyHandler(e);
+        String template = regController.regPage(null, null, "true", model, request);
+
+        verify(model).addAttribute("errorMessage", "Сервер перегружен, повторите попытку позже");
+        Assertions.assertThat(result).isEqualTo("redirect:/registration?busy=true");
+        Assertions.assertThat(template).isEqualTo("user/registration");
+    }
+}
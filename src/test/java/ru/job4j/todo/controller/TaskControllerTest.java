@@ -3,19 +3,33 @@ package ru.job4j.todo.controller;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
 import org.springframework.ui.Model;
+import org.springframework.web.server.ResponseStatusException;
+import ru.job4j.todo.dto.Page;
+import ru.job4j.todo.dto.TaskListView;
+import ru.job4j.todo.dto.TaskSearchResult;
 import ru.job4j.todo.model.Category;
+import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.model.Task;
 import ru.job4j.todo.model.User;
 import ru.job4j.todo.service.CategoryService;
+import ru.job4j.todo.service.PriorityService;
+import ru.job4j.todo.service.TaskConflictException;
 import ru.job4j.todo.service.TaskService;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -36,6 +50,11 @@ class TaskControllerTest {
      */
     private CategoryService categoryService;
 
+    /**
+     * Объект для доступа к методам PriorityService
+     */
+    private PriorityService priorityService;
+
     /**
      * Объект для доступа к методам TaskController
      */
@@ -74,7 +93,8 @@ class TaskControllerTest {
     void setUp() {
         taskService = mock(TaskService.class);
         categoryService = mock(CategoryService.class);
-        taskController = new TaskController(taskService, categoryService);
+        priorityService = mock(PriorityService.class);
+        taskController = new TaskController(taskService, categoryService, priorityService);
         model = mock(Model.class);
         request = mock(HttpServletRequest.class);
         session = mock(HttpSession.class);
@@ -88,7 +108,7 @@ class TaskControllerTest {
         task = Task.builder()
                 .id(1)
                 .name("name")
-                .created(LocalDateTime.now())
+                .created(Instant.parse("2022-10-01T09:00:00Z"))
                 .build();
     }
 
@@ -97,15 +117,26 @@ class TaskControllerTest {
      */
     @Test
     void whenGetAllTasks() {
-        List<Task> tasks = new ArrayList<>();
-                doReturn(session).when(request).getSession();
+        Instant created = Instant.parse("2022-10-01T09:00:00Z");
+        List<TaskListView> tasks = List.of(new TaskListView(1, "name", created, false, "name", "priority"));
+        Page<TaskListView> page = new Page<>(tasks, null, 1);
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
-        doReturn(tasks).when(taskService).findAllTasks();
+        doReturn(page).when(taskService).findTasksPage(user.getId(), null, null, null, 20);
+
+        List<Priority> priorities = List.of(Priority.builder().id(1).name("Высокий").position(1).build());
+        doReturn(priorities).when(priorityService).findAllPriorities();
 
-        String template = taskController.getTasks(model, request);
+        String template = taskController.getTasks(null, null, model, request);
 
         verify(model).addAttribute("tasks", tasks);
+        verify(model).addAttribute("priorities", priorities);
+        verify(model).addAttribute(eq("page"), argThat(p -> ((Page<?>) p).getNextCursor() == 1));
+        verify(model).addAttribute("listUrl", "/tasks");
         verify(model).addAttribute("user", user);
+        verify(model).addAttribute("zone", ZoneId.of("Europe/Moscow"));
+        verify(session).setAttribute("zone", ZoneId.of("Europe/Moscow"));
+        Assertions.assertThat(tasks.get(0).getCreated()).isEqualTo(created);
         Assertions.assertThat(template).isEqualTo("task/tasks");
     }
 
@@ -114,14 +145,17 @@ class TaskControllerTest {
      */
     @Test
     void whenGetNewTasks() {
-        List<Task> tasks = new ArrayList<>();
-                doReturn(session).when(request).getSession();
+        List<TaskListView> tasks = new ArrayList<>();
+        Page<TaskListView> page = new Page<>(tasks, null, null);
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
-        doReturn(tasks).when(taskService).findNewTasks();
+        doReturn(page).when(taskService).findTasksPage(user.getId(), false, null, null, 20);
 
-        String template = taskController.getTasks(model, request);
+        String template = taskController.getNewTasks(null, null, model, request);
 
         verify(model).addAttribute("tasks", tasks);
+        verify(model).addAttribute("page", page);
+        verify(model).addAttribute("listUrl", "/newTasks");
         verify(model).addAttribute("user", user);
         Assertions.assertThat(template).isEqualTo("task/tasks");
     }
@@ -131,24 +165,46 @@ class TaskControllerTest {
      */
     @Test
     void whenGetDoneTasks() {
-        List<Task> tasks = new ArrayList<>();
-                doReturn(session).when(request).getSession();
+        List<TaskListView> tasks = new ArrayList<>();
+        Page<TaskListView> page = new Page<>(tasks, null, null);
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
-        doReturn(tasks).when(taskService).findDoneTasks();
+        doReturn(page).when(taskService).findTasksPage(user.getId(), true, null, null, 20);
 
-        String template = taskController.getTasks(model, request);
+        String template = taskController.getDoneTasks(null, null, model, request);
 
         verify(model).addAttribute("tasks", tasks);
+        verify(model).addAttribute("page", page);
+        verify(model).addAttribute("listUrl", "/doneTasks");
         verify(model).addAttribute("user", user);
         Assertions.assertThat(template).isEqualTo("task/tasks");
     }
 
+    /**
+     * Выполняется проверка возвращения страницы результатов поиска задач.
+     */
+    @Test
+    void whenSearchTasks() {
+        Page<TaskSearchResult> page = new Page<>(new ArrayList<>(), null, null);
+        doReturn(session).when(request).getSession(false);
+        doReturn(user).when(session).getAttribute("user");
+        doReturn(page).when(taskService).searchTasks(user.getId(), "молоко", 0, 20);
+
+        String template = taskController.searchTasks("молоко", 0, model, request);
+
+        verify(model).addAttribute("page", page);
+        verify(model).addAttribute("query", "молоко");
+        verify(model).addAttribute("user", user);
+        verify(model).addAttribute("zone", ZoneId.of("Europe/Moscow"));
+        Assertions.assertThat(template).isEqualTo("task/searchTasks");
+    }
+
     /**
      * Выполняется проверка возвращения страницы добавления новой задачи.
      */
     @Test
     void whenAddTask() {
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
 
         String template = taskController.addTask(model, request);
@@ -165,13 +221,12 @@ class TaskControllerTest {
     @Test
     void whenSaveTaskThenRedirectTasks() {
         List<Integer> categoryIds = List.of(1, 2);
-        List<Category> categories = new ArrayList<>();
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
-        doReturn(categories).when(categoryService).findCategoriesByIds(categoryIds);
 
         String template = taskController.saveTask(task, categoryIds, request);
 
+        verify(taskService).addOrUpdateTask(task, categoryIds);
         Assertions.assertThat(template).isEqualTo("redirect:/tasks");
     }
 
@@ -181,14 +236,17 @@ class TaskControllerTest {
     @Test
     void whenGetTaskDetails() {
         int taskId = 1;
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
+        doReturn(ZoneId.of("Asia/Tokyo")).when(session).getAttribute("zone");
         doReturn(task).when(taskService).findTaskById(taskId);
 
         String template = taskController.getTaskDetails(taskId, model, request);
 
         verify(model).addAttribute("task", task);
         verify(model).addAttribute("user", user);
+        verify(model).addAttribute("zone", ZoneId.of("Asia/Tokyo"));
+        verify(session, never()).setAttribute(eq("zone"), any());
         Assertions.assertThat(template).isEqualTo("task/taskDetails");
     }
 
@@ -199,7 +257,7 @@ class TaskControllerTest {
     @Test
     void whenGetTaskDoneThenTaskDetails() {
         int taskId = 1;
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
         doReturn(task).when(taskService).taskDone(taskId);
 
@@ -217,7 +275,7 @@ class TaskControllerTest {
     void whenGetEditTask() {
         int taskId = 1;
         List<Category> categories = new ArrayList<>();
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
         doReturn(task).when(taskService).findTaskById(taskId);
         doReturn(categories).when(categoryService).findAllCategories();
@@ -227,6 +285,7 @@ class TaskControllerTest {
         verify(model).addAttribute("categories", categories);
         verify(model).addAttribute("task", task);
         verify(model).addAttribute("user", user);
+        Assertions.assertThat(task.getCreated()).isEqualTo(Instant.parse("2022-10-01T09:00:00Z"));
         Assertions.assertThat(template).isEqualTo("task/editTask");
     }
 
@@ -243,4 +302,87 @@ class TaskControllerTest {
 
         Assertions.assertThat(template).isEqualTo("redirect:/tasks");
     }
-}
\ No newline at end of file
+
+    /**
+     * Выполняется проверка вызова групповых действий над заданиями
+     * пользователя и возврата на страницу списка заданий.
+     */
+    @Test
+    void whenBulkTasksThenRedirectList() {
+        List<Integer> taskIds = List.of(1, 2);
+        doReturn(session).when(request).getSession(false);
+        doReturn(user).when(session).getAttribute("user");
+
+        String done = taskController.bulkTasks(taskIds, "done", null, "/newTasks", request);
+        String delete = taskController.bulkTasks(taskIds, "delete", null, null, request);
+        String priority = taskController.bulkTasks(taskIds, "priority", "Высокий", "http://evil", request);
+
+        verify(taskService).completeTasks(taskIds, user.getId());
+        verify(taskService).deleteTasks(taskIds, user.getId());
+        verify(taskService).changePriority(taskIds, "Высокий", user.getId());
+        Assertions.assertThat(done).isEqualTo("redirect:/newTasks");
+        Assertions.assertThat(delete).isEqualTo("redirect:/tasks");
+        Assertions.assertThat(priority).isEqualTo("redirect:/tasks");
+    }
+
+    /**
+     * Выполняется проверка страницы конфликта при сохранении задания,
+     * измененного другим пользователем: форма получает текущую версию задания,
+     * на странице отображаются текущее задание и изменения пользователя.
+     */
+    @Test
+    void whenTaskConflictThenMergePageWithCurrentVersion() {
+        task.setVersion(1);
+        task.setCategories(List.of(Category.builder().id(2).name("category").build()));
+        Task current = Task.builder()
+                .id(1)
+                .name("current")
+                .created(Instant.parse("2022-10-01T09:00:00Z"))
+                .version(3)
+                .build();
+        doReturn(session).when(request).getSession(false);
+        doReturn(user).when(session).getAttribute("user");
+        doReturn(current).when(taskService).findTaskById(1);
+
+        String page = taskController.taskConflictHandler(new TaskConflictException(task, null), model, request);
+
+        verify(model).addAttribute("task", task);
+        verify(model).addAttribute("current", current);
+        verify(model).addAttribute("categoryIds", Set.of(2));
+        Assertions.assertThat(task.getVersion()).isEqualTo(3);
+        Assertions.assertThat(page).isEqualTo("task/taskConflict");
+    }
+
+    /**
+     * Выполняется проверка страницы конфликта при сохранении удаленного задания:
+     * изменения пользователя будут сохранены как новое задание.
+     */
+    @Test
+    void whenConflictTaskDeletedThenSavedAsNew() {
+        doReturn(session).when(request).getSession(false);
+        doReturn(user).when(session).getAttribute("user");
+        doThrow(new NoSuchElementException()).when(taskService).findTaskById(1);
+
+        String page = taskController.taskConflictHandler(new TaskConflictException(task, null), model, request);
+
+        verify(model).addAttribute("current", null);
+        Assertions.assertThat(task.getId()).isZero();
+        Assertions.assertThat(page).isEqualTo("task/taskConflict");
+    }
+
+    /**
+     * Выполняется проверка ответа 400 при неизвестном групповом действии
+     * без изменения заданий.
+     */
+    @Test
+    void whenUnknownBulkActionThenBadRequest() {
+        doReturn(session).when(request).getSession(false);
+        doReturn(user).when(session).getAttribute("user");
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> taskController.bulkTasks(List.of(1), "archive", null, "/tasks", request));
+
+        Assertions.assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(taskService);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.job4j.todo.controller;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.service.TaskExportService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тест класс реализации контроллера выгрузки задач
+ * @see ru.job4j.todo.controller.TaskExportController
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class TaskExportControllerTest {
+
+    /**
+     * Объект для доступа к методам TaskExportController
+     */
+    private TaskExportController taskExportController;
+
+    /**
+     * Запрос
+     */
+    private MockHttpServletRequest request;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Сервис выгрузки записывает в поток строку для пользователя с id = 1.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        TaskExportService taskExportService = mock(TaskExportService.class);
+        taskExportController = new TaskExportController(taskExportService);
+        request = new MockHttpServletRequest("GET", "/exportTasks");
+        request.getSession().setAttribute("user", User.builder().id(1).name("username").build());
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("id,name\n".getBytes(StandardCharsets.UTF_8));
+            return 0;
+        }).when(taskExportService).exportTasks(eq(1), eq("csv"), any());
+    }
+
+    /**
+     * Выполняется проверка потоковой выгрузки задач пользователя без сжатия.
+     */
+    @Test
+    void whenExportTasksThenStreamBody() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = taskExportController.exportTasks("csv", false, request);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        Assertions.assertThat(response.getHeaders().getContentType().toString()).isEqualTo("text/csv;charset=UTF-8");
+        Assertions.assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+                .isEqualTo("attachment; filename=\"tasks.csv\"");
+        Assertions.assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("id,name\n");
+    }
+
+    /**
+     * Выполняется проверка сжатой выгрузки задач пользователя.
+     */
+    @Test
+    void whenExportTasksGzipThenCompressedBody() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = taskExportController.exportTasks("csv", true, request);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()));
+
+        Assertions.assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+                .isEqualTo("attachment; filename=\"tasks.csv.gz\"");
+        Assertions.assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("id,name\n");
+    }
+
+    /**
+     * Выполняется проверка выброса исключения при неподдерживаемом формате.
+     */
+    @Test
+    void whenUnknownFormatThenThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> taskExportController.exportTasks("xml", false, request));
+    }
+}
@@ -0,0 +1,80 @@
+package ru.job4j.todo.controller;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import ru.job4j.todo.dto.ImportReport;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.service.TaskImportService;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тест класс реализации контроллера импорта задач
+ * @see ru.job4j.todo.controller.TaskImportController
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class TaskImportControllerTest {
+
+    /**
+     * Объект для доступа к методам TaskImportService
+     */
+    private TaskImportService taskImportService;
+
+    /**
+     * Объект для доступа к методам TaskImportController
+     */
+    private TaskImportController taskImportController;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        taskImportService = mock(TaskImportService.class);
+        taskImportController = new TaskImportController(taskImportService);
+    }
+
+    /**
+     * Выполняется проверка передачи тела запроса и пользователя сессии
+     * в сервис импорта и возврата отчета об импорте.
+     */
+    @Test
+    void whenImportTasksThenReturnReport() throws IOException {
+        User user = User.builder()
+                .id(1)
+                .name("username")
+                .build();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/importTasks");
+        request.getSession().setAttribute("user", user);
+        request.setContent("name,priority\ntask,Высокий\n".getBytes(StandardCharsets.UTF_8));
+        ImportReport report = new ImportReport();
+        doReturn(report).when(taskImportService).importTasks(any(Reader.class), eq("csv"), eq(user));
+
+        Assertions.assertThat(taskImportController.importTasks("csv", request)).isSameAs(report);
+    }
+
+    /**
+     * Выполняется проверка ответа с кодом 400 при некорректных параметрах импорта.
+     */
+    @Test
+    void whenIllegalArgumentThenBadRequest() {
+        ResponseEntity<String> response = taskImportController.illegalArgumentExceptionHandler(
+                new IllegalArgumentException("Формат импорта xml не поддерживается"));
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        Assertions.assertThat(response.getBody()).isEqualTo("Формат импорта xml не поддерживается");
+    }
+}
@@ -0,0 +1,64 @@
+package ru.job4j.todo.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.job4j.todo.dto.TaskSuggestion;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.search.TaskNameIndex;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тест класс контроллера подсказок при вводе наименования задачи
+ * @see ru.job4j.todo.controller.TaskSuggestController
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class TaskSuggestControllerTest {
+
+    /**
+     * Моск объекта TaskNameIndex
+     */
+    private TaskNameIndex taskNameIndex;
+
+    /**
+     * Моск объекта HttpServletRequest
+     */
+    private HttpServletRequest request;
+
+    /**
+     * Контроллер подсказок
+     */
+    private TaskSuggestController controller;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        taskNameIndex = mock(TaskNameIndex.class);
+        request = mock(HttpServletRequest.class);
+        HttpSession session = mock(HttpSession.class);
+        doReturn(session).when(request).getSession(false);
+        doReturn(User.builder().id(1).name("username").build()).when(session).getAttribute("user");
+        controller = new TaskSuggestController(taskNameIndex);
+    }
+
+    /**
+     * Выполняется проверка возвращения подсказок текущего пользователя.
+     */
+    @Test
+    void whenSuggestTasksThenReturnUserSuggestions() {
+        List<TaskSuggestion> suggestions = List.of(new TaskSuggestion(1, "Купить молоко"));
+        doReturn(suggestions).when(taskNameIndex).suggest(1, "мол", 10);
+
+        assertThat(controller.suggestTasks("мол", request)).isEqualTo(suggestions);
+    }
+}
@@ -5,12 +5,19 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
+import ru.job4j.todo.filter.Authenticator;
 import ru.job4j.todo.model.User;
 import ru.job4j.todo.service.UserService;
+import ru.job4j.todo.view.TimeZoneCatalog;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verify;
 
@@ -27,6 +34,11 @@ class UserControllerTest {
      */
     private UserService userService;
 
+    /**
+     * Каталог временных зон
+     */
+    private TimeZoneCatalog timeZoneCatalog;
+
     /**
      * Объект для доступа к методам UserController
      */
@@ -47,6 +59,11 @@ class UserControllerTest {
      */
     HttpSession session;
 
+    /**
+     * Ответ
+     */
+    HttpServletResponse response;
+
     /**
      * Модель
      */
@@ -64,9 +81,12 @@ class UserControllerTest {
     @BeforeEach
     void setUp() {
         userService = mock(UserService.class);
-        userController = new UserController(userService);
+        timeZoneCatalog = new TimeZoneCatalog();
+        userController = new UserController(userService, timeZoneCatalog,
+                new Authenticator("session", "", Duration.ofHours(8), null));
         model = mock(Model.class);
         request = mock(HttpServletRequest.class);
+        response = mock(HttpServletResponse.class);
         session = mock(HttpSession.class);
         errors = mock(Errors.class);
         user = User.builder()
@@ -86,10 +106,10 @@ class UserControllerTest {
     void whenGetUserEditPageIfPasswordParameterNotNullThenError() {
         String password = "true";
         String errorMessage = "Неверно введен старый пароль";
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
 
-        String template = userController.getUserEdit(password, model, request);
+        String template = userController.getUserEdit(password, null, model, request);
 
         verify(model).addAttribute("errorMessage", errorMessage);
         verify(model).addAttribute("user", user);
@@ -103,13 +123,14 @@ class UserControllerTest {
     void whenGetUserEditPageSuccess() {
         String password = null;
         String errorMessage = null;
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
 
-        String template = userController.getUserEdit(password, model, request);
+        String template = userController.getUserEdit(password, null, model, request);
 
         verify(model).addAttribute("errorMessage", errorMessage);
         verify(model).addAttribute("user", user);
+        verify(model).addAttribute("zones", timeZoneCatalog.getRegions());
         Assertions.assertThat(template).isEqualTo("user/userEdit");
     }
 
@@ -122,12 +143,13 @@ class UserControllerTest {
         String oldPassword = "password";
         doReturn(session).when(request).getSession();
         doReturn(user).when(session).getAttribute("user");
-        doReturn(user).when(userService).findUserByLogin(user.getLogin());
+        doReturn(true).when(userService).checkPassword(user.getLogin(), oldPassword);
 
-        String template = userController.userEdit(user, errors, oldPassword, request);
+        String template = userController.userEdit(user, errors, oldPassword, model, request, response);
 
         verify(userService).update(user);
         verify(session).setAttribute("user", user);
+        verify(session).setAttribute("zone", ZoneId.of("Europe/Moscow"));
         Assertions.assertThat(template).isEqualTo("redirect:/tasks");
     }
 
@@ -140,8 +162,24 @@ class UserControllerTest {
         String oldPassword = null;
         doReturn(true).when(errors).hasErrors();
 
-        String template = userController.userEdit(user, errors, oldPassword, request);
+        String template = userController.userEdit(user, errors, oldPassword, model, request, response);
+
+        verify(model).addAttribute("zones", timeZoneCatalog.getRegions());
+        Assertions.assertThat(template).isEqualTo("user/userEdit");
+    }
+
+    /**
+     * Выполняется проверка отклонения временной зоны, которой нет в каталоге.
+     */
+    @Test
+    void whenUserEditPageIfTimezoneUnknownThenError() {
+        user.setTimezone("Mars/Olympus");
+        doReturn(true).when(errors).hasErrors();
+
+        String template = userController.userEdit(user, errors, "password", model, request, response);
 
+        verify(errors).rejectValue("timezone", "timezone.unknown", "Неизвестная временная зона");
+        verify(userService, never()).update(user);
         Assertions.assertThat(template).isEqualTo("user/userEdit");
     }
 
@@ -152,12 +190,35 @@ class UserControllerTest {
     @Test
     void whenUserEditPageIfOldPasswordIncorrect() {
         String oldPassword = "pass";
-        doReturn(session).when(request).getSession();
+        doReturn(session).when(request).getSession(false);
         doReturn(user).when(session).getAttribute("user");
-        doReturn(user).when(userService).findUserByLogin(user.getLogin());
+        doReturn(false).when(userService).checkPassword(user.getLogin(), oldPassword);
 
-        String template = userController.userEdit(user, errors, oldPassword, request);
+        String template = userController.userEdit(user, errors, oldPassword, model, request, response);
 
+        verify(userService, never()).update(user);
         Assertions.assertThat(template).isEqualTo("redirect:/userEdit?password=true");
     }
-}
\ No newline at end of file
+
+    /**
+     * Выполняется проверка перенаправления на страницу редактирования пользователя
+     * с сообщением о перегрузке, если очередь проверки паролей заполнена.
+     */
+    @Test
+    void whenUserEditRejectedThenBusyMessage() {
+        String oldPassword = "password";
+        doThrow(new RejectedExecutionException()).when(userService).checkPassword(user.getLogin(), oldPassword);
+        doReturn(session).when(request).getSession(false);
+        doReturn(user).when(session).getAttribute("user");
+
+        RejectedExecutionException e = assertThrows(RejectedExecutionException.class,
+                () -> userController.userEdit(user, errors, oldPassword, model, request, response));
+        String result = userController.busyHandler(e);
+        String template = userController.getUserEdit(null, "true", model, request);
+
+        verify(userService, never()).update(user);
+        verify(model).addAttribute("errorMessage", "Сервер перегружен, повторите попытку позже");
+        Assertions.assertThat(result).isEqualTo("redirect:/userEdit?busy=true");
+        Assertions.assertThat(template).isEqualTo("user/userEdit");
+    }
+}
@@ -0,0 +1,154 @@
+package ru.job4j.todo.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.job4j.todo.model.User;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тест класс сервлетного фильтра аутентификации
+ * @see ru.job4j.todo.filter.AuthFilter
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class AuthFilterTest {
+
+    /**
+     * Количество запросов в проверках создания сессий и выделения памяти
+     */
+    private static final int REQUESTS = 10_000;
+
+    /**
+     * Фильтр аутентификации
+     */
+    private AuthFilter filter;
+
+    /**
+     * Создает фильтр со списками ресурсов по умолчанию.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        filter = new AuthFilter(new String[] {"/", "/login", "/registration", "/favicon.ico"},
+                new String[] {"/css/", "/js/", "/images/", "/webjars/"},
+                new Authenticator("session", "", Duration.ofHours(8), null));
+    }
+
+    /**
+     * Выполняет запрос через фильтр.
+     *
+     * @param request запрос
+     * @return ответ
+     * @throws Exception при ошибке выполнения фильтра
+     */
+    private MockHttpServletResponse doFilter(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    /**
+     * Выполняются анонимные запросы страниц входа, регистрации, статических
+     * ресурсов и закрытых страниц. Выполняем проверку, что ни для одного
+     * запроса не создана сессия, а закрытые страницы перенаправляют на вход.
+     *
+     * @throws Exception при ошибке выполнения фильтра
+     */
+    @Test
+    void whenAnonymousRequestsThenNoSessionsCreated() throws Exception {
+        String[] uris = {"/login", "/registration", "/css/app.css", "/tasks", "/addTask"};
+        int sessions = 0;
+        int redirects = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", uris[i % uris.length]);
+            MockHttpServletResponse response = doFilter(request);
+            if (request.getSession(false) != null) {
+                sessions++;
+            }
+            if ("/login".equals(response.getRedirectedUrl())) {
+                redirects++;
+            }
+        }
+
+        assertThat(sessions).isZero();
+        assertThat(redirects).isEqualTo(REQUESTS / uris.length * 2);
+    }
+
+    /**
+     * Выполняется проверка передачи запроса дальше по цепочке
+     * при наличии пользователя в сессии.
+     *
+     * @throws Exception при ошибке выполнения фильтра
+     */
+    @Test
+    void whenUserInSessionThenPassed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.getSession().setAttribute("user", User.builder().id(1).name("username").build());
+
+        MockHttpServletResponse response = doFilter(request);
+
+        assertThat(response.getRedirectedUrl()).isNull();
+    }
+
+    /**
+     * Выполняется проверка, что адреса разрешенных страниц сравниваются точно:
+     * адрес, оканчивающийся на login, и адрес с завершающим слешем не разрешены.
+     *
+     * @throws Exception при ошибке выполнения фильтра
+     */
+    @Test
+    void whenPathOnlyEndsWithAllowedThenRedirected() throws Exception {
+        assertThat(doFilter(new MockHttpServletRequest("GET", "/tasks/login")).getRedirectedUrl())
+                .isEqualTo("/login");
+        assertThat(doFilter(new MockHttpServletRequest("GET", "/tasks/")).getRedirectedUrl())
+                .isEqualTo("/login");
+    }
+
+    /**
+     * Выполняется проверка учета пути контекста приложения.
+     *
+     * @throws Exception при ошибке выполнения фильтра
+     */
+    @Test
+    void whenContextPathThenPathMatchedAfterContext() throws Exception {
+        MockHttpServletRequest login = new MockHttpServletRequest("GET", "/todo/login");
+        login.setContextPath("/todo");
+        MockHttpServletRequest tasks = new MockHttpServletRequest("GET", "/todo/tasks");
+        tasks.setContextPath("/todo");
+
+        assertThat(doFilter(login).getRedirectedUrl()).isNull();
+        assertThat(doFilter(tasks).getRedirectedUrl()).isEqualTo("/todo/login");
+    }
+
+    /**
+     * Выполняется проверка, что проверка адреса запроса не выделяет память:
+     * по счетчику выделенной потоком памяти после прогрева.
+     */
+    @Test
+    void whenMatchThenNoAllocation() {
+        PublicPathMatcher matcher = new PublicPathMatcher(new String[] {"/", "/login", "/registration"},
+                new String[] {"/css/", "/js/"});
+        String[] uris = {"/login", "/tasks", "/css/app.css", "/taskDetails"};
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int matched = 0;
+        for (int i = 0; i < REQUESTS * 10; i++) {
+            matched += matcher.matches(uris[i & 3], 0) ? 1 : 0;
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < REQUESTS * 10; i++) {
+            matched += matcher.matches(uris[i & 3], 0) ? 1 : 0;
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(matched).isEqualTo(REQUESTS * 10);
+        assertThat(allocated).isLessThan(1024);
+    }
+}
@@ -0,0 +1,238 @@
+package ru.job4j.todo.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.util.UserUtil;
+
+import javax.servlet.http.Cookie;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Тест класс аутентификации пользователя по сессии и маркеру
+ * @see ru.job4j.todo.filter.Authenticator
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class AuthenticatorTest {
+
+    /**
+     * Ключ подписи маркеров
+     */
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    /**
+     * Момент выдачи маркеров
+     */
+    private static final Instant NOW = Instant.parse("2022-10-01T09:00:00Z");
+
+    /**
+     * Аутентификация по маркеру
+     */
+    private Authenticator authenticator;
+
+    /**
+     * Пользователь
+     */
+    private User user;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        authenticator = new Authenticator("token", SECRET, Duration.ofHours(8), null, Clock.fixed(NOW, ZoneOffset.UTC));
+        user = User.builder()
+                .id(7)
+                .name("Пользователь.1")
+                .login("user@mail.ru")
+                .password("password")
+                .timezone("Asia/Tokyo")
+                .build();
+    }
+
+    /**
+     * Выполняется проверка восстановления пользователя без пароля из выданного маркера.
+     */
+    @Test
+    void whenVerifyIssuedTokenThenPrincipalWithoutPassword() {
+        User principal = authenticator.verify(authenticator.issue(user));
+
+        assertThat(principal.getId()).isEqualTo(7);
+        assertThat(principal.getLogin()).isEqualTo("user@mail.ru");
+        assertThat(principal.getName()).isEqualTo("Пользователь.1");
+        assertThat(principal.getTimezone()).isEqualTo("Asia/Tokyo");
+        assertThat(principal.getPassword()).isNull();
+    }
+
+    /**
+     * Выполняется проверка отклонения измененного маркера и маркера,
+     * подписанного другим ключом.
+     */
+    @Test
+    void whenTokenTamperedThenRejected() {
+        String token = authenticator.issue(user);
+        String otherUser = "8" + token.substring(1);
+        Authenticator other = new Authenticator("token", Base64.getEncoder().encodeToString(new byte[] {1, 2, 3}),
+                Duration.ofHours(8), null, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertThat(authenticator.verify(otherUser)).isNull();
+        assertThat(authenticator.verify(other.issue(user))).isNull();
+        assertThat(authenticator.verify("garbage")).isNull();
+        assertThat(authenticator.verify("1.2.3.4.5.%%")).isNull();
+    }
+
+    /**
+     * Выполняется проверка отклонения маркера после окончания времени действия.
+     */
+    @Test
+    void whenTokenExpiredThenRejected() {
+        String token = authenticator.issue(user);
+        Authenticator later = new Authenticator("token", SECRET, Duration.ofHours(8),
+                null, Clock.fixed(NOW.plus(Duration.ofHours(8)), ZoneOffset.UTC));
+
+        assertThat(later.verify(token)).isNull();
+    }
+
+    /**
+     * Выполняется вход пользователя и запрос с полученной cookie. Выполняем проверку,
+     * что сессия не создается, а пользователь и его временная зона записаны
+     * в атрибуты запроса.
+     */
+    @Test
+    void whenLoginInTokenModeThenCookieAuthenticatesWithoutSession() {
+        MockHttpServletRequest loginRequest = new MockHttpServletRequest("POST", "/login");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authenticator.login(loginRequest, response, user);
+        Cookie cookie = response.getCookie(Authenticator.COOKIE_NAME);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.setCookies(cookie);
+
+        boolean authenticated = authenticator.authenticate(request);
+
+        assertThat(cookie.isHttpOnly()).isTrue();
+        assertThat(authenticated).isTrue();
+        assertThat(loginRequest.getSession(false)).isNull();
+        assertThat(request.getSession(false)).isNull();
+        assertThat(UserUtil.getSessionUser(request).getId()).isEqualTo(7);
+        assertThat(UserUtil.getSessionZone(request)).isEqualTo(ZoneId.of("Asia/Tokyo"));
+    }
+
+    /**
+     * Выполняется проверка удаления cookie с маркером при выходе пользователя.
+     */
+    @Test
+    void whenLogoutInTokenModeThenCookieExpired() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        authenticator.logout(new MockHttpServletRequest("GET", "/logout"), response);
+
+        assertThat(response.getCookie(Authenticator.COOKIE_NAME).getMaxAge()).isZero();
+    }
+
+    /**
+     * Выполняется проверка, что в режиме session cookie с маркером не принимается,
+     * а пользователь записывается в сессию.
+     */
+    @Test
+    void whenSessionModeThenUserInSession() {
+        Authenticator session = new Authenticator("session", SECRET, Duration.ofHours(8),
+                null, Clock.fixed(NOW, ZoneOffset.UTC));
+        MockHttpServletRequest tokenRequest = new MockHttpServletRequest("GET", "/tasks");
+        tokenRequest.setCookies(new Cookie(Authenticator.COOKIE_NAME, authenticator.issue(user)));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+
+        session.login(request, new MockHttpServletResponse(), user);
+
+        assertThat(session.authenticate(tokenRequest)).isFalse();
+        assertThat(session.authenticate(request)).isTrue();
+    }
+
+    /**
+     * Выполняется вход пользователя в режиме db, повторный вход с прежней cookie,
+     * запрос с новой cookie и выход. Выполняем проверку, что прежняя сессия
+     * удаляется при повторном входе, пользователь сессии записан в атрибуты запроса,
+     * а при выходе сессия удаляется из хранилища.
+     */
+    @Test
+    void whenDbModeThenSessionIdInCookie() {
+        UserSessionStore store = Mockito.mock(UserSessionStore.class);
+        Authenticator db = new Authenticator("db", "", Duration.ofHours(8), store, Clock.fixed(NOW, ZoneOffset.UTC));
+        doReturn("session-2").when(store).create(user);
+        doReturn(Optional.of(user)).when(store).find("session-2");
+        MockHttpServletRequest loginRequest = new MockHttpServletRequest("POST", "/login");
+        loginRequest.setCookies(new Cookie(Authenticator.COOKIE_NAME, "session-1"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        db.login(loginRequest, response, user);
+        Cookie cookie = response.getCookie(Authenticator.COOKIE_NAME);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.setCookies(cookie);
+        boolean authenticated = db.authenticate(request);
+        MockHttpServletResponse logoutResponse = new MockHttpServletResponse();
+        db.logout(request, logoutResponse);
+
+        verify(store).remove("session-1");
+        assertThat(cookie.getValue()).isEqualTo("session-2");
+        assertThat(cookie.getMaxAge()).isEqualTo(-1);
+        assertThat(authenticated).isTrue();
+        assertThat(request.getSession(false)).isNull();
+        assertThat(UserUtil.getSessionUser(request).getId()).isEqualTo(7);
+        assertThat(UserUtil.getSessionZone(request)).isEqualTo(ZoneId.of("Asia/Tokyo"));
+        verify(store).remove("session-2");
+        assertThat(logoutResponse.getCookie(Authenticator.COOKIE_NAME).getMaxAge()).isZero();
+    }
+
+    /**
+     * Выполняется проверка, что в режиме db cookie с неизвестной сессией не принимается.
+     */
+    @Test
+    void whenDbModeAndUnknownSessionThenNotAuthenticated() {
+        UserSessionStore store = Mockito.mock(UserSessionStore.class);
+        Authenticator db = new Authenticator("db", "", Duration.ofHours(8), store, Clock.fixed(NOW, ZoneOffset.UTC));
+        doReturn(Optional.empty()).when(store).find("unknown");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks");
+        request.setCookies(new Cookie(Authenticator.COOKIE_NAME, "unknown"));
+
+        assertThat(db.authenticate(request)).isFalse();
+        assertThat(request.getAttribute("user")).isNull();
+    }
+
+    /**
+     * Выполняется проверка выброса исключения при неизвестном режиме аутентификации.
+     */
+    @Test
+    void whenUnknownModeThenException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Authenticator("jwt", SECRET, Duration.ofHours(8), null));
+    }
+
+    /**
+     * Выполняется проверка выброса исключения в режиме token без ключа подписи
+     * и создания объекта без ключа в режимах session и db.
+     */
+    @Test
+    void whenTokenModeWithoutSecretThenException() {
+        assertThrows(IllegalStateException.class,
+                () -> new Authenticator("token", "", Duration.ofHours(8), null));
+        assertThrows(IllegalStateException.class,
+                () -> new Authenticator("token", null, Duration.ofHours(8), null));
+        assertThat(new Authenticator("session", "", Duration.ofHours(8), null)).isNotNull();
+        assertThat(new Authenticator("db", null, Duration.ofHours(8), null)).isNotNull();
+    }
+}
@@ -0,0 +1,146 @@
+package ru.job4j.todo.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Тест класс сервлетного фильтра ограничения частоты входа и регистрации
+ * @see ru.job4j.todo.filter.LoginRateLimitFilter
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class LoginRateLimitFilterTest {
+
+    /**
+     * Фильтр ограничения частоты
+     */
+    private LoginRateLimitFilter filter;
+
+    /**
+     * Создает фильтр: 5 попыток с адреса, 2 попытки для логина.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        Clock clock = Mockito.mock(Clock.class);
+        doReturn(1_000_000L).when(clock).millis();
+        filter = new LoginRateLimitFilter(5, Duration.ofSeconds(3), 2, Duration.ofMinutes(1), 1000, clock);
+    }
+
+    /**
+     * Создает запрос.
+     *
+     * @param method метод запроса
+     * @param uri адрес запроса
+     * @param ip адрес клиента
+     * @param login логин из формы или null
+     * @return запрос
+     */
+    private MockHttpServletRequest request(String method, String uri, String ip, String login) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(ip);
+        if (login != null) {
+            request.setParameter("login", login);
+        }
+        return request;
+    }
+
+    /**
+     * Выполняет запрос через фильтр.
+     *
+     * @param request запрос
+     * @param chain цепочка фильтров
+     * @return ответ
+     * @throws Exception при ошибке выполнения фильтра
+     */
+    private MockHttpServletResponse doFilter(MockHttpServletRequest request, MockFilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    /**
+     * Выполняются попытки входа с одним логином с разных адресов.
+     * Выполняем проверку, что попытка сверх ограничения логина отклоняется ответом 429
+     * без передачи запроса контроллеру, в том числе при другом регистре логина.
+     */
+    @Test
+    void whenLoginLimitExceededThen429BeforeController() throws Exception {
+        doFilter(request("POST", "/login", "10.0.0.1", "user@mail.ru"), new MockFilterChain());
+        doFilter(request("POST", "/login", "10.0.0.2", "user@mail.ru"), new MockFilterChain());
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = doFilter(request("POST", "/login", "10.0.0.3", " USER@mail.ru"), chain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("60");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(filter.stats().getRejectedByLogin()).isEqualTo(1);
+        assertThat(filter.stats().getAllowed()).isEqualTo(2);
+    }
+
+    /**
+     * Выполняются попытки регистрации с одного адреса с разными логинами.
+     * Выполняем проверку, что попытка сверх ограничения адреса отклоняется.
+     */
+    @Test
+    void whenIpLimitExceededThenRegistrationRejected() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            doFilter(request("POST", "/registration", "10.0.0.1", "user" + i + "@mail.ru"), chain);
+            assertThat(chain.getRequest()).isNotNull();
+        }
+
+        MockHttpServletResponse response = doFilter(request("POST", "/registration", "10.0.0.1", "new@mail.ru"),
+                new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("3");
+        assertThat(filter.stats().getRejectedByIp()).isEqualTo(1);
+        assertThat(filter.stats().getRejected()).isEqualTo(1);
+    }
+
+    /**
+     * Выполняется проверка, что страницы входа, другие адреса и адреса
+     * с тем же окончанием не ограничиваются.
+     */
+    @Test
+    void whenNotLoginAttemptThenNotLimited() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            for (String uri : new String[] {"/tasks", "/loginx", "/registration/x"}) {
+                MockFilterChain chain = new MockFilterChain();
+                doFilter(request("POST", uri, "10.0.0.1", "user@mail.ru"), chain);
+                assertThat(chain.getRequest()).isNotNull();
+            }
+            MockFilterChain chain = new MockFilterChain();
+            doFilter(request("GET", "/login", "10.0.0.1", null), chain);
+            assertThat(chain.getRequest()).isNotNull();
+        }
+
+        assertThat(filter.stats().getAllowed()).isZero();
+        assertThat(filter.stats().getIpKeys()).isZero();
+    }
+
+    /**
+     * Выполняется проверка учета пути приложения.
+     */
+    @Test
+    void whenContextPathThenLoginLimited() throws Exception {
+        MockHttpServletRequest request = request("POST", "/todo/login", "10.0.0.1", "user@mail.ru");
+        request.setContextPath("/todo");
+        doFilter(request, new MockFilterChain());
+
+        assertThat(filter.stats().getAllowed()).isEqualTo(1);
+        assertThat(filter.stats().getLoginKeys()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,147 @@
+package ru.job4j.todo.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Тест класс ограничения частоты запросов маркерной корзиной
+ * @see ru.job4j.todo.filter.TokenBucketLimiter
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class TokenBucketLimiterTest {
+
+    /**
+     * Часы
+     */
+    private Clock clock;
+
+    /**
+     * Создает часы с начальным моментом.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        clock = Mockito.mock(Clock.class);
+        doReturn(1_000_000L).when(clock).millis();
+    }
+
+    /**
+     * Выполняется проверка, что корзина пропускает capacity запросов подряд,
+     * сообщает время до следующего маркера и пополняется со временем.
+     */
+    @Test
+    void whenBucketEmptyThenRejectedUntilRefill() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofSeconds(10), 1000, clock);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("key")).isZero();
+        }
+        long wait = limiter.tryAcquire("key");
+        doReturn(1_009_999L).when(clock).millis();
+        long almost = limiter.tryAcquire("key");
+        doReturn(1_010_000L).when(clock).millis();
+
+        assertThat(wait).isEqualTo(10_000);
+        assertThat(almost).isEqualTo(1);
+        assertThat(limiter.tryAcquire("key")).isZero();
+        assertThat(limiter.tryAcquire("key")).isPositive();
+        assertThat(limiter.tryAcquire("other")).isZero();
+    }
+
+    /**
+     * Выполняется проверка, что частые отклоненные запросы не мешают
+     * пополнению корзины.
+     */
+    @Test
+    void whenHammeredThenStillRefills() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, Duration.ofSeconds(60), 1000, clock);
+        limiter.tryAcquire("key");
+
+        for (long now = 1_000_001L; now < 1_060_000L; now += 7) {
+            doReturn(now).when(clock).millis();
+            assertThat(limiter.tryAcquire("key")).isPositive();
+        }
+        doReturn(1_060_000L).when(clock).millis();
+
+        assertThat(limiter.tryAcquire("key")).isZero();
+    }
+
+    /**
+     * Выполняются запросы с большим количеством различных ключей. Выполняем проверку,
+     * что количество хранимых ключей ограничено, а корзина ключа, к которому
+     * обращаются постоянно, не удаляется.
+     */
+    @Test
+    void whenManyKeysThenMemoryBoundedAndActiveKeyKept() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofSeconds(60), 160, clock);
+        limiter.tryAcquire("active");
+        limiter.tryAcquire("active");
+
+        for (int i = 0; i < 10_000; i++) {
+            doReturn(1_000_000L + i).when(clock).millis();
+            limiter.tryAcquire("key" + i);
+            limiter.tryAcquire("key" + i);
+            if (i % 5 == 0) {
+                assertThat(limiter.tryAcquire("active")).isPositive();
+            }
+        }
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(160 + 16);
+    }
+
+    /**
+     * Выполняются одновременные запросы одного ключа из нескольких потоков.
+     * Выполняем проверку, что без пополнения пропущено ровно capacity запросов.
+     */
+    @Test
+    void whenConcurrentRequestsThenExactlyCapacityAllowed() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100, Duration.ofHours(1), 1000, clock);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> {
+                    int allowed = 0;
+                    for (int j = 0; j < 1000; j++) {
+                        allowed += limiter.tryAcquire("key") == 0 ? 1 : 0;
+                    }
+                    return allowed;
+                }));
+            }
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get(10, TimeUnit.SECONDS);
+            }
+
+            assertThat(allowed).isEqualTo(100);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Выполняется проверка выброса исключения при неверных параметрах.
+     */
+    @Test
+    void whenWrongParametersThenException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketLimiter(0, Duration.ofSeconds(1), 1000, clock));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketLimiter(1, Duration.ZERO, 1000, clock));
+    }
+}
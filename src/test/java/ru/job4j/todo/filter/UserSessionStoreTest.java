@@ -0,0 +1,181 @@
+package ru.job4j.todo.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.model.UserSession;
+import ru.job4j.todo.repository.UserSessionRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Тест класс хранилища сессий пользователей в базе данных
+ * @see ru.job4j.todo.filter.UserSessionStore
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class UserSessionStoreTest {
+
+    /**
+     * Начальный момент времени
+     */
+    private static final Instant NOW = Instant.parse("2022-10-01T09:00:00Z");
+
+    /**
+     * Хранилище сессий в базе данных
+     */
+    private UserSessionRepository repository;
+
+    /**
+     * Часы
+     */
+    private Clock clock;
+
+    /**
+     * Хранилище сессий
+     */
+    private UserSessionStore store;
+
+    /**
+     * Пользователь
+     */
+    private User user;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(UserSessionRepository.class);
+        clock = Mockito.mock(Clock.class);
+        doReturn(NOW).when(clock).instant();
+        doReturn(Optional.of(new UserSession())).when(repository).add(any(UserSession.class));
+        store = new UserSessionStore(repository, "db", Duration.ofMinutes(30), Duration.ofSeconds(30), clock);
+        user = User.builder()
+                .id(7)
+                .name("Пользователь.1")
+                .login("user@mail.ru")
+                .password("password")
+                .timezone("Asia/Tokyo")
+                .build();
+    }
+
+    /**
+     * Создается сессия и выполняется ее многократный поиск в пределах времени
+     * локального кеша. Выполняем проверку, что база данных не читается,
+     * а найденный пользователь не содержит пароль.
+     */
+    @Test
+    void whenFindWithinNearCacheTtlThenNoDatabaseRead() {
+        String id = store.create(user);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(store.find(id)).isPresent();
+        }
+        User principal = store.find(id).get();
+
+        verify(repository, never()).findById(any());
+        assertThat(principal.getId()).isEqualTo(7);
+        assertThat(principal.getTimezone()).isEqualTo("Asia/Tokyo");
+        assertThat(principal.getPassword()).isNull();
+        assertThat(id).hasSize(43);
+    }
+
+    /**
+     * Выполняется поиск сессии, созданной другим экземпляром приложения, и повторный
+     * поиск после окончания времени локального кеша. Выполняем проверку, что база
+     * данных читается только при промахе кеша и после окончания его времени.
+     */
+    @Test
+    void whenNearCacheTtlPassedThenSessionVerifiedInDatabase() {
+        UserSession stored = new UserSession("remote", user, "Europe/Moscow", NOW, NOW);
+        doReturn(Optional.of(stored)).when(repository).findById("remote");
+
+        User first = store.find("remote").get();
+        store.find("remote");
+        doReturn(NOW.plusSeconds(31)).when(clock).instant();
+        doReturn(Optional.empty()).when(repository).findById("remote");
+        Optional<User> afterLogout = store.find("remote");
+
+        verify(repository, times(2)).findById("remote");
+        assertThat(first.getTimezone()).isEqualTo("Europe/Moscow");
+        assertThat(afterLogout).isEmpty();
+        assertThat(store.find("unknown")).isEmpty();
+    }
+
+    /**
+     * Выполняется поиск нескольких сессий и запись времени обращения.
+     * Выполняем проверку, что обращения записываются одним запросом,
+     * а повторная запись без новых обращений не выполняется.
+     */
+    @Test
+    void whenFlushThenAccessedSessionsTouchedInOneQuery() {
+        String first = store.create(user);
+        String second = store.create(user);
+        store.create(user);
+        Instant later = NOW.plusSeconds(10);
+        doReturn(later).when(clock).instant();
+        store.find(first);
+        store.find(second);
+        store.find(second);
+
+        store.flush();
+        store.flush();
+
+        verify(repository).touch(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(first, second))),
+                eq(later));
+        verify(repository, times(1)).touch(any(), any());
+    }
+
+    /**
+     * Создается сессия и выполняется фоновая очистка после истечения времени бездействия.
+     * Выполняем проверку, что истекшие сессии удаляются из базы данных по моменту
+     * истечения, а сессия удаляется из локального кеша.
+     */
+    @Test
+    void whenSweepThenExpiredSessionsDeleted() {
+        String id = store.create(user);
+        Instant later = NOW.plus(Duration.ofMinutes(31));
+        doReturn(later).when(clock).instant();
+        doReturn(Optional.empty()).when(repository).findById(id);
+
+        store.sweep();
+
+        verify(repository).deleteExpired(later.minus(Duration.ofMinutes(30)));
+        assertThat(store.find(id)).isEmpty();
+        verify(repository).findById(id);
+    }
+
+    /**
+     * Выполняется проверка удаления сессии из локального кеша и базы данных
+     * и отсутствия фоновой очистки в других режимах аутентификации.
+     */
+    @Test
+    void whenRemoveThenSessionNotFound() {
+        String id = store.create(user);
+        UserSessionStore sessionMode = new UserSessionStore(repository, "session", Duration.ofMinutes(30),
+                Duration.ofSeconds(30), clock);
+
+        store.remove(id);
+        sessionMode.sweep();
+
+        verify(repository).deleteById(id);
+        assertThat(store.find(id)).isEmpty();
+        verify(repository, never()).deleteExpired(any());
+    }
+}
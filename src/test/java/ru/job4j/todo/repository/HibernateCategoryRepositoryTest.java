@@ -4,6 +4,7 @@ import org.hibernate.SessionFactory;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.Bean;
@@ -52,7 +53,7 @@ class HibernateCategoryRepositoryTest {
      */
     @BeforeEach
     void setUp() {
-        categoryRepository = new HibernateCategoryRepository(sf());
+        categoryRepository = new HibernateCategoryRepository(new SessionExecutor(sf()));
         category = Category.builder()
                 .name("category")
                 .build();
@@ -194,4 +195,42 @@ class HibernateCategoryRepositoryTest {
 
         assertThat(categoryRepository.findCategoryById(id)).isEqualTo(Optional.empty());
     }
-}
\ No newline at end of file
+
+    /**
+     * Создается фабрика сессий с включенным вторым уровнем кэша и кэшем запросов.
+     * Повторный вызов {@link CategoryRepository#findAllCategories()} и поиск категории
+     * по идентификатору выполняются из кэша, что проверяется по статистике hibernate.
+     * После удаления категории кэш запроса сбрасывается и список категорий пустой.
+     */
+    @Test
+    void whenCacheEnabledThenRepeatedReadsHitCache() {
+        final StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .configure()
+                .applySetting("hibernate.cache.use_second_level_cache", "true")
+                .applySetting("hibernate.cache.use_query_cache", "true")
+                .applySetting("hibernate.cache.region.factory_class", "jcache")
+                .applySetting("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider")
+                .applySetting("hibernate.javax.cache.uri", "ehcache.xml")
+                .applySetting("hibernate.generate_statistics", "true")
+                .build();
+        SessionFactory cachedSf = new MetadataSources(registry).buildMetadata().buildSessionFactory();
+        try {
+            CategoryRepository repository = new HibernateCategoryRepository(new SessionExecutor(cachedSf));
+            repository.add(category);
+            repository.findAllCategories();
+            List<Category> categories = repository.findAllCategories();
+            repository.findCategoryById(category.getId());
+            Statistics statistics = cachedSf.getStatistics();
+
+            assertThat(categories).extracting(Category::getName).containsExactly("category");
+            assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+            assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(1);
+
+            repository.deleteCategoryById(category.getId());
+
+            assertThat(repository.findAllCategories()).isEmpty();
+        } finally {
+            cachedSf.close();
+        }
+    }
+}
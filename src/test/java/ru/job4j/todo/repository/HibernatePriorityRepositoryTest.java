@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.Bean;
 import ru.job4j.todo.model.Priority;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -51,7 +52,7 @@ class HibernatePriorityRepositoryTest {
      */
     @BeforeEach
     void setUp() {
-        priorityRepository = new HibernatePriorityRepository(sf());
+        priorityRepository = new HibernatePriorityRepository(new SessionExecutor(sf()));
         priority = Priority.builder()
                 .name("priority")
                 .position(1)
@@ -73,6 +74,24 @@ class HibernatePriorityRepositoryTest {
         assertThat(priorityFromDB.getName()).isEqualTo(priority.getName());
     }
 
+    /**
+     * Создаются объекты priority и сохраняются в базе данных.
+     * Через вызов метода {@link PriorityRepository#findAllPriorities()}
+     * получаем приоритеты в порядке позиции.
+     */
+    @Test
+    void whenFindAllPrioritiesThenOrderedByPosition() {
+        Priority first = Priority.builder()
+                .name("first")
+                .position(0)
+                .build();
+        priorityRepository.add(first);
+
+        List<Priority> priorities = priorityRepository.findAllPriorities();
+
+        assertThat(priorities).extracting(Priority::getName).containsExactly("first", "priority");
+    }
+
     /**
      * Создается объект priority и сохраняется в базе данных.
      * Через вызов метода {@link PriorityRepository#findPriorityById(int)}
@@ -4,17 +4,25 @@ import org.hibernate.SessionFactory;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.Bean;
+import ru.job4j.todo.dto.TaskExportRow;
+import ru.job4j.todo.dto.TaskListView;
+import ru.job4j.todo.dto.TaskNameRow;
+import ru.job4j.todo.dto.TaskSearchResult;
 import ru.job4j.todo.model.Category;
 import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.model.Task;
+import ru.job4j.todo.model.User;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Тест класс реализации хранилища заданий
@@ -39,11 +47,21 @@ class HibernateTaskRepositoryTest {
      */
     PriorityRepository priorityRepository;
 
+    /**
+     * Объект репозитория UserRepository
+     */
+    UserRepository userRepository;
+
     /**
      * Задание
      */
     Task task;
 
+    /**
+     * Пользователь
+     */
+    User user;
+
     /**
      * Категория
      */
@@ -74,9 +92,18 @@ class HibernateTaskRepositoryTest {
      */
     @BeforeEach
     void setUp() {
-        taskRepository = new HibernateTaskRepository(sf());
-        categoryRepository = new HibernateCategoryRepository(sf());
-        priorityRepository = new HibernatePriorityRepository(sf());
+        SessionExecutor executor = new SessionExecutor(sf());
+        taskRepository = new HibernateTaskRepository(executor);
+        categoryRepository = new HibernateCategoryRepository(executor);
+        priorityRepository = new HibernatePriorityRepository(executor);
+        userRepository = new HibernateUserRepository(executor);
+
+        user = User.builder()
+                .name("username")
+                .login("login")
+                .password("password")
+                .build();
+        userRepository.add(user);
 
         category = Category.builder()
                 .name("category")
@@ -93,6 +120,7 @@ class HibernateTaskRepositoryTest {
                 .description("description")
                 .categories(List.of(category))
                 .priority(priority)
+                .user(user)
                 .done(false)
                 .build();
     }
@@ -214,6 +242,208 @@ class HibernateTaskRepositoryTest {
         assertThat(tasks.size()).isEqualTo(0);
     }
 
+    /**
+     * Создаются задачи двух пользователей и сохраняются в базе данных.
+     * Через вызов метода {@link TaskRepository#findTasksByUser(int, Boolean)}
+     * получаем задачи только одного пользователя.
+     * Выполняем проверку содержания списков с фильтром по статусу и без него.
+     */
+    @Test
+    void whenFindTasksByUserThenGetOnlyUserTasks() {
+        User other = User.builder()
+                .name("otheruser")
+                .login("other")
+                .password("password")
+                .build();
+        userRepository.add(other);
+        Task task2 = Task.builder()
+                .name("task2")
+                .description("description2")
+                .categories(List.of(category))
+                .priority(priority)
+                .user(user)
+                .done(true)
+                .build();
+        Task otherTask = Task.builder()
+                .name("otherTask")
+                .description("description3")
+                .categories(List.of(category))
+                .priority(priority)
+                .user(other)
+                .build();
+        taskRepository.add(task);
+        taskRepository.add(task2);
+        taskRepository.add(otherTask);
+
+        assertThat(taskRepository.findTasksByUser(user.getId(), null))
+                .extracting(Task::getName).containsExactly("task", "task2");
+        assertThat(taskRepository.findTasksByUser(user.getId(), true))
+                .extracting(Task::getName).containsExactly("task2");
+        assertThat(taskRepository.findTasksByUser(other.getId(), null))
+                .extracting(Task::getName).containsExactly("otherTask");
+    }
+
+    /**
+     * Создаются задачи с несколькими категориями и без категорий и сохраняются
+     * в базе данных. Через вызов метода {@link TaskRepository#findTasksAfter(int, Boolean, int, int)}
+     * получаем страницу задач. Выполняем проверку, что задача без категорий
+     * присутствует на странице, а имена категорий, пользователя и приоритета
+     * заполнены без дублирования задач.
+     */
+    @Test
+    void whenFindTasksAfterThenTasksWithoutCategoriesIncluded() {
+        Category category2 = Category.builder()
+                .name("category2")
+                .build();
+        categoryRepository.add(category2);
+        task.setCategories(List.of(category, category2));
+        Task task2 = Task.builder()
+                .name("task2")
+                .description("description2")
+                .categories(List.of())
+                .priority(priority)
+                .user(user)
+                .build();
+        taskRepository.add(task);
+        taskRepository.add(task2);
+        List<TaskListView> tasks = taskRepository.findTasksAfter(user.getId(), null, 0, 10);
+
+        assertThat(tasks).extracting(TaskListView::getName).containsExactly("task", "task2");
+        assertThat(tasks.get(0).getCategories()).containsExactly("category", "category2");
+        assertThat(tasks.get(0).getUserName()).isEqualTo("username");
+        assertThat(tasks.get(0).getPriorityName()).isEqualTo("priority");
+        assertThat(tasks.get(1).getCategories()).isEmpty();
+    }
+
+    /**
+     * Создаются три объекта task и сохраняются в базе данных.
+     * Через вызов метода {@link TaskRepository#findTasksAfter(int, Boolean, int, int)}
+     * получаем страницы задач после курсора.
+     * Выполняем проверку размера и содержания страниц.
+     */
+    @Test
+    void whenFindTasksAfterThenGetPageFromDB() {
+        Task task2 = Task.builder()
+                .name("task2")
+                .description("description2")
+                .categories(List.of(category))
+                .priority(priority)
+                .user(user)
+                .done(true)
+                .build();
+        Task task3 = Task.builder()
+                .name("task3")
+                .description("description3")
+                .categories(List.of(category))
+                .priority(priority)
+                .user(user)
+                .done(false)
+                .build();
+        taskRepository.add(task);
+        taskRepository.add(task2);
+        taskRepository.add(task3);
+        List<TaskListView> firstPage = taskRepository.findTasksAfter(user.getId(), null, 0, 2);
+        List<TaskListView> secondPage = taskRepository.findTasksAfter(user.getId(), null,
+                firstPage.get(1).getId(), 2);
+        List<TaskListView> newTasks = taskRepository.findTasksAfter(user.getId(), false, task.getId(), 2);
+
+        assertThat(firstPage).extracting(TaskListView::getName).containsExactly("task", "task2");
+        assertThat(secondPage).extracting(TaskListView::getName).containsExactly("task3");
+        assertThat(newTasks).extracting(TaskListView::getName).containsExactly("task3");
+    }
+
+    /**
+     * Создаются три объекта task и сохраняются в базе данных.
+     * Через вызов метода {@link TaskRepository#findTasksBefore(int, Boolean, int, int)}
+     * получаем страницу задач до курсора.
+     * Выполняем проверку порядка задач на странице.
+     */
+    @Test
+    void whenFindTasksBeforeThenGetPageFromDB() {
+        Task task2 = Task.builder()
+                .name("task2")
+                .description("description2")
+                .categories(List.of(category))
+                .priority(priority)
+                .user(user)
+                .build();
+        Task task3 = Task.builder()
+                .name("task3")
+                .description("description3")
+                .categories(List.of(category))
+                .priority(priority)
+                .user(user)
+                .build();
+        taskRepository.add(task);
+        taskRepository.add(task2);
+        taskRepository.add(task3);
+        List<TaskListView> tasks = taskRepository.findTasksBefore(user.getId(), null, task3.getId(), 1);
+
+        assertThat(tasks).extracting(TaskListView::getName).containsExactly("task2");
+    }
+
+    /**
+     * Создаются две задачи и сохраняются в базе данных. Через вызов метода
+     * {@link TaskRepository#scanTaskNames(java.util.function.Consumer)} получаем
+     * наименования задач. Выполняем проверку идентификаторов, пользователя и наименований.
+     */
+    @Test
+    void whenScanTaskNamesThenGetAllNames() {
+        Task task2 = Task.builder()
+                .name("task2")
+                .priority(priority)
+                .user(user)
+                .build();
+        taskRepository.add(task);
+        taskRepository.add(task2);
+        List<TaskNameRow> rows = new ArrayList<>();
+        int count = taskRepository.scanTaskNames(rows::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(rows).extracting(TaskNameRow::getId).containsExactly(task.getId(), task2.getId());
+        assertThat(rows).extracting(TaskNameRow::getName).containsExactly("task", "task2");
+        assertThat(rows).extracting(TaskNameRow::getUserId).containsOnly(user.getId());
+    }
+
+    /**
+     * Создаются задачи пользователя и задача другого пользователя с тем же описанием.
+     * Через вызов метода {@link TaskRepository#searchTasks(int, String, int, int)}
+     * выполняется поиск задач по вхождению строки (H2). Выполняем проверку,
+     * что найдены только задачи пользователя, найденное слово выделено во фрагменте,
+     * а символы шаблона LIKE в запросе не действуют как подстановочные.
+     */
+    @Test
+    void whenSearchTasksThenGetUserTasksWithSnippet() {
+        User other = User.builder()
+                .name("otheruser")
+                .login("other")
+                .password("password")
+                .build();
+        userRepository.add(other);
+        Task milk = Task.builder()
+                .name("Покупки")
+                .description("Купить Молоко в магазине")
+                .priority(priority)
+                .user(user)
+                .build();
+        Task otherMilk = Task.builder()
+                .name("Покупки")
+                .description("Купить молоко")
+                .priority(priority)
+                .user(other)
+                .build();
+        taskRepository.add(task);
+        taskRepository.add(milk);
+        taskRepository.add(otherMilk);
+        List<TaskSearchResult> results = taskRepository.searchTasks(user.getId(), "молоко", 0, 10);
+        List<TaskSearchResult> wildcard = taskRepository.searchTasks(user.getId(), "%", 0, 10);
+
+        assertThat(results).extracting(TaskSearchResult::getId).containsExactly(milk.getId());
+        assertThat(results.get(0).getSnippetParts()).containsExactly("Купить ", "Молоко", " в магазине");
+        assertThat(results.get(0).getPriorityName()).isEqualTo("priority");
+        assertThat(wildcard).isEmpty();
+    }
+
     /**
      * Создается объект task и сохраняется в базе данных.
      * Через вызов метода {@link TaskRepository#findTaskById(int)}
@@ -259,6 +489,65 @@ class HibernateTaskRepositoryTest {
         assertThat(task.getId()).isEqualTo(updatedTask.getId());
     }
 
+    /**
+     * Создается объект task и сохраняется в базе данных. Выполняется два обновления
+     * задачи из форм, открытых с одной версией, как из двух вкладок браузера.
+     * Выполняем проверку, что первое обновление увеличивает версию, а второе
+     * отклоняется с признаком несовпадения версии и не перезаписывает первое.
+     */
+    @Test
+    void whenConcurrentUpdatesThenSecondRejectedAsStale() {
+        taskRepository.add(task);
+        Task first = Task.builder().id(task.getId()).name("first").description("description")
+                .priority(priority).user(user).categories(List.of(category)).version(task.getVersion()).build();
+        Task second = Task.builder().id(task.getId()).name("second").description("description")
+                .priority(priority).user(user).categories(List.of(category)).version(task.getVersion()).build();
+
+        taskRepository.update(first);
+        RepositoryException e = assertThrows(RepositoryException.class, () -> taskRepository.update(second));
+
+        assertThat(e.isStaleState()).isTrue();
+        assertThat(e.isConstraintViolation()).isFalse();
+        assertThat(first.getVersion()).isEqualTo(1);
+        assertThat(taskRepository.findTaskById(task.getId()).get().getName()).isEqualTo("first");
+    }
+
+    /**
+     * Создается объект task и сохраняется в базе данных. Задача переводится
+     * в выполненные одним запросом, после чего сохраняется форма, открытая
+     * до этого. Выполняем проверку, что запрос увеличил версию задачи
+     * и сохранение формы отклонено.
+     */
+    @Test
+    void whenMarkDoneThenVersionIncrementedAndOldFormRejected() {
+        taskRepository.add(task);
+        int version = task.getVersion();
+
+        Task doneTask = taskRepository.markDone(task.getId()).get();
+        task.setName("task2");
+
+        assertThat(doneTask.getVersion()).isEqualTo(version + 1);
+        assertThat(assertThrows(RepositoryException.class, () -> taskRepository.update(task)).isStaleState())
+                .isTrue();
+    }
+
+    /**
+     * Создается объект task со статусом активно и сохраняется в базе данных.
+     * Через вызов метода {@link TaskRepository#markDone(int)} задача переводится
+     * в выполненные. Выполняем проверку статуса возвращенной задачи и задачи
+     * в базе данных, а также возврат Optional.empty() для несуществующей задачи.
+     */
+    @Test
+    void whenMarkDoneThenTaskDoneInDatabase() {
+        taskRepository.add(task);
+        Task doneTask = taskRepository.markDone(task.getId()).get();
+
+        assertThat(doneTask.isDone()).isTrue();
+        assertThat(doneTask.getCategories()).extracting(Category::getName).containsExactly("category");
+        assertThat(taskRepository.findTaskById(task.getId()).get().isDone()).isTrue();
+        assertThat(taskRepository.markDone(task.getId() + 1)).isEqualTo(Optional.empty());
+    }
+
     /**
      * Создается объект task и сохраняется в базе данных.
      * По полю id объект task находится в базе данных, сохраняется в объект taskFromDB
@@ -287,4 +576,232 @@ class HibernateTaskRepositoryTest {
 
         assertThat(taskRepository.findTaskById(id)).isEqualTo(Optional.empty());
     }
-}
\ No newline at end of file
+
+    /**
+     * Создаются задачи двух пользователей и сохраняются в базе данных.
+     * Через вызов метода {@link TaskRepository#completeTasks(java.util.Collection, int)}
+     * переводим в выполненные все задачи по списку id от имени первого пользователя.
+     * Выполняем проверку, что изменены только задачи первого пользователя.
+     */
+    @Test
+    void whenCompleteTasksThenOnlyUserTasksDone() {
+        Task task2 = Task.builder()
+                .name("task2")
+                .description("description2")
+                .categories(List.of(category))
+                .priority(priority)
+                .user(user)
+                .build();
+        Task otherTask = otherUserTask();
+        taskRepository.add(task);
+        taskRepository.add(task2);
+        taskRepository.add(otherTask);
+        int updated = taskRepository.completeTasks(
+                List.of(task.getId(), task2.getId(), otherTask.getId()), user.getId());
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(taskRepository.findTaskById(task.getId()).get().isDone()).isTrue();
+        assertThat(taskRepository.findTaskById(task2.getId()).get().isDone()).isTrue();
+        assertThat(taskRepository.findTaskById(otherTask.getId()).get().isDone()).isFalse();
+        assertThat(taskRepository.completeTasks(List.of(), user.getId())).isEqualTo(0);
+    }
+
+    /**
+     * Создаются задачи двух пользователей с категориями и сохраняются в базе данных.
+     * Через вызов метода {@link TaskRepository#deleteTasks(java.util.Collection, int)}
+     * удаляем все задачи по списку id от имени первого пользователя.
+     * Выполняем проверку, что удалены только задачи первого пользователя
+     * вместе со связями с категориями, а категория осталась в базе данных.
+     */
+    @Test
+    void whenDeleteTasksThenOnlyUserTasksDeleted() {
+        Task otherTask = otherUserTask();
+        taskRepository.add(task);
+        taskRepository.add(otherTask);
+        int deleted = taskRepository.deleteTasks(List.of(task.getId(), otherTask.getId()), user.getId());
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(taskRepository.findTaskById(task.getId())).isEqualTo(Optional.empty());
+        assertThat(taskRepository.findTaskById(otherTask.getId()).get().getCategories())
+                .extracting(Category::getName).containsExactly("category");
+        assertThat(categoryRepository.findCategoryById(category.getId())).isPresent();
+    }
+
+    /**
+     * Создается фабрика сессий со вторым уровнем кэша, как в hibernate.cfg.xml
+     * приложения, задача сохраняется, пользователь, приоритет и категория
+     * загружаются в кэш. Выполняем проверку, что групповое удаление задач
+     * не очищает регионы кэша справочников и пользователей.
+     */
+    @Test
+    void whenDeleteTasksThenSecondLevelCacheKept() {
+        final StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .configure()
+                .applySetting("hibernate.cache.use_second_level_cache", "true")
+                .applySetting("hibernate.cache.use_query_cache", "true")
+                .applySetting("hibernate.cache.region.factory_class", "jcache")
+                .applySetting("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider")
+                .applySetting("hibernate.javax.cache.uri", "ehcache.xml")
+                .build();
+        SessionFactory cachedSf = new MetadataSources(registry).buildMetadata().buildSessionFactory();
+        try {
+            SessionExecutor executor = new SessionExecutor(cachedSf);
+            TaskRepository cachedTasks = new HibernateTaskRepository(executor);
+            new HibernateUserRepository(executor).add(user);
+            new HibernateCategoryRepository(executor).add(category);
+            new HibernatePriorityRepository(executor).add(priority);
+            cachedTasks.add(task);
+            new HibernatePriorityRepository(executor).findPriorityById(priority.getId());
+            new HibernateCategoryRepository(executor).findCategoryById(category.getId());
+
+            cachedTasks.deleteTasks(List.of(task.getId()), user.getId());
+
+            assertThat(cachedSf.getCache().containsEntity(User.class, user.getId())).isTrue();
+            assertThat(cachedSf.getCache().containsEntity(Priority.class, priority.getId())).isTrue();
+            assertThat(cachedSf.getCache().containsEntity(Category.class, category.getId())).isTrue();
+        } finally {
+            cachedSf.close();
+        }
+    }
+
+    /**
+     * Создаются задачи двух пользователей и сохраняются в базе данных.
+     * Через вызов метода {@link TaskRepository#changePriority(java.util.Collection, Priority, int)}
+     * изменяем приоритет всех задач по списку id от имени первого пользователя.
+     * Выполняем проверку, что приоритет изменен только у задачи первого пользователя.
+     */
+    @Test
+    void whenChangePriorityThenOnlyUserTasksChanged() {
+        Priority high = Priority.builder()
+                .name("high")
+                .build();
+        priorityRepository.add(high);
+        Task otherTask = otherUserTask();
+        taskRepository.add(task);
+        taskRepository.add(otherTask);
+        int updated = taskRepository.changePriority(List.of(task.getId(), otherTask.getId()), high, user.getId());
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(taskRepository.findTaskById(task.getId()).get().getPriority().getName()).isEqualTo("high");
+        assertThat(taskRepository.findTaskById(otherTask.getId()).get().getPriority().getName())
+                .isEqualTo("priority");
+    }
+
+    /**
+     * Создается фабрика сессий со сбором статистики и сохраняется задача
+     * с двадцатью категориями. Связи задачи с категориями вставляются одним
+     * пакетом JDBC, поэтому количество подготовленных запросов не зависит
+     * от количества категорий, что проверяется по статистике hibernate.
+     */
+    @Test
+    void whenAddTaskWithManyCategoriesThenInsertsBatched() {
+        final StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .configure()
+                .applySetting("hibernate.generate_statistics", "true")
+                .build();
+        SessionFactory statSf = new MetadataSources(registry).buildMetadata().buildSessionFactory();
+        try {
+            SessionExecutor executor = new SessionExecutor(statSf);
+            new HibernateUserRepository(executor).add(user);
+            new HibernatePriorityRepository(executor).add(priority);
+            CategoryRepository repository = new HibernateCategoryRepository(executor);
+            List<Category> categories = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Category manyCategory = Category.builder()
+                        .name("category" + i)
+                        .build();
+                repository.add(manyCategory);
+                categories.add(manyCategory);
+            }
+            task.setCategories(categories);
+            Statistics statistics = statSf.getStatistics();
+            statistics.clear();
+            new HibernateTaskRepository(executor).add(task);
+
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+            assertThat(new HibernateTaskRepository(executor).findTaskById(task.getId()).get().getCategories())
+                    .hasSize(20);
+        } finally {
+            statSf.close();
+        }
+    }
+
+    /**
+     * Создаются задачи с категорией и без категорий и сохраняются в базе данных
+     * через вызов метода {@link TaskRepository#addAll(List)} в сессии без состояния.
+     * Выполняем проверку количества сохраненных задач, выданных идентификаторов
+     * и сохраненных связей задач с категориями.
+     */
+    @Test
+    void whenAddAllThenTasksWithCategoriesInDatabase() {
+        Task task2 = Task.builder()
+                .name("task2")
+                .description("description2")
+                .priority(priority)
+                .user(user)
+                .build();
+        int added = taskRepository.addAll(List.of(task, task2));
+
+        assertThat(added).isEqualTo(2);
+        assertThat(task.getId()).isNotEqualTo(0);
+        assertThat(taskRepository.findTaskById(task.getId()).get().getCategories())
+                .extracting(Category::getName).containsExactly("category");
+        assertThat(taskRepository.findTaskById(task2.getId()).get().getCategories()).isEmpty();
+        assertThat(taskRepository.addAll(List.of())).isEqualTo(0);
+    }
+
+    /**
+     * Создаются задачи пользователя с двумя категориями и без категорий и задача
+     * другого пользователя, задачи сохраняются в базе данных. Через вызов метода
+     * {@link TaskRepository#exportTasksByUser(int, java.util.function.Consumer)}
+     * получаем строки выгрузки. Выполняем проверку, что выгружены только задачи
+     * пользователя, по одной строке на задачу с именами всех категорий.
+     */
+    @Test
+    void whenExportTasksByUserThenRowPerTask() {
+        Category category2 = Category.builder()
+                .name("category2")
+                .build();
+        categoryRepository.add(category2);
+        task.setCategories(List.of(category, category2));
+        Task task2 = Task.builder()
+                .name("task2")
+                .description("description2")
+                .priority(priority)
+                .user(user)
+                .build();
+        taskRepository.add(task);
+        taskRepository.add(task2);
+        taskRepository.add(otherUserTask());
+        List<TaskExportRow> rows = new ArrayList<>();
+        int count = taskRepository.exportTasksByUser(user.getId(), rows::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(rows).extracting(TaskExportRow::getName).containsExactly("task", "task2");
+        assertThat(rows.get(0).getPriority()).isEqualTo("priority");
+        assertThat(rows.get(0).getCategories()).containsExactlyInAnyOrder("category", "category2");
+        assertThat(rows.get(1).getCategories()).isEmpty();
+    }
+
+    /**
+     * Создает и сохраняет в базе данных другого пользователя,
+     * возвращает несохраненную задачу этого пользователя.
+     *
+     * @return задача другого пользователя
+     */
+    private Task otherUserTask() {
+        User other = User.builder()
+                .name("otheruser")
+                .login("other")
+                .password("password")
+                .build();
+        userRepository.add(other);
+        return Task.builder()
+                .name("otherTask")
+                .description("description3")
+                .categories(List.of(category))
+                .priority(priority)
+                .user(other)
+                .build();
+    }
+}
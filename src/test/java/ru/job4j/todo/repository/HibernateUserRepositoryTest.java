@@ -51,7 +51,7 @@ class HibernateUserRepositoryTest {
      */
     @BeforeEach
     void setUp() {
-        userRepository = new HibernateUserRepository(sf());
+        userRepository = new HibernateUserRepository(new SessionExecutor(sf()));
         user = User.builder()
                 .name("administrator")
                 .login("login")
@@ -87,6 +87,21 @@ class HibernateUserRepositoryTest {
         assertThat(userFromDB).isEqualTo(Optional.empty());
     }
 
+    /**
+     * Создается объект user и сохраняется в базе данных.
+     * Через вызов метода {@link UserRepository#findFreshUserByLogin(String)}
+     * получаем user из базы данных с текущим паролем,
+     * по логину, которого нет в базе данных, получаем Optional.empty.
+     */
+    @Test
+    void whenFindFreshUserByLoginThenGetUserFromDB() {
+        User userFromDB = userRepository.findFreshUserByLogin(user.getLogin()).get();
+
+        assertThat(userFromDB.getName()).isEqualTo(user.getName());
+        assertThat(userFromDB.getPassword()).isEqualTo(user.getPassword());
+        assertThat(userRepository.findFreshUserByLogin(user.getLogin() + 1)).isEmpty();
+    }
+
     /**
      * Создается объект user и сохраняется в базе данных.
      * Выполняется изменение данных с обновлением объекта user в
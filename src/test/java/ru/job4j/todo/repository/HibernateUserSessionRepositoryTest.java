@@ -0,0 +1,146 @@
+package ru.job4j.todo.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Bean;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.model.UserSession;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тест класс реализации хранилища сессий пользователей
+ * @see ru.job4j.todo.repository.UserSessionRepository
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class HibernateUserSessionRepositoryTest {
+
+    /**
+     * Момент создания сессий
+     */
+    private static final Instant NOW = Instant.parse("2022-10-01T09:00:00Z");
+
+    /**
+     * Объект репозитория UserSessionRepository
+     */
+    private UserSessionRepository userSessionRepository;
+
+    /**
+     * Пользователь
+     */
+    private User user;
+
+    /**
+     * Создание объекта (bean), используемого для
+     * подключения к базе данных приложения,
+     * параметры считываются из файла /resources/hibernate.cfg.xml
+     *
+     * @return объект (фабрика сессий)
+     */
+    @Bean(destroyMethod = "close")
+    SessionFactory sf() {
+        final StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .configure().build();
+        return new MetadataSources(registry).buildMetadata().buildSessionFactory();
+    }
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        SessionExecutor executor = new SessionExecutor(sf());
+        userSessionRepository = new HibernateUserSessionRepository(executor);
+        user = User.builder()
+                .name("administrator")
+                .login("login")
+                .password("password")
+                .timezone("Europe/Moscow")
+                .build();
+        new HibernateUserRepository(executor).add(user);
+    }
+
+    /**
+     * Создает сессию пользователя с заданным моментом последнего обращения.
+     *
+     * @param id идентификатор сессии
+     * @param lastAccess момент последнего обращения
+     * @return сессия
+     */
+    private UserSession session(String id, Instant lastAccess) {
+        return UserSession.builder()
+                .id(id)
+                .user(user)
+                .timezone("Asia/Tokyo")
+                .created(NOW)
+                .lastAccess(lastAccess)
+                .build();
+    }
+
+    /**
+     * Сохраняется сессия и выполняется ее поиск по идентификатору.
+     * Выполняем проверку, что сессия найдена вместе с пользователем
+     * и временной зоной сессии.
+     */
+    @Test
+    void whenAddSessionThenFindWithUser() {
+        userSessionRepository.add(session("s1", NOW));
+
+        UserSession found = userSessionRepository.findById("s1").get();
+
+        assertThat(found.getUser().getLogin()).isEqualTo("login");
+        assertThat(found.getTimezone()).isEqualTo("Asia/Tokyo");
+        assertThat(found.getLastAccess()).isEqualTo(NOW);
+        assertThat(userSessionRepository.findById("s2")).isEmpty();
+    }
+
+    /**
+     * Сохраняются сессии и одним запросом обновляется момент последнего обращения.
+     * Выполняем проверку, что более поздний записанный момент обращения не уменьшается.
+     */
+    @Test
+    void whenTouchThenLastAccessUpdatedButNotMovedBack() {
+        Instant later = NOW.plus(Duration.ofMinutes(5));
+        userSessionRepository.add(session("s1", NOW));
+        userSessionRepository.add(session("s2", later));
+
+        int updated = userSessionRepository.touch(List.of("s1", "s2", "s3"), NOW.plus(Duration.ofMinutes(1)));
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(userSessionRepository.findById("s1").get().getLastAccess())
+                .isEqualTo(NOW.plus(Duration.ofMinutes(1)));
+        assertThat(userSessionRepository.findById("s2").get().getLastAccess()).isEqualTo(later);
+        assertThat(userSessionRepository.touch(List.of(), NOW)).isZero();
+    }
+
+    /**
+     * Сохраняются сессии и выполняется удаление сессии по идентификатору
+     * и удаление истекших сессий. Выполняем проверку, что остается только
+     * действующая сессия.
+     */
+    @Test
+    void whenDeleteThenOnlyActiveSessionsRemain() {
+        userSessionRepository.add(session("old", NOW.minus(Duration.ofHours(1))));
+        userSessionRepository.add(session("active", NOW));
+        userSessionRepository.add(session("logout", NOW));
+
+        boolean deleted = userSessionRepository.deleteById("logout");
+        int expired = userSessionRepository.deleteExpired(NOW.minus(Duration.ofMinutes(30)));
+
+        assertThat(deleted).isTrue();
+        assertThat(expired).isEqualTo(1);
+        assertThat(userSessionRepository.findById("old")).isEmpty();
+        assertThat(userSessionRepository.findById("logout")).isEmpty();
+        assertThat(userSessionRepository.findById("active")).isPresent();
+    }
+}
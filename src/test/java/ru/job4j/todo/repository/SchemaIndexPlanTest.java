@@ -0,0 +1,122 @@
+package ru.job4j.todo.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тест класс индексов схемы базы данных. Проверяет по плану выполнения (EXPLAIN)
+ * базы данных H2, что запросы основных сценариев используют индексы,
+ * объявленные в сущностях и в changeset 011, 014 файла db/dbchangelog.xml.
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class SchemaIndexPlanTest {
+
+    /**
+     * Фабрика сессий
+     */
+    private SessionFactory sf;
+
+    /**
+     * Исполнитель операций с базой данных
+     */
+    private SessionExecutor executor;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        final StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .configure().build();
+        sf = new MetadataSources(registry).buildMetadata().buildSessionFactory();
+        executor = new SessionExecutor(sf);
+    }
+
+    /**
+     * Закрывает фабрику сессий после каждого теста.
+     */
+    @AfterEach
+    void tearDown() {
+        sf.close();
+    }
+
+    /**
+     * Выполняем проверку, что выборка категорий задач по списку идентификаторов задач
+     * использует индекс ограничения уникальности связи.
+     */
+    @Test
+    void whenSelectCategoriesByTaskThenUniqueIndexUsed() {
+        assertThat(explain("select category_id from tasks_categories where task_id in (1, 2)"))
+                .contains("TASKS_CATEGORIES_TASK_ID_CATEGORY_ID_KEY");
+    }
+
+    /**
+     * Выполняем проверку, что выборка связей по категории использует индекс по category_id.
+     */
+    @Test
+    void whenSelectTasksByCategoryThenCategoryIndexUsed() {
+        assertThat(explain("select task_id from tasks_categories where category_id = 1"))
+                .contains("TASKS_CATEGORIES_CATEGORY_ID_IDX");
+    }
+
+    /**
+     * Выполняем проверку, что страница задач пользователя по статусу
+     * выбирается по индексу (user_id, done, id).
+     */
+    @Test
+    void whenSelectUserTasksPageThenUserDoneIndexUsed() {
+        assertThat(explain("select id from tasks where user_id = 1 and done = false and id > 0 "
+                + "order by id limit 20"))
+                .contains("TASKS_USER_ID_DONE_ID_IDX");
+    }
+
+    /**
+     * Выполняем проверку, что выборка задач по статусу использует индекс (done, id).
+     */
+    @Test
+    void whenSelectTasksByDoneThenDoneIndexUsed() {
+        assertThat(explain("select id from tasks where done = true order by id"))
+                .contains("TASKS_DONE_ID_IDX");
+    }
+
+    /**
+     * Выполняем проверку, что повторная связь задачи с категорией
+     * нарушает ограничение уникальности.
+     */
+    @Test
+    void whenInsertDuplicateTaskCategoryThenConstraintViolation() {
+        executor.write("insert", session -> session.createNativeQuery(
+                "insert into todo_users (id, name, login, password) values (1, 'username', 'login', 'pass');"
+                        + "insert into priorities (id, name, position) values (1, 'priority', 1);"
+                        + "insert into categories (id, name) values (1, 'category');"
+                        + "insert into tasks (id, name, description, created_at, done, user_id, priority_id) "
+                        + "values (1, 'task', 'description', current_timestamp, false, 1, 1);"
+                        + "insert into tasks_categories (task_id, category_id) values (1, 1)").executeUpdate());
+
+        RepositoryException e = assertThrows(RepositoryException.class,
+                () -> executor.write("duplicate", session -> session.createNativeQuery(
+                        "insert into tasks_categories (task_id, category_id) values (1, 1)").executeUpdate()));
+        assertThat(e.isConstraintViolation()).isTrue();
+    }
+
+    /**
+     * Возвращает план выполнения запроса.
+     *
+     * @param sql запрос
+     * @return план выполнения запроса
+     */
+    private String explain(String sql) {
+        return executor.read("explain", session -> session.createNativeQuery("explain " + sql)
+                .getSingleResult().toString());
+    }
+}
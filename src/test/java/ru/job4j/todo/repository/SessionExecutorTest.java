@@ -0,0 +1,161 @@
+package ru.job4j.todo.repository;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.hibernate5.HibernateTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.job4j.todo.model.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тест класс исполнителя операций с базой данных
+ * @see ru.job4j.todo.repository.SessionExecutor
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class SessionExecutorTest {
+
+    /**
+     * Фабрика сессий
+     */
+    private SessionFactory sf;
+
+    /**
+     * Исполнитель операций с базой данных
+     */
+    private SessionExecutor executor;
+
+    /**
+     * Имена операций, переданные обработчику завершения операций
+     */
+    private List<String> calls;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        final StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .configure().build();
+        sf = new MetadataSources(registry).buildMetadata().buildSessionFactory();
+        calls = new ArrayList<>();
+        executor = new SessionExecutor(sf,
+                (operation, readOnly, elapsedNanos, failure) -> calls.add(
+                        operation + ":" + readOnly + ":" + (failure != null)));
+    }
+
+    /**
+     * Закрывает фабрику сессий после каждого теста.
+     */
+    @AfterEach
+    void tearDown() {
+        sf.close();
+    }
+
+    /**
+     * Сохраняется категория, затем в операции чтения изменяется наименование
+     * загруженной категории. Выполняем проверку, что сессия только для чтения
+     * и изменение не сохранено в базе данных.
+     */
+    @Test
+    void whenReadThenChangesNotFlushed() {
+        Category category = Category.builder()
+                .name("category")
+                .build();
+        executor.write("save", session -> session.save(category));
+        boolean readOnly = executor.read("change", session -> {
+            Category loaded = session.get(Category.class, category.getId());
+            loaded.setName("changed");
+            return session.isReadOnly(loaded);
+        });
+        String name = executor.read("find", session -> session.get(Category.class, category.getId()).getName());
+
+        assertThat(readOnly).isTrue();
+        assertThat(name).isEqualTo("category");
+        assertThat(calls).containsExactly("save:false:false", "change:true:false", "find:true:false");
+    }
+
+    /**
+     * Добавляется связь задачи с категорией, которых нет в базе данных. Выполняем
+     * проверку преобразования исключения hibernate в исключение хранилища
+     * с признаком нарушения ограничения целостности и передачи ошибки обработчику.
+     */
+    @Test
+    void whenConstraintViolatedThenRepositoryException() {
+        RepositoryException e = assertThrows(RepositoryException.class,
+                () -> executor.write("link", session -> session.createNativeQuery(
+                        "insert into tasks_categories (task_id, category_id) values (-1, -1)").executeUpdate()));
+
+        assertThat(e.isConstraintViolation()).isTrue();
+        assertThat(calls).containsExactly("link:false:true");
+    }
+
+    /**
+     * Выполняем проверку, что исключения, не связанные с базой данных,
+     * выбрасываются без преобразования.
+     */
+    @Test
+    void whenOtherExceptionThenNotTranslated() {
+        assertThrows(IllegalStateException.class, () -> executor.read("fail", session -> {
+            throw new IllegalStateException();
+        }));
+    }
+
+    /**
+     * Внутри транзакции Spring выполняются операции изменения и чтения данных.
+     * Выполняем проверку, что обе операции выполнены в одной сессии транзакции
+     * и сохраненная категория доступна после фиксации транзакции.
+     */
+    @Test
+    void whenSpringTransactionThenOperationsShareSession() {
+        TransactionTemplate template = new TransactionTemplate(new HibernateTransactionManager(sf));
+        Category category = Category.builder()
+                .name("category")
+                .build();
+        boolean sameSession = Boolean.TRUE.equals(template.execute(status -> {
+            Session saved = executor.write("save", session -> {
+                session.save(category);
+                return session;
+            });
+            Session found = executor.read("find", session -> session);
+            return saved == found;
+        }));
+        String name = executor.read("find", session -> session.get(Category.class, category.getId()).getName());
+
+        assertThat(sameSession).isTrue();
+        assertThat(name).isEqualTo("category");
+    }
+
+    /**
+     * Внутри транзакции Spring сохраняется категория, затем выбрасывается исключение.
+     * Выполняем проверку, что изменения операции хранилища отменены вместе
+     * с транзакцией Spring.
+     */
+    @Test
+    void whenSpringTransactionFailsThenWriteRolledBack() {
+        TransactionTemplate template = new TransactionTemplate(new HibernateTransactionManager(sf));
+        Category category = Category.builder()
+                .name("category")
+                .build();
+        assertThrows(IllegalStateException.class, () -> template.executeWithoutResult(status -> {
+            executor.write("save", session -> session.save(category));
+            throw new IllegalStateException();
+        }));
+        Long count = executor.read("count", session -> session
+                .createQuery("select count(c) from Category c", Long.class).uniqueResult());
+
+        assertThat(count).isZero();
+    }
+}
@@ -0,0 +1,183 @@
+package ru.job4j.todo.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.job4j.todo.model.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тест класс показателей кэша пользователей
+ * @see ru.job4j.todo.repository.UserCacheMonitor
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class UserCacheMonitorTest {
+
+    /**
+     * Фабрика сессий с включенным вторым уровнем кэша и кэшем запросов
+     */
+    private SessionFactory cachedSf;
+
+    /**
+     * Объект репозитория UserRepository
+     */
+    private UserRepository userRepository;
+
+    /**
+     * Показатели кэша пользователей
+     */
+    private UserCacheMonitor monitor;
+
+    /**
+     * Пользователь
+     */
+    private User user;
+
+    /**
+     * Создает фабрику сессий с кэшем, как в hibernate.cfg.xml приложения,
+     * и сохраняет пользователя. Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        final StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .configure()
+                .applySetting("hibernate.cache.use_second_level_cache", "true")
+                .applySetting("hibernate.cache.use_query_cache", "true")
+                .applySetting("hibernate.cache.region.factory_class", "jcache")
+                .applySetting("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider")
+                .applySetting("hibernate.javax.cache.uri", "ehcache.xml")
+                .applySetting("hibernate.generate_statistics", "true")
+                .build();
+        cachedSf = new MetadataSources(registry).buildMetadata().buildSessionFactory();
+        userRepository = new HibernateUserRepository(new SessionExecutor(cachedSf));
+        monitor = new UserCacheMonitor(cachedSf);
+        user = User.builder()
+                .name("administrator")
+                .login("login")
+                .password("password")
+                .timezone("Europe/Moscow")
+                .build();
+        userRepository.add(user);
+    }
+
+    /**
+     * Закрывает фабрику сессий после каждого теста.
+     */
+    @AfterEach
+    void tearDown() {
+        cachedSf.close();
+    }
+
+    /**
+     * Выполняется повторный поиск известного и неизвестного логина.
+     * Выполняем проверку, что повторные поиски не обращаются к базе данных,
+     * а показатели содержат попадания, количество записей и оценку памяти.
+     */
+    @Test
+    void whenRepeatedLookupsThenServedFromCacheIncludingUnknownLogin() {
+        Statistics statistics = cachedSf.getStatistics();
+        userRepository.findUserByLogin("login");
+        userRepository.findUserByLogin("unknown");
+        long statements = statistics.getPrepareStatementCount();
+
+        User cached = userRepository.findUserByLogin("login").get();
+        boolean unknown = userRepository.findUserByLogin("unknown").isEmpty();
+        UserCacheStats stats = monitor.stats();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(cached.getName()).isEqualTo("administrator");
+        assertThat(unknown).isTrue();
+        assertThat(stats.getLoginHits()).isEqualTo(2);
+        assertThat(stats.getLoginMisses()).isEqualTo(2);
+        assertThat(stats.getLoginHitRatio()).isEqualTo(0.5);
+        assertThat(stats.getEntityHits()).isPositive();
+        assertThat(stats.getLoginEntries()).isEqualTo(2);
+        assertThat(stats.getEntityEntries()).isEqualTo(1);
+        assertThat(stats.getEstimatedBytes()).isBetween(100L, 16L * 1024);
+    }
+
+    /**
+     * Выполняется поиск пользователя, его обновление и повторный поиск.
+     * Выполняем проверку, что после обновления возвращается новое имя,
+     * а ранее найденный неизвестный логин после регистрации находится.
+     */
+    @Test
+    void whenUserUpdatedOrRegisteredThenCachedLookupsInvalidated() {
+        userRepository.findUserByLogin("login");
+        userRepository.findUserByLogin("new");
+        user.setName("administrator.2");
+
+        userRepository.update(user);
+        User updated = userRepository.findUserByLogin("login").get();
+        userRepository.add(User.builder().name("newuser").login("new").password("password").build());
+
+        assertThat(updated.getName()).isEqualTo("administrator.2");
+        assertThat(userRepository.findUserByLogin("new")).isPresent();
+    }
+
+    /**
+     * Выполняется поиск пользователя, изменение логина и пароля и повторный поиск.
+     * Выполняем проверку, что обновление удаляет пользователя и результаты поиска
+     * по логину из кэша: прежний логин не находится, а новый логин находится
+     * с новым паролем запросом к базе данных.
+     */
+    @Test
+    void whenLoginAndPasswordChangedThenEvictedFromCache() {
+        Statistics statistics = cachedSf.getStatistics();
+        userRepository.findUserByLogin("login");
+        user.setLogin("login.2");
+        user.setPassword("password.2");
+
+        userRepository.update(user);
+        long statements = statistics.getPrepareStatementCount();
+        User changed = userRepository.findUserByLogin("login.2").get();
+
+        assertThat(statistics.getPrepareStatementCount()).isGreaterThan(statements);
+        assertThat(changed.getPassword()).isEqualTo("password.2");
+        assertThat(userRepository.findUserByLogin("login")).isEmpty();
+        assertThat(monitor.stats().getEntityEntries()).isEqualTo(1);
+    }
+
+    /**
+     * Выполняется поиск известного и неизвестного логина и удаление пользователя
+     * из кэша. Выполняем проверку, что удалены пользователь и все результаты
+     * поиска по логину, в том числе пустые.
+     */
+    @Test
+    void whenEvictThenUserAndLoginLookupsRemoved() {
+        userRepository.findUserByLogin("login");
+        userRepository.findUserByLogin("unknown");
+
+        userRepository.evict(user);
+        UserCacheStats stats = monitor.stats();
+
+        assertThat(stats.getLoginEntries()).isZero();
+        assertThat(stats.getEntityEntries()).isZero();
+        assertThat(stats.getEstimatedBytes()).isZero();
+    }
+
+    /**
+     * Выполняется проверка нулевых показателей при выключенном втором уровне кэша.
+     */
+    @Test
+    void whenCacheDisabledThenZeroStats() {
+        final StandardServiceRegistry registry = new StandardServiceRegistryBuilder().configure().build();
+        SessionFactory sf = new MetadataSources(registry).buildMetadata().buildSessionFactory();
+        try {
+            UserCacheStats stats = new UserCacheMonitor(sf).stats();
+
+            assertThat(stats.getLoginEntries()).isZero();
+            assertThat(stats.getEstimatedBytes()).isZero();
+            assertThat(stats.getLoginHitRatio()).isZero();
+        } finally {
+            sf.close();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package ru.job4j.todo.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.job4j.todo.dto.TaskNameRow;
+import ru.job4j.todo.dto.TaskSuggestion;
+import ru.job4j.todo.repository.TaskRepository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Тест класс индекса наименований задач
+ * @see ru.job4j.todo.search.TaskNameIndex
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class TaskNameIndexTest {
+
+    /**
+     * Моск объекта TaskRepository
+     */
+    private TaskRepository taskRepository;
+
+    /**
+     * Индекс наименований задач
+     */
+    private TaskNameIndex index;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        taskRepository = Mockito.mock(TaskRepository.class);
+        index = new TaskNameIndex(taskRepository);
+    }
+
+    /**
+     * Индекс загружается из хранилища. Выполняется проверка поиска по вхождению
+     * строки без учета регистра с сортировкой по убыванию идентификатора
+     * и без подсказок по задачам другого пользователя.
+     */
+    @Test
+    void whenLoadThenSuggestUserTasksBySubstring() {
+        doAnswer(invocation -> {
+            Consumer<TaskNameRow> consumer = invocation.getArgument(0);
+            consumer.accept(new TaskNameRow(1, 1, "Купить молоко"));
+            consumer.accept(new TaskNameRow(2, 1, "Позвонить маме"));
+            consumer.accept(new TaskNameRow(3, 1, "Молоко и хлеб"));
+            consumer.accept(new TaskNameRow(4, 2, "Купить молоко"));
+            return 4;
+        }).when(taskRepository).scanTaskNames(any());
+        index.load();
+
+        assertThat(index.suggest(1, "МОЛОК", 10)).containsExactly(
+                new TaskSuggestion(3, "Молоко и хлеб"), new TaskSuggestion(1, "Купить молоко"));
+        assertThat(index.suggest(1, "ма", 10)).containsExactly(new TaskSuggestion(2, "Позвонить маме"));
+        assertThat(index.suggest(1, "молоко", 1)).containsExactly(new TaskSuggestion(3, "Молоко и хлеб"));
+        assertThat(index.suggest(3, "молоко", 10)).isEmpty();
+    }
+
+    /**
+     * Выполняется проверка, что совпадение всех триграмм без вхождения
+     * строки запроса целиком не дает подсказки.
+     */
+    @Test
+    void whenTrigramsMatchButNotSubstringThenNoSuggestion() {
+        index.put(1, 1, "abcd bcde");
+
+        assertThat(index.suggest(1, "abcde", 10)).isEmpty();
+        assertThat(index.suggest(1, "bcde", 10)).containsExactly(new TaskSuggestion(1, "abcd bcde"));
+    }
+
+    /**
+     * Выполняется проверка замены наименования задачи, удаления задачи
+     * и удаления задач с проверкой пользователя.
+     */
+    @Test
+    void whenPutAndRemoveThenIndexChanged() {
+        index.put(1, 1, "первая задача");
+        index.put(1, 2, "вторая задача");
+        index.put(2, 3, "чужая задача");
+        index.put(1, 1, "переименована");
+        List<TaskSuggestion> renamed = index.suggest(1, "задача", 10);
+        index.remove(2);
+        index.removeAll(1, List.of(3));
+
+        assertThat(renamed).containsExactly(new TaskSuggestion(2, "вторая задача"));
+        assertThat(index.suggest(1, "задача", 10)).isEmpty();
+        assertThat(index.suggest(2, "задача", 10)).containsExactly(new TaskSuggestion(3, "чужая задача"));
+        assertThat(index.suggest(1, "переим", 10)).containsExactly(new TaskSuggestion(1, "переименована"));
+    }
+
+    /**
+     * Выполняется проверка показателей индекса и оценки памяти на одну задачу.
+     */
+    @Test
+    void whenStatsThenReportMemoryPerTask() {
+        index.put(1, 1, "abcd");
+        index.put(1, 2, "abce");
+        IndexStats stats = index.stats();
+
+        assertThat(stats.getTasks()).isEqualTo(2);
+        assertThat(stats.getTrigrams()).isEqualTo(3);
+        assertThat(stats.getPostings()).isEqualTo(4);
+        assertThat(stats.getBytesPerTask()).isPositive();
+    }
+}
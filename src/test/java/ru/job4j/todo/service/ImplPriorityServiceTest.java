@@ -8,6 +8,7 @@ import org.mockito.Mockito;
 import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.repository.PriorityRepository;
 
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -53,6 +54,16 @@ class ImplPriorityServiceTest {
                 .build();
     }
 
+    /**
+     * Выполняется проверка возвращения списка всех приоритетов от priorityRepository.
+     */
+    @Test
+    void whenFindAllPrioritiesThenReturnList() {
+        doReturn(List.of(priority)).when(priorityRepository).findAllPriorities();
+
+        assertThat(priorityService.findAllPriorities()).containsExactly(priority);
+    }
+
     /**
      * Выполняется проверка возвращения приоритета, при возврате
      * от priorityRepository Optional.of(priority), т.е. если приоритет найден по имени.
@@ -0,0 +1,95 @@
+package ru.job4j.todo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.job4j.todo.dto.TaskExportRow;
+import ru.job4j.todo.repository.TaskRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Тест класс реализации сервиса выгрузки задач
+ * @see ru.job4j.todo.service.TaskExportService
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class ImplTaskExportServiceTest {
+
+    /**
+     * Объект для доступа к методам TaskExportService
+     */
+    private TaskExportService taskExportService;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Хранилище передает обработчику две строки выгрузки.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        TaskRepository taskRepository = Mockito.mock(TaskRepository.class);
+        taskExportService = new ImplTaskExportService(taskRepository, new ObjectMapper());
+        Instant created = Instant.parse("2022-10-01T09:30:00Z");
+        List<TaskExportRow> rows = List.of(
+                new TaskExportRow(1, "task, \"one\"", "description", created, true, "Высокий",
+                        List.of("Дом", "Учеба")),
+                new TaskExportRow(2, "task2", "description2", created, false, "Низкий", List.of()));
+        doAnswer(invocation -> {
+            Consumer<TaskExportRow> consumer = invocation.getArgument(1);
+            rows.forEach(consumer);
+            return rows.size();
+        }).when(taskRepository).exportTasksByUser(eq(1), any());
+    }
+
+    /**
+     * Выполняется проверка выгрузки в CSV с заголовком и экранированием полей.
+     */
+    @Test
+    void whenExportCsvThenHeaderAndEscapedRows() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int count = taskExportService.exportTasks(1, "csv", out);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,name,description,created,done,priority,categories\n"
+                        + "1,\"task, \"\"one\"\"\",description,2022-10-01T09:30:00Z,true,Высокий,Дом;Учеба\n"
+                        + "2,task2,description2,2022-10-01T09:30:00Z,false,Низкий,\n");
+    }
+
+    /**
+     * Выполняется проверка выгрузки в JSON lines, по одному объекту в строке.
+     */
+    @Test
+    void whenExportJsonLinesThenObjectPerLine() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        taskExportService.exportTasks(1, "jsonl", out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).isEqualTo("{\"id\":1,\"name\":\"task, \\\"one\\\"\",\"description\":\"description\","
+                + "\"created\":\"2022-10-01T09:30:00Z\",\"done\":true,\"priority\":\"Высокий\","
+                + "\"categories\":[\"Дом\",\"Учеба\"]}");
+    }
+
+    /**
+     * Выполняется проверка выброса исключения при неподдерживаемом формате.
+     */
+    @Test
+    void whenUnknownFormatThenThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> taskExportService.exportTasks(1, "xml", new ByteArrayOutputStream()));
+    }
+}
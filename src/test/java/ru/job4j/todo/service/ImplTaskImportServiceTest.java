@@ -0,0 +1,277 @@
+package ru.job4j.todo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import ru.job4j.todo.dto.ImportReport;
+import ru.job4j.todo.dto.TaskExportRow;
+import ru.job4j.todo.model.Category;
+import ru.job4j.todo.model.Priority;
+import ru.job4j.todo.model.Task;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.repository.TaskRepository;
+import ru.job4j.todo.search.TaskNameIndex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Тест класс реализации сервиса импорта задач
+ * @see ru.job4j.todo.service.TaskImportService
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class ImplTaskImportServiceTest {
+
+    /**
+     Моск объекта TaskRepository
+     */
+    private TaskRepository taskRepository;
+
+    /**
+     Моск объекта PriorityService
+     */
+    private PriorityService priorityService;
+
+    /**
+     * Объект для доступа к методам TaskImportService
+     */
+    private TaskImportService taskImportService;
+
+    /**
+     * Пользователь
+     */
+    private User user;
+
+    /**
+     * Приоритет
+     */
+    private Priority priority;
+
+    /**
+     * Категория
+     */
+    private Category category;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    public void setup() {
+        taskRepository = Mockito.mock(TaskRepository.class);
+        priorityService = Mockito.mock(PriorityService.class);
+        CategoryService categoryService = Mockito.mock(CategoryService.class);
+        taskImportService = new ImplTaskImportService(taskRepository, priorityService,
+                categoryService, new ObjectMapper(), new TaskNameIndex(taskRepository));
+
+        user = User.builder()
+                .id(1)
+                .name("username")
+                .build();
+        priority = Priority.builder()
+                .id(1)
+                .name("Высокий")
+                .build();
+        category = Category.builder()
+                .id(1)
+                .name("Дом")
+                .build();
+        doReturn(List.of(category)).when(categoryService).findAllCategories();
+        doReturn(priority).when(priorityService).findPriorityByName("Высокий");
+        doThrow(new NoSuchElementException("Приоритет c name = Нет не найден"))
+                .when(priorityService).findPriorityByName("Нет");
+        doAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size())
+                .when(taskRepository).addAll(anyList());
+    }
+
+    /**
+     * Выполняется проверка импорта CSV: задачи с корректными строками
+     * сохраняются с найденными приоритетом и категориями, строки с ошибками
+     * попадают в отчет с номером строки.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenImportCsvThenValidRowsSavedAndErrorsReported() {
+        String csv = "name,description,priority,categories,done\n"
+                + "\"task, one\",description,Высокий,Дом,true\n"
+                + ",description,Высокий,Дом,false\n"
+                + "task3,description,Нет,,false\n"
+                + "task4,description,Высокий,Сад,false\n";
+        ArgumentCaptor<List<Task>> captor = ArgumentCaptor.forClass(List.class);
+        List<Task> saved = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            saved.addAll(tasks);
+            return tasks.size();
+        }).when(taskRepository).addAll(captor.capture());
+
+        ImportReport report = taskImportService.importTasks(new StringReader(csv), "csv", user);
+
+        assertThat(report.getProcessed()).isEqualTo(4);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getErrors()).hasSize(3);
+        assertThat(report.getErrors().get(0)).startsWith("Строка 3");
+        assertThat(saved).hasSize(1);
+        Task task = saved.get(0);
+        assertThat(task.getName()).isEqualTo("task, one");
+        assertThat(task.isDone()).isTrue();
+        assertThat(task.getPriority()).isSameAs(priority);
+        assertThat(task.getCategories()).containsExactly(category);
+        assertThat(task.getUser()).isSameAs(user);
+        assertThat(task.getCreated()).isNotNull();
+    }
+
+    /**
+     * Выполняется проверка импорта JSON lines с сохранением пакетами
+     * фиксированного размера и однократным запросом приоритета.
+     */
+    @Test
+    void whenImportJsonLinesThenSavedInChunks() {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < 1001; i++) {
+            json.append("{\"name\":\"task").append(i)
+                    .append("\",\"priority\":\"Высокий\",\"categories\":[\"Дом\"]}\n");
+        }
+        json.append("not json\n");
+
+        ImportReport report = taskImportService.importTasks(new StringReader(json.toString()), "jsonl", user);
+
+        assertThat(report.getProcessed()).isEqualTo(1002);
+        assertThat(report.getImported()).isEqualTo(1001);
+        assertThat(report.getFailed()).isEqualTo(1);
+        verify(taskRepository, times(3)).addAll(anyList());
+        verify(priorityService, times(1)).findPriorityByName("Высокий");
+    }
+
+    /**
+     * Выполняется проверка отклонения всех строк пакета при ошибке сохранения.
+     */
+    @Test
+    void whenSaveChunkFailsThenRowsReportedFailed() {
+        doThrow(new IllegalStateException("db")).when(taskRepository).addAll(anyList());
+        String csv = "name,priority\ntask1,Высокий\ntask2,Высокий\n";
+
+        ImportReport report = taskImportService.importTasks(new StringReader(csv), "csv", user);
+
+        assertThat(report.getImported()).isEqualTo(0);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors()).hasSize(1);
+    }
+
+    /**
+     * Выполняется проверка выброса исключения при неподдерживаемом формате
+     * и при заголовке CSV без обязательных колонок.
+     */
+    @Test
+    void whenUnknownFormatOrBadHeaderThenThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> taskImportService.importTasks(new StringReader(""), "xml", user));
+        assertThrows(IllegalArgumentException.class,
+                () -> taskImportService.importTasks(new StringReader("title,done\n"), "csv", user));
+    }
+
+    /**
+     * Выполняется выгрузка в CSV задачи с переводом строки в описании и импорт
+     * выгруженных данных. Выполняем проверку, что запись из нескольких строк
+     * импортируется одной задачей с исходным описанием, а номер строки ошибки
+     * следующей записи учитывает строки многострочной записи.
+     */
+    @Test
+    void whenImportExportedCsvWithMultilineDescriptionThenRoundTrip() {
+        TaskRepository exportRepository = Mockito.mock(TaskRepository.class);
+        List<TaskExportRow> rows = List.of(
+                new TaskExportRow(1, "task", "line one\n\"line\", two", Instant.parse("2022-10-01T09:30:00Z"),
+                        true, "Высокий", List.of("Дом")),
+                new TaskExportRow(2, "task2", "description", Instant.parse("2022-10-01T09:30:00Z"),
+                        false, "Нет", List.of()));
+        doAnswer(invocation -> {
+            Consumer<TaskExportRow> consumer = invocation.getArgument(1);
+            rows.forEach(consumer);
+            return rows.size();
+        }).when(exportRepository).exportTasksByUser(eq(1), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ImplTaskExportService(exportRepository, new ObjectMapper()).exportTasks(1, "csv", out);
+        List<Task> saved = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            saved.addAll(tasks);
+            return tasks.size();
+        }).when(taskRepository).addAll(anyList());
+
+        ImportReport report = taskImportService.importTasks(
+                new StringReader(out.toString(StandardCharsets.UTF_8)), "csv", user);
+
+        assertThat(report.getProcessed()).isEqualTo(2);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).hasSize(1);
+        assertThat(report.getErrors().get(0)).startsWith("Строка 4");
+        assertThat(saved).hasSize(1);
+        assertThat(saved.get(0).getName()).isEqualTo("task");
+        assertThat(saved.get(0).getDescription()).isEqualTo("line one\n\"line\", two");
+        assertThat(saved.get(0).isDone()).isTrue();
+        assertThat(saved.get(0).getCategories()).containsExactly(category);
+    }
+
+    /**
+     * Выполняется импорт CSV, в котором строка с незакрытыми кавычками
+     * стоит перед большим количеством корректных строк и перед концом данных.
+     * Выполняем проверку, что каждая такая запись отклоняется одной ошибкой
+     * по ограничению количества строк или по концу данных, а все следующие
+     * за ней строки импортируются.
+     */
+    @Test
+    void whenCsvRecordUnterminatedThenOneErrorAndNextLinesImported() {
+        StringBuilder csv = new StringBuilder("name,priority\n\"broken,Высокий\n");
+        for (int i = 0; i < 150; i++) {
+            csv.append("task").append(i).append(",Высокий\n");
+        }
+        csv.append("\"tail,Высокий\ntask,Высокий\n");
+
+        ImportReport report = taskImportService.importTasks(new StringReader(csv.toString()), "csv", user);
+
+        assertThat(report.getProcessed()).isEqualTo(153);
+        assertThat(report.getImported()).isEqualTo(151);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors().get(0)).startsWith("Строка 2: Запись CSV длиннее 100 строк");
+        assertThat(report.getErrors().get(1)).isEqualTo("Строка 153: Не закрыты кавычки в строке CSV");
+    }
+
+    /**
+     * Выполняется импорт CSV с записью, поле в кавычках которой длиннее
+     * ограничения длины записи. Выполняем проверку, что запись отклоняется
+     * одной ошибкой, вторая строка поля с оставшейся кавычкой отклоняется
+     * отдельно, а следующая корректная строка импортируется.
+     */
+    @Test
+    void whenCsvRecordTooLongThenOneErrorAndNextRecordImported() {
+        String csv = "name,priority\n\"" + "x".repeat(70_000) + "\n" + "y".repeat(70_000)
+                + "\",Высокий\ntask,Высокий\n";
+
+        ImportReport report = taskImportService.importTasks(new StringReader(csv), "csv", user);
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).hasSize(2);
+        assertThat(report.getErrors().get(0)).startsWith("Строка 2: Запись CSV длиннее");
+    }
+}
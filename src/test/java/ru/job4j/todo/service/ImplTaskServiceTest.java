@@ -3,16 +3,26 @@ package ru.job4j.todo.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import ru.job4j.todo.dto.Page;
+import ru.job4j.todo.dto.TaskListView;
+import ru.job4j.todo.dto.TaskSearchResult;
+import ru.job4j.todo.model.Category;
 import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.model.Task;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.repository.RepositoryException;
 import ru.job4j.todo.repository.TaskRepository;
+import ru.job4j.todo.search.TaskNameIndex;
 
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -33,6 +43,16 @@ class ImplTaskServiceTest {
      */
     private PriorityService priorityService;
 
+    /**
+     Моск объекта CategoryService
+     */
+    private CategoryService categoryService;
+
+    /**
+     * Индекс наименований задач
+     */
+    private TaskNameIndex taskNameIndex;
+
     /**
      * Объект для доступа к методам TaskService
      */
@@ -57,7 +77,9 @@ class ImplTaskServiceTest {
     public void setup() {
         taskRepository = Mockito.mock(TaskRepository.class);
         priorityService = Mockito.mock(PriorityService.class);
-        taskService = new ImplTaskService(taskRepository, priorityService);
+        categoryService = Mockito.mock(CategoryService.class);
+        taskNameIndex = new TaskNameIndex(taskRepository);
+        taskService = new ImplTaskService(taskRepository, priorityService, categoryService, taskNameIndex);
 
         priority = Priority.builder()
                 .id(1)
@@ -152,6 +174,106 @@ class ImplTaskServiceTest {
         assertThat(taskList).isEmpty();
     }
 
+    /**
+     * Выполняется проверка возвращения списка задач пользователя.
+     */
+    @Test
+    void whenFindTasksByUserThenReturnList() {
+        List<Task> tasks = List.of(task);
+        doReturn(tasks).when(taskRepository).findTasksByUser(1, false);
+        List<Task> taskList = taskService.findTasksByUser(1, false);
+
+        assertThat(taskList).containsExactly(task);
+    }
+
+    /**
+     * Выполняется проверка возвращения первой страницы задач,
+     * если в хранилище задач больше размера страницы.
+     */
+    @Test
+    void whenFindFirstTasksPageThenReturnNextCursor() {
+        List<TaskListView> tasks = List.of(view(1), view(2), view(3));
+        doReturn(tasks).when(taskRepository).findTasksAfter(1, null, 0, 3);
+        Page<TaskListView> page = taskService.findTasksPage(1, null, null, null, 2);
+
+        assertThat(page.getItems()).extracting(TaskListView::getId).containsExactly(1, 2);
+        assertThat(page.getPreviousCursor()).isNull();
+        assertThat(page.getNextCursor()).isEqualTo(2);
+    }
+
+    /**
+     * Выполняется проверка возвращения последней страницы задач
+     * при переходе вперед по курсору after.
+     */
+    @Test
+    void whenFindLastTasksPageThenReturnPreviousCursor() {
+        List<TaskListView> tasks = List.of(view(3));
+        doReturn(tasks).when(taskRepository).findTasksAfter(1, false, 2, 3);
+        Page<TaskListView> page = taskService.findTasksPage(1, false, 2, null, 2);
+
+        assertThat(page.getItems()).extracting(TaskListView::getId).containsExactly(3);
+        assertThat(page.getPreviousCursor()).isEqualTo(3);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    /**
+     * Выполняется проверка возвращения страницы задач
+     * при переходе назад по курсору before.
+     */
+    @Test
+    void whenFindTasksPageBeforeThenReturnBothCursors() {
+        List<TaskListView> tasks = List.of(view(1), view(2), view(3));
+        doReturn(tasks).when(taskRepository).findTasksBefore(1, true, 4, 3);
+        Page<TaskListView> page = taskService.findTasksPage(1, true, null, 4, 2);
+
+        assertThat(page.getItems()).extracting(TaskListView::getId).containsExactly(2, 3);
+        assertThat(page.getPreviousCursor()).isEqualTo(2);
+        assertThat(page.getNextCursor()).isEqualTo(3);
+    }
+
+    /**
+     * Выполняется проверка возвращения страницы результатов поиска
+     * с номерами соседних страниц и удалением пробелов из запроса.
+     */
+    @Test
+    void whenSearchTasksThenReturnPageWithPageNumbers() {
+        List<TaskSearchResult> results = List.of(result(1), result(2), result(3));
+        doReturn(results).when(taskRepository).searchTasks(1, "молоко", 2, 3);
+        Page<TaskSearchResult> page = taskService.searchTasks(1, "  молоко ", 1, 2);
+
+        assertThat(page.getItems()).extracting(TaskSearchResult::getId).containsExactly(1, 2);
+        assertThat(page.getPreviousCursor()).isEqualTo(0);
+        assertThat(page.getNextCursor()).isEqualTo(2);
+    }
+
+    /**
+     * Выполняется проверка ограничения глубины поиска: номер страницы за пределом
+     * заменяется номером последней допустимой страницы, на которой нет ссылки
+     * на следующую страницу.
+     */
+    @Test
+    void whenSearchBeyondMaxPagesThenLastPageWithoutNext() {
+        List<TaskSearchResult> results = List.of(result(1), result(2), result(3));
+        doReturn(results).when(taskRepository).searchTasks(1, "молоко", 18, 3);
+        Page<TaskSearchResult> page = taskService.searchTasks(1, "молоко", 1000, 2);
+
+        assertThat(page.getItems()).extracting(TaskSearchResult::getId).containsExactly(1, 2);
+        assertThat(page.getPreviousCursor()).isEqualTo(8);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    /**
+     * Выполняется проверка, что при пустом поисковом запросе
+     * хранилище не вызывается.
+     */
+    @Test
+    void whenSearchBlankTextThenRepositoryNotCalled() {
+        Page<TaskSearchResult> page = taskService.searchTasks(1, " ", 0, 2);
+
+        assertThat(page.getItems()).isEmpty();
+        verify(taskRepository, never()).searchTasks(anyInt(), any(), anyInt(), anyInt());
+    }
+
     /**
      * Выполняется проверка возвращения задачи, при возврате
      * от taskRepository Optional.of(task), т.е. если задача найдена по id.
@@ -199,6 +321,22 @@ class ImplTaskServiceTest {
         assertThrows(IllegalArgumentException.class, () -> taskService.update(task));
     }
 
+    /**
+     * Выполняется проверка выброса TaskConflictException с изменениями пользователя,
+     * если версия задачи не совпала, и проброса остальных ошибок хранилища.
+     */
+    @Test
+    void whenUpdateStaleTaskThenConflict() {
+        doReturn(priority).when(priorityService).findPriorityByName("priority");
+        doThrow(new RepositoryException("stale", null, false, true)).when(taskRepository).update(task);
+
+        TaskConflictException e = assertThrows(TaskConflictException.class, () -> taskService.update(task));
+        doThrow(new RepositoryException("error", null, false, false)).when(taskRepository).update(task);
+
+        assertThat(e.getTask()).isSameAs(task);
+        assertThrows(RepositoryException.class, () -> taskService.update(task));
+    }
+
     /**
      * Выполняется проверка возврата задачи, при возврате от
      * taskRepository Optional.of(task), т.е. если задача была сохранена.
@@ -227,11 +365,45 @@ class ImplTaskServiceTest {
      */
     @Test
     void whenTaskDoneThenReturnTask() {
-        doReturn(Optional.of(task)).when(taskRepository).findTaskById(anyInt());
-        doReturn(Optional.of(task)).when(taskRepository).update(task);
-        Task updatedTask = taskService.taskDone(anyInt());
+        task.setDone(true);
+        doReturn(Optional.of(task)).when(taskRepository).markDone(task.getId());
+        Task updatedTask = taskService.taskDone(task.getId());
 
         assertThat(updatedTask.isDone()).isEqualTo(true);
+        verify(taskRepository, never()).update(any());
+    }
+
+    /**
+     * Выполняется проверка выброса исключения при изменении статуса
+     * задания, если задание не найдено.
+     */
+    @Test
+    void whenTaskDoneThenThrowsException() {
+        doReturn(Optional.empty()).when(taskRepository).markDone(task.getId());
+
+        assertThrows(NoSuchElementException.class, () -> taskService.taskDone(task.getId()));
+    }
+
+    /**
+     * Выполняется проверка изменения индекса наименований задач
+     * при сохранении, обновлении и удалении задачи.
+     */
+    @Test
+    void whenAddUpdateAndDeleteTaskThenIndexChanged() {
+        task.setUser(User.builder().id(1).build());
+        doReturn(priority).when(priorityService).findPriorityByName("priority");
+        doReturn(Optional.of(task)).when(taskRepository).add(task);
+        doReturn(Optional.of(task)).when(taskRepository).update(task);
+        taskService.add(task);
+        List<String> added = suggestedNames();
+        task.setName("renamed");
+        taskService.update(task);
+        List<String> updated = suggestedNames();
+        taskService.deleteTaskById(task.getId());
+
+        assertThat(added).containsExactly("task");
+        assertThat(updated).containsExactly("renamed");
+        assertThat(suggestedNames()).isEmpty();
     }
 
     /**
@@ -242,7 +414,7 @@ class ImplTaskServiceTest {
     void whenAddOrUpdateThenAdd() {
         task.setId(0);
         doReturn(Optional.of(task)).when(taskRepository).add(task);
-        taskService.addOrUpdateTask(task);
+        taskService.addOrUpdateTask(task, null);
 
         verify(taskRepository).add(task);
     }
@@ -254,8 +426,94 @@ class ImplTaskServiceTest {
     @Test
     void whenAddOrUpdateThenUpdate() {
         doReturn(Optional.of(task)).when(taskRepository).update(task);
-        taskService.addOrUpdateTask(task);
+        taskService.addOrUpdateTask(task, null);
 
         verify(taskRepository).update(task);
     }
-}
\ No newline at end of file
+
+    /**
+     * Выполняется проверка установки задаче выбранных категорий
+     * перед сохранением задачи.
+     */
+    @Test
+    void whenAddOrUpdateThenCategoriesSet() {
+        List<Integer> categoryIds = List.of(1, 2);
+        List<Category> categories = List.of(
+                Category.builder().id(1).name("category1").build(),
+                Category.builder().id(2).name("category2").build());
+        task.setId(0);
+        doReturn(categories).when(categoryService).findCategoriesByIds(categoryIds);
+        doReturn(Optional.of(task)).when(taskRepository).add(task);
+        taskService.addOrUpdateTask(task, categoryIds);
+
+        assertThat(task.getCategories()).isEqualTo(categories);
+    }
+
+    /**
+     * Выполняется проверка передачи в хранилище уникальных идентификаторов
+     * задач без null значений при групповом переводе в выполненные.
+     */
+    @Test
+    void whenCompleteTasksThenDistinctIdsPassed() {
+        doReturn(2).when(taskRepository).completeTasks(new LinkedHashSet<>(List.of(1, 2)), 1);
+        int updated = taskService.completeTasks(Arrays.asList(1, 2, 1, null), 1);
+
+        assertThat(updated).isEqualTo(2);
+    }
+
+    /**
+     * Выполняется проверка группового удаления задач.
+     */
+    @Test
+    void whenDeleteTasksThenReturnCount() {
+        doReturn(1).when(taskRepository).deleteTasks(Set.of(1), 1);
+
+        assertThat(taskService.deleteTasks(List.of(1), 1)).isEqualTo(1);
+        assertThat(taskService.deleteTasks(null, 1)).isEqualTo(0);
+    }
+
+    /**
+     * Выполняется проверка группового изменения приоритета задач,
+     * приоритет не запрашивается при пустом списке задач.
+     */
+    @Test
+    void whenChangePriorityThenReturnCount() {
+        doReturn(priority).when(priorityService).findPriorityByName("priority");
+        doReturn(1).when(taskRepository).changePriority(Set.of(1), priority, 1);
+
+        assertThat(taskService.changePriority(List.of(1), "priority", 1)).isEqualTo(1);
+        assertThat(taskService.changePriority(List.of(), "priority", 1)).isEqualTo(0);
+        verify(priorityService).findPriorityByName("priority");
+    }
+
+    /**
+     * Создает представление задачи для страницы списка задач.
+     *
+     * @param id идентификатор задачи
+     * @return представление задачи
+     */
+    private TaskListView view(int id) {
+        return new TaskListView(id, "task" + id, null, false, "username", "priority");
+    }
+
+    /**
+     * Возвращает наименования задач пользователя из индекса по строке "a".
+     *
+     * @return наименования задач
+     */
+    private List<String> suggestedNames() {
+        List<String> names = new ArrayList<>();
+        taskNameIndex.suggest(1, "a", 10).forEach(suggestion -> names.add(suggestion.getName()));
+        return names;
+    }
+
+    /**
+     * Создает результат поиска задачи.
+     *
+     * @param id идентификатор задачи
+     * @return результат поиска задачи
+     */
+    private TaskSearchResult result(int id) {
+        return new TaskSearchResult(id, "task" + id, null, false, "priority", "description", 0);
+    }
+}
@@ -13,8 +13,11 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 /**
  * Тест класс реализации сервисов
@@ -34,6 +37,11 @@ class ImplUserServiceTest {
      */
     private UserService userService;
 
+    /**
+     * Хеширование паролей с небольшим количеством итераций
+     */
+    private PasswordHasher passwordHasher;
+
     /**
      * Категория
      */
@@ -46,7 +54,8 @@ class ImplUserServiceTest {
     @BeforeEach
     public void setup() {
         userRepository = Mockito.mock(UserRepository.class);
-        userService = new ImplUserService(userRepository);
+        passwordHasher = new PasswordHasher(1000, 2, 16);
+        userService = new ImplUserService(userRepository, passwordHasher);
         user = User.builder()
                 .id(1)
                 .name("user")
@@ -56,6 +65,23 @@ class ImplUserServiceTest {
                 .build();
     }
 
+    /**
+     * Возвращает копию пользователя, прочитанную из базы данных без кэша.
+     *
+     * @param user пользователь
+     * @param password хеш пароля копии
+     * @return копия пользователя
+     */
+    private User copy(User user, String password) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .timezone(user.getTimezone())
+                .login(user.getLogin())
+                .password(password)
+                .build();
+    }
+
     /**
      * Выполняется проверка возврата пользователя, при возврате от
      * userRepository Optional.of(user), т.е. если пользователь был сохранен.
@@ -66,6 +92,8 @@ class ImplUserServiceTest {
         User userFromDB = userService.add(user);
         assertThat(userFromDB).isEqualTo(user);
         assertThat(userFromDB).isNotNull();
+        assertThat(userFromDB.getPassword()).startsWith("pbkdf2$1000$");
+        assertThat(passwordHasher.matches("password", userFromDB.getPassword())).isTrue();
     }
 
     /**
@@ -89,6 +117,7 @@ class ImplUserServiceTest {
         User updatedUser = userService.update(user);
 
         assertThat(updatedUser).isEqualTo(user);
+        assertThat(passwordHasher.matches("password", updatedUser.getPassword())).isTrue();
     }
 
     /**
@@ -129,18 +158,23 @@ class ImplUserServiceTest {
     /**
      * Выполняется проверка валидации пользователя, при возврате
      * от userRepository Optional.of(user), т.е. если пользователь найден по login.
+     * Пароль, совпавший с хешем пользователя из кэша, не перепроверяется по базе данных.
      */
     @Test
     void whenValidateUserByLoginThenReturnUser() {
+        User login = User.builder().login("login").password("password").build();
+        user.setPassword(passwordHasher.hash("password"));
         doReturn(Optional.of(user)).when(userRepository).findUserByLogin(anyString());
-        User userFromDB = userService.validateUserLogin(user);
+        User userFromDB = userService.validateUserLogin(login);
 
         assertThat(userFromDB).isEqualTo(user);
+        verify(userRepository, never()).findFreshUserByLogin(anyString());
     }
 
     /**
-     * Выполняется проверка выброса исключения, при возврате от
-     * userRepository Optional.empty(), если пользователь не найден по login.
+     * Выполняется проверка выброса исключения, при несовпадении пароля
+     * с хешем из кэша и с тем же хешем в базе данных: пользователь
+     * остается в кэше.
      */
     @Test
     void whenValidateUserByLoginThenThrowsException() {
@@ -152,8 +186,91 @@ class ImplUserServiceTest {
                 .password("password1")
                 .build();
         doReturn(Optional.of(user2)).when(userRepository).findUserByLogin(anyString());
+        doReturn(Optional.of(copy(user2, user2.getPassword()))).when(userRepository).findFreshUserByLogin(anyString());
 
         assertThrows(IllegalArgumentException.class,
                 () -> userService.validateUserLogin(user));
+        verify(userRepository, never()).evict(any());
+    }
+
+    /**
+     * Выполняется проверка выброса исключения для логина, отсутствие которого
+     * сохранено в кэше: база данных не запрашивается.
+     */
+    @Test
+    void whenValidateUnknownLoginThenThrowsExceptionWithoutFreshRead() {
+        doReturn(Optional.empty()).when(userRepository).findUserByLogin(anyString());
+
+        assertThrows(NoSuchElementException.class,
+                () -> userService.validateUserLogin(user));
+        verify(userRepository, never()).findFreshUserByLogin(anyString());
+    }
+
+    /**
+     * Пароль изменен на другом экземпляре приложения: в кэше прежний хеш.
+     * Выполняем проверку, что новый пароль проверяется по хешу из базы данных,
+     * а пользователь удаляется из кэша.
+     */
+    @Test
+    void whenCachedHashStaleThenEvictedAndFreshHashChecked() {
+        user.setPassword(passwordHasher.hash("old"));
+        User fresh = copy(user, passwordHasher.hash("password"));
+        User login = User.builder().login("login").password("password").build();
+        doReturn(Optional.of(user)).when(userRepository).findUserByLogin("login");
+        doReturn(Optional.of(fresh)).when(userRepository).findFreshUserByLogin("login");
+
+        User userFromDB = userService.validateUserLogin(login);
+
+        assertThat(userFromDB).isSameAs(fresh);
+        verify(userRepository).evict(user);
+    }
+
+    /**
+     * Выполняется проверка замены пароля, сохраненного в открытом виде,
+     * хешем при успешном входе пользователя. Обновляется пользователь,
+     * прочитанный из базы данных без кэша.
+     */
+    @Test
+    void whenValidatePlaintextPasswordThenMigratedToHash() {
+        User login = User.builder().login("login").password("password").build();
+        User fresh = copy(user, user.getPassword());
+        doReturn(Optional.of(user)).when(userRepository).findUserByLogin("login");
+        doReturn(Optional.of(fresh)).when(userRepository).findFreshUserByLogin("login");
+
+        User userFromDB = userService.validateUserLogin(login);
+
+        verify(userRepository).update(fresh);
+        assertThat(fresh.getPassword()).startsWith("pbkdf2$");
+        assertThat(userFromDB.getPassword()).isEqualTo(fresh.getPassword());
+        assertThat(passwordHasher.matches("password", userFromDB.getPassword())).isTrue();
+    }
+
+    /**
+     * Выполняется проверка, что хеш с текущим количеством итераций
+     * при входе пользователя не пересчитывается.
+     */
+    @Test
+    void whenValidateHashedPasswordThenNotUpdated() {
+        user.setPassword(passwordHasher.hash("password"));
+        User login = User.builder().login("login").password("password").build();
+        doReturn(Optional.of(user)).when(userRepository).findUserByLogin("login");
+
+        User userFromDB = userService.validateUserLogin(login);
+
+        verify(userRepository, never()).update(any());
+        assertThat(userFromDB).isEqualTo(user);
+    }
+
+    /**
+     * Выполняется проверка пароля пользователя по логину.
+     */
+    @Test
+    void whenCheckPasswordThenMatchesStoredHash() {
+        user.setPassword(passwordHasher.hash("password"));
+        doReturn(Optional.of(user)).when(userRepository).findUserByLogin("login");
+        doReturn(Optional.of(user)).when(userRepository).findFreshUserByLogin("login");
+
+        assertThat(userService.checkPassword("login", "password")).isTrue();
+        assertThat(userService.checkPassword("login", "password1")).isFalse();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,212 @@
+package ru.job4j.todo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тест класс хеширования паролей пользователей
+ * @see ru.job4j.todo.service.PasswordHasher
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class PasswordHasherTest {
+
+    /**
+     * Количество итераций хеширования в тестах
+     */
+    private static final int ITERATIONS = 1000;
+
+    /**
+     * Наибольшее время замера пропускной способности хеширования
+     */
+    private static final long BENCHMARK_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * Верхняя оценка количества итераций PBKDF2 в секунду на одно ядро
+     */
+    private static final double MAX_ITERATIONS_PER_SECOND = 20_000_000;
+
+    /**
+     * Хеширование паролей
+     */
+    private PasswordHasher passwordHasher;
+
+    /**
+     * Создает необходимые для выполнения тестов общие объекты.
+     * Создание выполняется перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        passwordHasher = new PasswordHasher(ITERATIONS, 2, 4);
+    }
+
+    /**
+     * Останавливает пул хеширования после каждого теста.
+     */
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    /**
+     * Выполняется проверка, что хеш одного пароля каждый раз вычисляется с новой солью
+     * и проверяется только исходным паролем.
+     */
+    @Test
+    void whenHashThenSaltedAndMatchesOnlyOriginalPassword() {
+        String first = passwordHasher.hash("password");
+        String second = passwordHasher.hash("password");
+
+        assertThat(first).startsWith("pbkdf2$1000$").isNotEqualTo(second);
+        assertThat(passwordHasher.matches("password", first)).isTrue();
+        assertThat(passwordHasher.matches("password", second)).isTrue();
+        assertThat(passwordHasher.matches("password1", first)).isFalse();
+        assertThat(passwordHasher.matches("password", "pbkdf2$1000$%%$%%")).isFalse();
+        assertThat(passwordHasher.matches("password", "pbkdf2$0$AAAA$AAAA")).isFalse();
+        assertThat(passwordHasher.matches(null, first)).isFalse();
+    }
+
+    /**
+     * Выполняется проверка паролей, сохраненных в открытом виде и с меньшим
+     * количеством итераций: пароли проверяются, а записи требуют пересчета хеша.
+     */
+    @Test
+    void whenPlaintextOrWeakerHashThenNeedsRehash() {
+        PasswordHasher weaker = new PasswordHasher(ITERATIONS / 2, 1, 1);
+        String weakHash = weaker.hash("password");
+        weaker.shutdown();
+
+        assertThat(passwordHasher.matches("password", "password")).isTrue();
+        assertThat(passwordHasher.matches("password", "passwort")).isFalse();
+        assertThat(passwordHasher.matches("password", weakHash)).isTrue();
+        assertThat(passwordHasher.needsRehash("password")).isTrue();
+        assertThat(passwordHasher.needsRehash(weakHash)).isTrue();
+        assertThat(passwordHasher.needsRehash(passwordHasher.hash("password"))).isFalse();
+    }
+
+    /**
+     * Занимаются все потоки и вся очередь пула хеширования. Выполняем проверку,
+     * что следующая задача сразу отклоняется, а не ожидает освобождения потока.
+     */
+    @Test
+    void whenQueueFullThenRejectedImmediately() throws Exception {
+        PasswordHasher small = new PasswordHasher(ITERATIONS, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> running = callers.submit(() -> small.execute(() -> {
+                started.countDown();
+                return release.await(10, TimeUnit.SECONDS);
+            }));
+            started.await(10, TimeUnit.SECONDS);
+            Future<Boolean> queued = callers.submit(() -> small.execute(() -> true));
+            while (small.queued() == 0) {
+                Thread.onSpinWait();
+            }
+
+            long start = System.nanoTime();
+            assertThrows(RejectedExecutionException.class, () -> small.hash("password"));
+            long rejectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            release.countDown();
+
+            assertThat(rejectMillis).isLessThan(1000);
+            assertThat(running.get(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(queued.get(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            small.shutdown();
+        }
+    }
+
+    /**
+     * Выполняется одновременная проверка паролей из большего числа потоков,
+     * чем потоков пула хеширования, при очереди, вмещающей все ожидающие проверки.
+     * Выполняем проверку, что все проверки выполнены и успешны.
+     */
+    @Test
+    void whenConcurrentLoginsThenAllVerified() throws Exception {
+        int threads = 2;
+        int callers = 8;
+        int perCaller = 25;
+        PasswordHasher bounded = new PasswordHasher(ITERATIONS, threads, callers);
+        String stored = bounded.hash("password");
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    int verified = 0;
+                    for (int j = 0; j < perCaller; j++) {
+                        verified += bounded.matches("password", stored) ? 1 : 0;
+                    }
+                    return verified;
+                }));
+            }
+            int verified = 0;
+            for (Future<Integer> result : results) {
+                verified += result.get(60, TimeUnit.SECONDS);
+            }
+
+            assertThat(verified).isEqualTo(callers * perCaller);
+        } finally {
+            pool.shutdownNow();
+            bounded.shutdown();
+        }
+    }
+
+    /**
+     * Оценка пропускной способности проверки паролей на одно ядро процессора
+     * при количестве итераций из todo.password.iterations: пул из одного потока
+     * после прогрева проверяет пароль в течение ограниченного времени.
+     * Выполняем проверку, что все проверки успешны, и что количество проверок
+     * в секунду соответствует рабочему количеству итераций, а не тестовому.
+     *
+     * @throws IOException при ошибке чтения настроек приложения
+     */
+    @Test
+    void whenConfiguredIterationsThenHashesPerSecondPerCoreBounded() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/application.properties")) {
+            properties.load(in);
+        }
+        int iterations = Integer.parseInt(properties.getProperty("todo.password.iterations"));
+        PasswordHasher configured = new PasswordHasher(iterations, 1, 1);
+        try {
+            String stored = configured.hash("password");
+            configured.matches("password", stored);
+            int hashes = 0;
+            int verified = 0;
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                verified += configured.matches("password", stored) ? 1 : 0;
+                hashes++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < BENCHMARK_NANOS);
+            double perCore = hashes / (elapsed / 1e9);
+
+            assertThat(verified).isEqualTo(hashes);
+            assertThat(perCore).isPositive().isLessThan(MAX_ITERATIONS_PER_SECOND / iterations);
+        } finally {
+            configured.shutdown();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.job4j.todo.view;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тест класс форматирования моментов времени для вывода на страницах
+ * @see ru.job4j.todo.view.TimeFormatter
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class TimeFormatterTest {
+
+    /**
+     * Форматирование моментов времени
+     */
+    private final TimeFormatter timeFormatter = new TimeFormatter();
+
+    /**
+     * Выполняется проверка вывода одного момента времени в разных временных зонах.
+     */
+    @Test
+    void whenFormatThenTimeInUserZone() {
+        Instant created = Instant.parse("2022-10-01T21:30:00Z");
+
+        assertThat(timeFormatter.format(created, ZoneId.of("Europe/Moscow"))).isEqualTo("00:30 02.10.2022");
+        assertThat(timeFormatter.format(created, ZoneId.of("Europe/London"))).isEqualTo("22:30 01.10.2022");
+        assertThat(timeFormatter.format(created, ZoneId.of("Europe/Moscow"))).isEqualTo("00:30 02.10.2022");
+    }
+
+    /**
+     * Выполняется проверка вывода пустой строки при отсутствии момента времени.
+     */
+    @Test
+    void whenInstantIsNullThenEmptyString() {
+        assertThat(timeFormatter.format(null, ZoneId.of("Europe/Moscow"))).isEmpty();
+    }
+}
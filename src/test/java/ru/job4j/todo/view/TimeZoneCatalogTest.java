@@ -0,0 +1,81 @@
+package ru.job4j.todo.view;
+
+import org.junit.jupiter.api.Test;
+import ru.job4j.todo.dto.TimeZoneOption;
+import ru.job4j.todo.dto.TimeZoneRegion;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тест класс каталога временных зон
+ * @see ru.job4j.todo.view.TimeZoneCatalog
+ * @author Alexander Emelyanov
+ * @version 1.0
+ */
+class TimeZoneCatalogTest {
+
+    /**
+     * Выполняется проверка группировки зон по регионам с упорядочиванием
+     * регионов и зон внутри региона.
+     */
+    @Test
+    void whenBuildThenZonesGroupedAndSorted() {
+        TimeZoneCatalog catalog = new TimeZoneCatalog();
+        List<TimeZoneRegion> regions = catalog.getRegions();
+
+        assertThat(regions).extracting(TimeZoneRegion::getName).isSorted().contains("Europe", "America", "Other");
+        for (TimeZoneRegion region : regions) {
+            assertThat(region.getZones()).extracting(TimeZoneOption::getId).isSorted();
+        }
+        assertThat(regions.stream().mapToInt(region -> region.getZones().size()).sum())
+                .isEqualTo(ZoneId.getAvailableZoneIds().size());
+    }
+
+    /**
+     * Выполняется проверка смещения и подписи зоны на заданный момент,
+     * летнее время учитывается по часам каталога.
+     */
+    @Test
+    void whenFindThenOffsetAtClockInstant() {
+        TimeZoneCatalog winter = new TimeZoneCatalog(
+                Clock.fixed(Instant.parse("2022-01-15T12:00:00Z"), ZoneOffset.UTC));
+        TimeZoneCatalog summer = new TimeZoneCatalog(
+                Clock.fixed(Instant.parse("2022-07-15T12:00:00Z"), ZoneOffset.UTC));
+
+        assertThat(winter.find("Europe/London").orElseThrow().getLabel()).isEqualTo("(UTC+00:00) Europe/London");
+        assertThat(summer.find("Europe/London").orElseThrow().getLabel()).isEqualTo("(UTC+01:00) Europe/London");
+        assertThat(summer.find("Europe/Moscow").orElseThrow().getOffsetSeconds()).isEqualTo(3 * 3600);
+    }
+
+    /**
+     * Выполняется проверка поиска идентификатора временной зоны в каталоге.
+     */
+    @Test
+    void whenContainsThenOnlyKnownZones() {
+        TimeZoneCatalog catalog = new TimeZoneCatalog();
+
+        assertThat(catalog.contains("Europe/Moscow")).isTrue();
+        assertThat(catalog.contains("Mars/Olympus")).isFalse();
+        assertThat(catalog.contains(null)).isFalse();
+        assertThat(catalog.find("Mars/Olympus")).isEmpty();
+    }
+
+    /**
+     * Выполняется проверка неизменяемости списка регионов каталога.
+     */
+    @Test
+    void whenModifyRegionsThenUnsupported() {
+        TimeZoneCatalog catalog = new TimeZoneCatalog();
+
+        assertThrows(UnsupportedOperationException.class, () -> catalog.getRegions().clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> catalog.getRegions().get(0).getZones().clear());
+    }
+}